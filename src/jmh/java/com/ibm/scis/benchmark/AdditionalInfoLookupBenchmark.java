@@ -0,0 +1,93 @@
+package com.ibm.scis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.scis.utils.AdditionalInfoIndex;
+
+/**
+ * Resolves the additionalInfo fields read by the compliance mapper, once per
+ * record, through the previous linear scan and through {@link AdditionalInfoIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdditionalInfoLookupBenchmark {
+
+	static final String[] FIELDS = { "specVersion", "partialfullpcf", "version", "declaredUnit",
+			"unitaryProductAmount", "exemptedEmissionsPercent", "exemptedEmissionsDescription",
+			"packagingEmissionsIncluded", "boundaryProcessDescription", "referencePeriodStart", "referencePeriodEnd",
+			"characterizationFactors", "allocationRulesDescription", "allocationWasteIncineration",
+			"pcfExcludingBiogenic", "pcfIncludingBiogenic", "fossilGhgEmissions",
+			"biogenicCarbonEmissionsOotherThanCo2", "biogenicCarbonWithdrawal", "dlucGhgEmissions", "luGhgEmissions",
+			"aircraftGhgEmissions", "packagingGhgEmissions", "distributionPcfExcludingIogenic",
+			"distributionPcfIncludingBiogenic", "distributionFossilGhgEmissions",
+			"distributionBiogenicCarbonEmissionsOtherThanCo2", "distributionBiogenicCarbonWithdrawal",
+			"distributionDlucGhgEmissions", "distributionLuGhgEmissions", "distributionAircraftGhgEmissions",
+			"fossilCarbonContent", "biogenicCarbonContent", "crossSectoralStandardsUsed" };
+
+	/** Entries in the additionalInfo array besides the wanted fields. */
+	@Param({ "0", "50", "500" })
+	int extraEntries;
+
+	JsonNode record;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		ObjectNode node = objectMapper.createObjectNode();
+		ArrayNode additionalInfo = node.putArray("additionalInfo");
+		for (int i = 0; i < extraEntries; i++) {
+			additionalInfo.addObject().put("name", "custom" + i).put("value", "value" + i);
+		}
+		for (String field : FIELDS) {
+			additionalInfo.addObject().put("name", field).put("value", "1.0");
+		}
+		record = node;
+	}
+
+	@Benchmark
+	public void linearScan(Blackhole blackhole) {
+		for (String field : FIELDS) {
+			blackhole.consume(scanAdditionalInfo(record, field));
+		}
+	}
+
+	@Benchmark
+	public void indexed(Blackhole blackhole) {
+		AdditionalInfoIndex additionalInfo = AdditionalInfoIndex.of(record);
+		for (String field : FIELDS) {
+			blackhole.consume(additionalInfo.get(field));
+		}
+	}
+
+	/** The lookup used by the compliance mapper before the index was introduced. */
+	static String scanAdditionalInfo(JsonNode node, String name) {
+		if (node.has("additionalInfo")) {
+			for (JsonNode infoNode : node.get("additionalInfo")) {
+				if (infoNode.has("name") && infoNode.get("name").asText().equals(name)) {
+					String value = infoNode.get("value").asText();
+					return (value == null || "null".equals(value)) ? "" : value;
+				}
+			}
+		}
+		return "";
+	}
+}
@@ -0,0 +1,142 @@
+package com.ibm.scis.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.scis.model.ConversionResponse;
+import com.ibm.scis.pipeline.CsvSinkFactory;
+import com.ibm.scis.serviceImpl.ComplianceRecordServiceImpl;
+import com.ibm.scis.serviceImpl.OrganizationServiceImpl;
+import com.ibm.scis.serviceImpl.ProductServiceImpl;
+import com.ibm.scis.serviceImpl.ProductSupplierServiceImpl;
+
+/**
+ * One JSON-to-CSV conversion end to end per operation: read the input from a
+ * local COS, parse, map, validate, write and upload the CSV outputs. Inputs
+ * are {@code records} copies of the bundled sample records with unique
+ * identifiers. The {@code records} counter reports records per second; run
+ * with {@code -prof gc} and divide {@code gc.alloc.rate.norm} by
+ * {@code records} for the bytes allocated per record.
+ * <p>
+ * Outputs are streamed to the local COS. Temp-file mode is not offered
+ * because it also copies every output into {@code src/main/resources} of the
+ * working directory. {@code compression} sets the codec of every output
+ * ({@code none}, {@code gzip} or {@code zstd}). {@code delta} sets
+ * {@code ibm.scis.output.delta} for the compliance conversion; the input does
+ * not change between operations, so every run after the first publishes an
+ * empty delta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionEngineBenchmark {
+
+	@Param({ "product", "compliance", "organization", "productSupplier" })
+	String engine;
+
+	@Param({ "1000", "10000" })
+	int records;
+
+	@Param({ "1" })
+	int parallelism;
+
+	@Param({ "0" })
+	int latencyMs;
+
+	@Param({ "none" })
+	String compression;
+
+	@Param({ "off" })
+	String delta;
+
+	ConversionFixture fixture;
+	Callable<ConversionResponse> conversion;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class RecordCounter {
+		public long records;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			records = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		fixture = new ConversionFixture(Map.of("ibm.scis.output.mode", CsvSinkFactory.STREAMING,
+				"ibm.scis.conversion.parallelism", parallelism, "ibm.scis.output.compression", "=" + compression,
+				"ibm.scis.output.delta", delta),
+				latencyMs);
+		switch (engine) {
+		case "product":
+			fixture.put("/import/products//product.json",
+					fixture.synthetic("product.json", records, (record, i) -> suffix(record, "partNumber", i)));
+			ProductServiceImpl productService = fixture.bean(ProductServiceImpl.class);
+			conversion = () -> productService.convertJsonToCsv("product.json", null);
+			break;
+		case "compliance":
+			fixture.put("import/Compliance.json", fixture.synthetic("compliance.json", records, (record, i) -> {
+				suffix(record, "id", i);
+				suffix((ObjectNode) record.get("product"), "partNumber", i);
+			}));
+			ComplianceRecordServiceImpl complianceService = fixture.bean(ComplianceRecordServiceImpl.class);
+			conversion = () -> complianceService.convertJsonToCsv("Compliance.json", null);
+			break;
+		case "organization":
+			fixture.put("/import/contacts/Organization.json", fixture.synthetic("organization.json", records,
+					(record, i) -> suffix(record, "organizationIdentifier", i)));
+			OrganizationServiceImpl organizationService = fixture.bean(OrganizationServiceImpl.class);
+			conversion = () -> organizationService.convertJsonToCsv("Organization.json", null);
+			break;
+		case "productSupplier":
+			String key = "/import/products//ProductSupplier_20240101000000000.json";
+			fixture.put(key, fixture.synthetic("product_supplier.json", records,
+					(record, i) -> suffix((ObjectNode) record.get("product"), "partNumber", i)));
+			ProductSupplierServiceImpl productSupplierService = fixture.bean(ProductSupplierServiceImpl.class);
+			conversion = () -> productSupplierService.convertJsonToCsv(key, null);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown engine: " + engine);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		fixture.close();
+	}
+
+	@Benchmark
+	public ConversionResponse convert(RecordCounter counter) throws Exception {
+		ConversionResponse response = conversion.call();
+		if (!response.isSuccess()) {
+			throw new IllegalStateException(engine + " conversion failed: " + response.getMessage());
+		}
+		counter.records += records;
+		return response;
+	}
+
+	private static void suffix(ObjectNode record, String field, int i) {
+		record.put(field, record.path(field).asText() + "-" + i);
+	}
+}
@@ -0,0 +1,115 @@
+package com.ibm.scis.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.scis.local.LocalCosClient;
+import com.ibm.scis.metrics.ConversionMetrics;
+import com.ibm.scis.pipeline.ChunkedRecordProcessor;
+import com.ibm.scis.pipeline.CsvSinkFactory;
+import com.ibm.scis.pipeline.DeltaOutput;
+import com.ibm.scis.pipeline.OutputCompression;
+import com.ibm.scis.pipeline.RecordQuarantine;
+import com.ibm.scis.serviceImpl.ComplianceRecordServiceImpl;
+import com.ibm.scis.serviceImpl.FordToFlexServiceImpl;
+import com.ibm.scis.serviceImpl.OrganizationServiceImpl;
+import com.ibm.scis.serviceImpl.ProductServiceImpl;
+import com.ibm.scis.serviceImpl.ProductSupplierServiceImpl;
+import com.ibm.scis.state.StateStore;
+import com.ibm.scis.utils.CosBucketIndex;
+import com.ibm.scis.utils.ServiceUtil;
+
+/**
+ * The converters wired by Spring as in the application, minus controllers and
+ * schedulers, over a {@link LocalCosClient} in a temporary directory that also
+ * holds the state journals. Buckets are {@code flex} and {@code ford};
+ * {@code properties} override any other {@code ibm.*} setting. Logging is
+ * lowered to WARN so per-file INFO lines do not end up in the measurements.
+ */
+final class ConversionFixture implements AutoCloseable {
+
+	static final String FLEX_BUCKET = "flex";
+	static final String FORD_BUCKET = "ford";
+
+	final ObjectMapper objectMapper = new ObjectMapper();
+	final Path root;
+	final LocalCosClient cosClient;
+	private final AnnotationConfigApplicationContext context;
+
+	ConversionFixture(Map<String, Object> properties, int latencyMs) throws IOException {
+		((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+		root = Files.createTempDirectory("scis-benchmark");
+		cosClient = new LocalCosClient(root, latencyMs, 0, 0, 0);
+		cosClient.createBucket(FLEX_BUCKET);
+		cosClient.createBucket(FORD_BUCKET);
+		context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+				Map.of("ibm.cos.bucket.flex", FLEX_BUCKET, "ibm.cos.bucket.ford", FORD_BUCKET, "ibm.scis.state.dir",
+						root.resolve("state").toString())));
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("overrides", properties));
+		context.registerBean(ObjectMapper.class, () -> objectMapper);
+		context.registerBean(AmazonS3.class, () -> cosClient);
+		context.register(CosBucketIndex.class, ServiceUtil.class, ConversionMetrics.class, StateStore.class);
+		context.register(ChunkedRecordProcessor.class, RecordQuarantine.class, OutputCompression.class,
+				CsvSinkFactory.class, DeltaOutput.class);
+		context.register(ProductServiceImpl.class, ComplianceRecordServiceImpl.class, OrganizationServiceImpl.class,
+				ProductSupplierServiceImpl.class, FordToFlexServiceImpl.class);
+		context.refresh();
+	}
+
+	<T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	/** Stores {@code json} as an object of the flex bucket. */
+	void put(String key, JsonNode json) throws IOException {
+		cosClient.putObject(FLEX_BUCKET, key, objectMapper.writeValueAsString(json));
+	}
+
+	/**
+	 * An array of {@code records} copies of the records of a bundled sample
+	 * file, used in turn; {@code vary} receives each copy and its index so
+	 * identifiers can be made unique.
+	 */
+	ArrayNode synthetic(String sampleResource, int records, ObjIntConsumer<ObjectNode> vary) throws IOException {
+		JsonNode sample;
+		try (InputStream in = ConversionFixture.class.getClassLoader().getResourceAsStream(sampleResource)) {
+			if (in == null) {
+				throw new IOException("Sample not found on the classpath: " + sampleResource);
+			}
+			sample = objectMapper.readTree(in);
+		}
+		ArrayNode input = objectMapper.createArrayNode();
+		for (int i = 0; i < records; i++) {
+			ObjectNode record = sample.get(i % sample.size()).deepCopy();
+			vary.accept(record, i);
+			input.add(record);
+		}
+		return input;
+	}
+
+	@Override
+	public void close() throws IOException {
+		context.close();
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+}
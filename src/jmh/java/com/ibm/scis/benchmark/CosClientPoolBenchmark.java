@@ -0,0 +1,245 @@
+package com.ibm.scis.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ibm.cloud.objectstorage.auth.AWSStaticCredentialsProvider;
+import com.ibm.cloud.objectstorage.auth.BasicAWSCredentials;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3ClientBuilder;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectRequest;
+import com.ibm.scis.utils.CosClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Throughput of the COS client, built from {@link CosClientProperties} as the
+ * application builds it, against a local S3 stand-in as the connection pool
+ * grows. The stand-in answers PUT and HEAD after {@code latencyMs}, so a call
+ * costs about one round trip and the result shows how many requests the pool
+ * lets 32 callers keep in flight.
+ * <p>
+ * Set {@code -p slowDownPercent=5} to answer that share of requests with
+ * {@code 503 SlowDown} and include the jittered retries in the measurement.
+ * Change the caller count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(32)
+@Fork(1)
+public class CosClientPoolBenchmark {
+
+	private static final String BUCKET = "benchmark";
+
+	@Param({ "2", "8", "32" })
+	int maxConnections;
+
+	@Param({ "10" })
+	int latencyMs;
+
+	@Param({ "16" })
+	int objectSizeKb;
+
+	@Param({ "0" })
+	int slowDownPercent;
+
+	LocalS3 server;
+	AmazonS3 cosClient;
+	byte[] payload;
+	final AtomicLong keys = new AtomicLong();
+
+	@Setup
+	public void setUp() throws IOException {
+		server = new LocalS3(latencyMs, slowDownPercent);
+		CosClientProperties properties = new CosClientProperties();
+		properties.setMaxConnections(maxConnections);
+		properties.getRetry().setBaseDelayMs(20);
+		properties.getRetry().setThrottledBaseDelayMs(50);
+		cosClient = AmazonS3ClientBuilder.standard()
+				.withEndpointConfiguration(new AmazonS3ClientBuilder.EndpointConfiguration(server.endpoint(), null))
+				.withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("benchmark", "benchmark")))
+				.withPathStyleAccessEnabled(true).withClientConfiguration(properties.toClientConfiguration()).build();
+		payload = new byte[objectSizeKb * 1024];
+		ThreadLocalRandom.current().nextBytes(payload);
+		cosClient.putObject(putRequest("warm-up"));
+	}
+
+	@TearDown
+	public void tearDown() {
+		cosClient.shutdown();
+		server.stop();
+	}
+
+	@Benchmark
+	public String putObject() {
+		return cosClient.putObject(putRequest("objects/" + keys.incrementAndGet() % 1024 + ".csv")).getETag();
+	}
+
+	@Benchmark
+	public long headObject() {
+		return cosClient.getObjectMetadata(BUCKET, "warm-up").getContentLength();
+	}
+
+	private PutObjectRequest putRequest(String key) {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(payload.length);
+		return new PutObjectRequest(BUCKET, key, new ByteArrayInputStream(payload), metadata);
+	}
+
+	/**
+	 * Minimal path-style S3 endpoint keeping object sizes and ETags in memory.
+	 * Every request is answered after a fixed delay on its own thread, so the
+	 * server never limits concurrency.
+	 */
+	static final class LocalS3 {
+
+		private static final byte[] SLOW_DOWN = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>SlowDown</Code>"
+				+ "<Message>Please reduce your request rate.</Message></Error>").getBytes(StandardCharsets.UTF_8);
+
+		private final HttpServer httpServer;
+		private final ExecutorService handlers = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "local-s3");
+			thread.setDaemon(true);
+			return thread;
+		});
+		private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+		private final int latencyMs;
+		private final int slowDownPercent;
+
+		LocalS3(int latencyMs, int slowDownPercent) throws IOException {
+			this.latencyMs = latencyMs;
+			this.slowDownPercent = slowDownPercent;
+			httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+			httpServer.setExecutor(handlers);
+			httpServer.createContext("/", this::handle);
+			httpServer.start();
+		}
+
+		String endpoint() {
+			return "http://127.0.0.1:" + httpServer.getAddress().getPort();
+		}
+
+		void stop() {
+			httpServer.stop(0);
+			handlers.shutdownNow();
+		}
+
+		private void handle(HttpExchange exchange) throws IOException {
+			try (exchange) {
+				byte[] body = readBody(exchange);
+				Thread.sleep(latencyMs);
+				if (slowDownPercent > 0 && ThreadLocalRandom.current().nextInt(100) < slowDownPercent) {
+					send(exchange, 503, "HEAD".equals(exchange.getRequestMethod()) ? null : SLOW_DOWN);
+					return;
+				}
+				String key = exchange.getRequestURI().getPath();
+				switch (exchange.getRequestMethod()) {
+				case "PUT":
+					StoredObject stored = new StoredObject(body.length, md5Hex(body));
+					objects.put(key, stored);
+					exchange.getResponseHeaders().add("ETag", "\"" + stored.eTag() + "\"");
+					send(exchange, 200, null);
+					break;
+				case "HEAD":
+					StoredObject object = objects.get(key);
+					if (object == null) {
+						send(exchange, 404, null);
+						break;
+					}
+					exchange.getResponseHeaders().add("ETag", "\"" + object.eTag() + "\"");
+					exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.size()));
+					exchange.getResponseHeaders().add("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT");
+					send(exchange, 200, null);
+					break;
+				default:
+					send(exchange, 405, null);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private record StoredObject(long size, String eTag) {
+		}
+
+		private static byte[] readBody(HttpExchange exchange) throws IOException {
+			byte[] body;
+			try (InputStream in = exchange.getRequestBody()) {
+				body = in.readAllBytes();
+			}
+			String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+			return contentSha256 != null && contentSha256.startsWith("STREAMING-") ? decodeAwsChunked(body) : body;
+		}
+
+		/** Strips the signed chunk framing ({@code <hex size>;chunk-signature=...\r\n<data>\r\n}). */
+		private static byte[] decodeAwsChunked(byte[] body) {
+			ByteArrayOutputStream payload = new ByteArrayOutputStream(body.length);
+			int position = 0;
+			while (position < body.length) {
+				int lineEnd = position;
+				while (body[lineEnd] != '\r') {
+					lineEnd++;
+				}
+				String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+				int size = Integer.parseInt(header.substring(0, header.indexOf(';')), 16);
+				if (size == 0) {
+					break;
+				}
+				payload.write(body, lineEnd + 2, size);
+				position = lineEnd + 2 + size + 2;
+			}
+			return payload.toByteArray();
+		}
+
+		/** Sends a response; a {@code null} body sends headers only. */
+		private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+			if (body == null) {
+				exchange.sendResponseHeaders(status, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(status, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+
+		private static String md5Hex(byte[] body) {
+			try {
+				return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.ibm.scis.benchmark;
+
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ibm.scis.utils.CountryCodes;
+
+/**
+ * Compares the per-call {@code Locale.getAvailableLocales()} scans previously used by
+ * the compliance and Ford converters with the prebuilt {@link CountryCodes} table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountryCodeLookupBenchmark {
+
+	@Param({ "DE", "SG", "US" })
+	String iso2;
+
+	String iso3;
+
+	@Setup
+	public void setUp() {
+		iso3 = new Locale("", iso2).getISO3Country();
+	}
+
+	@Benchmark
+	public String localeScanToIso2() {
+		return scanToIso2(iso3);
+	}
+
+	@Benchmark
+	public String tableToIso2() {
+		return CountryCodes.toIso2(iso3);
+	}
+
+	@Benchmark
+	public String localeScanToIso3() {
+		return scanToIso3(iso2);
+	}
+
+	@Benchmark
+	public String tableToIso3() {
+		return CountryCodes.toIso3(iso2);
+	}
+
+	/**
+	 * Former ComplianceRecordServiceImpl.convertCountryCode. The original did not
+	 * guard getISO3Country(), which throws for locales such as sr_CS.
+	 */
+	static String scanToIso2(String code) {
+		if (code.length() == 2) {
+			return code;
+		} else if (code.length() == 3) {
+			for (Locale locale : Locale.getAvailableLocales()) {
+				if (code.equals(iso3Country(locale))) {
+					return locale.getCountry();
+				}
+			}
+		}
+		return "Invalid country code";
+	}
+
+	/** Former FordToFlexServiceImpl.convertToISO3CountryCode. */
+	static String scanToIso3(String code) {
+		if (code.length() == 2) {
+			for (Locale locale : Locale.getAvailableLocales()) {
+				if (locale.getCountry().equals(code)) {
+					return locale.getISO3Country();
+				}
+			}
+		} else if (code.length() == 3) {
+			return code;
+		}
+		return "Invalid country code";
+	}
+
+	private static String iso3Country(Locale locale) {
+		try {
+			return locale.getISO3Country();
+		} catch (MissingResourceException e) {
+			return "";
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.ibm.scis.benchmark;
+
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ibm.scis.utils.FieldFormats;
+
+/**
+ * Compares the per-call DecimalFormat / DateTimeFormatter formatting previously done
+ * by the compliance and Ford converters with {@link FieldFormats}. Run with
+ * {@code -prof gc} to see the allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldFormatsBenchmark {
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+
+	String decimal = "12.345";
+	String date = "2024-09-11";
+	String isoDateTime = "2024-09-11T10:15:30.123Z";
+
+	@Benchmark
+	public String decimalFormatOneDecimal() {
+		DecimalFormat decimalFormat = new DecimalFormat("#.0");
+		decimalFormat.setMinimumFractionDigits(1);
+		decimalFormat.setMaximumFractionDigits(1);
+		return decimalFormat.format(Double.parseDouble(decimal));
+	}
+
+	@Benchmark
+	public String fieldFormatsOneDecimal() {
+		return FieldFormats.formatOneDecimal(decimal);
+	}
+
+	@Benchmark
+	public String localDateDayBoundary() {
+		return LocalDate.parse(date).atTime(23, 59, 59, 999999999).format(FORMATTER);
+	}
+
+	@Benchmark
+	public String fieldFormatsDayBoundary() {
+		return FieldFormats.formatDayBoundary(date, false);
+	}
+
+	@Benchmark
+	public String localDateTimeReformat() {
+		return LocalDateTime.parse(isoDateTime, DateTimeFormatter.ISO_DATE_TIME).format(FORMATTER);
+	}
+
+	@Benchmark
+	public String fieldFormatsReformat() {
+		return FieldFormats.reformatIsoDateTime(isoDateTime);
+	}
+}
@@ -0,0 +1,78 @@
+package com.ibm.scis.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.scis.serviceImpl.FordToFlexServiceImpl;
+
+/**
+ * {@link FordToFlexServiceImpl#processJsonObject} over {@code records} copies
+ * of the bundled Ford PCF response with distinct material numbers, so COS and
+ * JSON parsing are left out. The {@code records} counter reports records per
+ * second; run with {@code -prof gc} and divide {@code gc.alloc.rate.norm} by {@code records}
+ * for the bytes allocated per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FordToFlexBenchmark {
+
+	private static final Pattern SPACED_TIME = Pattern.compile("T(\\d{2}): (\\d{2}): (\\d{2})");
+
+	@Param({ "1000" })
+	int records;
+
+	List<Map<String, Object>> inputs;
+	FordToFlexServiceImpl service;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		String json;
+		try (InputStream in = FordToFlexBenchmark.class.getClassLoader().getResourceAsStream("pcf_gec.json")) {
+			json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		// The bundled sample has "14: 33: 17" style times, which FieldFormats rejects
+		JsonNode sample = objectMapper.readTree(SPACED_TIME.matcher(json).replaceAll("T$1:$2:$3")).get(0);
+		inputs = new ArrayList<>(records);
+		for (int i = 0; i < records; i++) {
+			ObjectNode input = sample.deepCopy();
+			input.put("materialNumber", input.path("materialNumber").asText() + "-" + i);
+			inputs.add(objectMapper.convertValue(input, new TypeReference<Map<String, Object>>() {
+			}));
+		}
+		service = new FordToFlexServiceImpl(objectMapper, null);
+	}
+
+	@Benchmark
+	public void processJsonObject(Blackhole blackhole, ConversionEngineBenchmark.RecordCounter counter) {
+		for (Map<String, Object> input : inputs) {
+			blackhole.consume(service.processJsonObject(input));
+		}
+		counter.records += inputs.size();
+	}
+}
@@ -0,0 +1,140 @@
+package com.ibm.scis.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ComplianceRecordDTO;
+import com.ibm.scis.pipeline.ChunkedRecordProcessor;
+import com.ibm.scis.pipeline.RecordSink;
+import com.ibm.scis.pipeline.RecordSource;
+import com.ibm.scis.pipeline.RejectedRecordException;
+import com.ibm.scis.utils.AdditionalInfoIndex;
+import com.ibm.scis.utils.CountryCodes;
+import com.ibm.scis.utils.FieldFormats;
+import com.ibm.scis.utils.ServiceUtil;
+import com.ibm.scis.validation.CompiledValidator;
+
+/**
+ * Throughput of {@link ChunkedRecordProcessor} over a synthetic compliance array
+ * as the number of mapping threads grows. The mapper does the same kind of work
+ * as the compliance converter (field lookups, formatting, validation) and the
+ * sink prints CSV rows to a discarding writer, so the result shows how far the
+ * mapping stage scales before the ordered writer becomes the bottleneck.
+ * <p>
+ * Cover more cores with {@code -p parallelism=1,2,4,8,16}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelConversionBenchmark {
+
+	@Param({ "1", "2", "4", "8" })
+	int parallelism;
+
+	@Param({ "256" })
+	int chunkSize;
+
+	@Param({ "20000" })
+	int records;
+
+	ArrayNode input;
+	ChunkedRecordProcessor processor;
+	CompiledValidator<ComplianceRecordDTO> validator;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		input = objectMapper.createArrayNode();
+		String[] countries = { "DE", "US", "SG", "FR", "IN" };
+		for (int i = 0; i < records; i++) {
+			ObjectNode record = input.addObject();
+			ArrayNode additionalInfo = record.putArray("additionalInfo");
+			for (int k = 0; k < 20; k++) {
+				additionalInfo.addObject().put("name", "filler" + k).put("value", "v" + k);
+			}
+			additionalInfo.addObject().put("name", "pcfExcludingBiogenic").put("value", String.valueOf(i * 0.37));
+			additionalInfo.addObject().put("name", "referencePeriodStart").put("value", "2024-01-01");
+			additionalInfo.addObject().put("name", "referencePeriodEnd").put("value", "2024-12-31");
+			record.putObject("product").put("partNumber", "P-" + i);
+			record.put("id", "id-" + i);
+			record.putObject("location").put("country", countries[i % countries.length]);
+		}
+		processor = new ChunkedRecordProcessor(parallelism, chunkSize);
+		validator = CompiledValidator.forClass(ComplianceRecordDTO.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		processor.destroy();
+	}
+
+	@Benchmark
+	public long convert() throws IOException, RejectedRecordException {
+		try (CountingSink sink = new CountingSink()) {
+			processor.process(RecordSource.of(input), this::map, sink);
+			return sink.count;
+		}
+	}
+
+	private ComplianceRecordDTO map(JsonNode node) throws ProcessingException {
+		AdditionalInfoIndex additionalInfo = AdditionalInfoIndex.of(node);
+		ComplianceRecordDTO record = new ComplianceRecordDTO();
+		record.setMaterialNumber(ServiceUtil.getNodeText(node, "product.partNumber", true));
+		record.setPcfId(ServiceUtil.getNodeText(node, "id", true));
+		record.setPcfExcludingBiogenic(FieldFormats.formatOneDecimal(additionalInfo.get("pcfExcludingBiogenic")));
+		record.setReferencePeriodStart(FieldFormats.formatDayBoundary(additionalInfo.get("referencePeriodStart"), true));
+		record.setReferencePeriodEnd(FieldFormats.formatDayBoundary(additionalInfo.get("referencePeriodEnd"), false));
+		record.setGeographyCountry(CountryCodes.toIso2(ServiceUtil.getNodeText(node, "location.country")));
+		// the synthetic records leave most mandatory fields empty; validate for the cost only
+		validator.validate(record);
+		return record;
+	}
+
+	private static final class CountingSink implements RecordSink<ComplianceRecordDTO> {
+		final CSVPrinter csvPrinter;
+		long count;
+
+		CountingSink() throws IOException {
+			csvPrinter = new CSVPrinter(Writer.nullWriter(), CSVFormat.DEFAULT);
+		}
+
+		@Override
+		public void accept(ComplianceRecordDTO record) throws IOException {
+			csvPrinter.printRecord(record.getMaterialNumber(), record.getPcfId(), record.getPcfExcludingBiogenic(),
+					record.getReferencePeriodStart(), record.getReferencePeriodEnd(), record.getGeographyCountry());
+			count++;
+		}
+
+		@Override
+		public void commit() throws IOException {
+			csvPrinter.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			csvPrinter.close();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.ibm.scis.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.ibm.scis.logging.TimingAspect;
+import com.ibm.scis.metrics.MethodTimings;
+import com.ibm.scis.serviceImpl.FordToFlexServiceImpl;
+
+/**
+ * Cost the aspects add to one call of {@link FordToFlexServiceImpl#processJsonObject}
+ * with the bundled Ford PCF response (about 4 KB once printed) as argument:
+ * <ul>
+ * <li>{@code none}: the service called directly;</li>
+ * <li>{@code logEveryCall}: the former LoggingAspect, logging every call with its
+ * arguments at INFO, with the pointcut it was meant to have;</li>
+ * <li>{@code timing}: {@link TimingAspect} as configured by default, no call
+ * being slow enough to log;</li>
+ * <li>{@code timingLogAll}: {@link TimingAspect} with a threshold of 0, so every
+ * call is logged with truncated arguments.</li>
+ * </ul>
+ * Log events are formatted by a pattern encoder and written to a null stream,
+ * so the numbers include formatting but not I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimingAspectBenchmark {
+
+	private static final Pattern SPACED_TIME = Pattern.compile("T(\\d{2}): (\\d{2}): (\\d{2})");
+
+	@Param({ "none", "logEveryCall", "timing", "timingLogAll" })
+	String aspect;
+
+	Map<String, Object> input;
+	FordToFlexServiceImpl service;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		String json;
+		try (InputStream in = TimingAspectBenchmark.class.getClassLoader().getResourceAsStream("pcf_gec.json")) {
+			json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		input = objectMapper.convertValue(
+				objectMapper.readTree(SPACED_TIME.matcher(json).replaceAll("T$1:$2:$3")).get(0),
+				new TypeReference<Map<String, Object>>() {
+				});
+		logToNullStream(LogEveryCallAspect.class);
+		logToNullStream(TimingAspect.class);
+
+		FordToFlexServiceImpl target = new FordToFlexServiceImpl(objectMapper, null);
+		switch (aspect) {
+		case "none":
+			service = target;
+			break;
+		case "logEveryCall":
+			service = proxy(target, new LogEveryCallAspect());
+			break;
+		case "timing":
+			service = proxy(target, new TimingAspect(new MethodTimings(), 1000, 1.0, 200));
+			break;
+		case "timingLogAll":
+			service = proxy(target, new TimingAspect(new MethodTimings(), 0, 1.0, 200));
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown aspect: " + aspect);
+		}
+	}
+
+	@Benchmark
+	public Map<String, Object> processJsonObject() {
+		return service.processJsonObject(input);
+	}
+
+	private static FordToFlexServiceImpl proxy(FordToFlexServiceImpl target, Object aspect) {
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(aspect);
+		return factory.getProxy();
+	}
+
+	private static void logToNullStream(Class<?> loggerClass) {
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t --- %logger{39} : %m%n");
+		encoder.start();
+		OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+		appender.setContext(context);
+		appender.setEncoder(encoder);
+		appender.setOutputStream(OutputStream.nullOutputStream());
+		appender.start();
+		ch.qos.logback.classic.Logger logger = context.getLogger(loggerClass);
+		logger.detachAndStopAllAppenders();
+		logger.addAppender(appender);
+		logger.setLevel(Level.INFO);
+		logger.setAdditive(false);
+	}
+
+	/** The removed LoggingAspect's log-every-call advice. */
+	@Aspect
+	public static class LogEveryCallAspect {
+
+		private static final Logger logger = LoggerFactory.getLogger(LogEveryCallAspect.class);
+
+		@Before("execution(* com.ibm.scis.serviceImpl..*.*(..))")
+		public void logBefore(JoinPoint joinPoint) {
+			logger.info("Entering method: {} with arguments: {}", joinPoint.getSignature().toShortString(),
+					joinPoint.getArgs());
+		}
+	}
+}
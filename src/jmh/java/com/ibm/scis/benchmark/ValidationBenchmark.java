@@ -0,0 +1,70 @@
+package com.ibm.scis.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ibm.scis.model.ComplianceRecordDTO;
+import com.ibm.scis.validation.CompiledValidator;
+
+/**
+ * Per-record validation cost of a {@link ComplianceRecordDTO}: Hibernate Validator
+ * as the services used it before, against {@link CompiledValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+	/** Number of constrained text fields left empty. */
+	@Param({ "0", "3" })
+	int invalidFields;
+
+	Validator beanValidator;
+	CompiledValidator<ComplianceRecordDTO> compiledValidator;
+	ComplianceRecordDTO record;
+
+	@Setup
+	public void setUp() throws IllegalAccessException {
+		beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+		compiledValidator = CompiledValidator.forClass(ComplianceRecordDTO.class);
+		record = new ComplianceRecordDTO();
+		int emptied = 0;
+		for (Field field : ComplianceRecordDTO.class.getDeclaredFields()) {
+			if (field.getType() != String.class || Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			field.setAccessible(true);
+			boolean constrained = field.getDeclaredAnnotations().length > 0;
+			field.set(record, constrained && emptied++ < invalidFields ? "" : "DE");
+		}
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<ComplianceRecordDTO>> beanValidation() {
+		return beanValidator.validate(record);
+	}
+
+	@Benchmark
+	public List<String> compiled() {
+		return compiledValidator.validate(record);
+	}
+}
@@ -13,7 +13,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class IbmScisApplication {
 
 	public static void main(String[] args) {
-		Dotenv dotenv = Dotenv.configure().filename("environment_variables.env").load();
+		Dotenv dotenv = Dotenv.configure().filename("environment_variables.env").ignoreIfMissing().load();
         dotenv.entries().forEach(entry -> System.setProperty(entry.getKey(), entry.getValue()));
 		SpringApplication.run(IbmScisApplication.class, args);
 	}
@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.ibm.scis.service.COSService;
@@ -36,11 +37,19 @@ public class CosBucketController {
 	    }
 	}
 
+	 /**
+	  * Lists the files of each import/export folder. With {@code includeFiles=false}
+	  * only the count, total size and newest timestamp of each folder are returned.
+	  */
 	 @GetMapping("/count-files-in-folders/{bucketName}")
-	    public ResponseEntity<Map<String, List<Map<String, Object>>>> countFilesInFolders(@PathVariable String bucketName) {
+	    public ResponseEntity<Map<String, ?>> countFilesInFolders(@PathVariable String bucketName,
+	            @RequestParam(defaultValue = "true") boolean includeFiles) {
 	        List<String> folderKeys = Arrays.asList("import/contacts/", "upload/pcf-standard/", "upload/pcf/",
 	                "import/partners/", "import/products/", "received/", "received/transformed/");
 	        
+	        if (!includeFiles) {
+	            return ResponseEntity.ok(cosService.summarizeFolders(bucketName, folderKeys));
+	        }
 	        Map<String, List<Map<String, Object>>> folderFiles = cosService.getFilesInFolders(bucketName, folderKeys);
 	        
 	        return ResponseEntity.ok(folderFiles);
@@ -1,13 +1,19 @@
 package com.ibm.scis.controller;
 
 import java.nio.file.Paths;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.io.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -16,50 +22,48 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
 import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ConversionCycleReport;
+import com.ibm.scis.model.ConversionCycleReport.FileReport;
 import com.ibm.scis.model.ConversionResponse;
 import com.ibm.scis.service.COSService;
-import com.ibm.scis.service.ComplianceRecordService;
-import com.ibm.scis.service.OrganizationService;
-import com.ibm.scis.service.ProductService;
-import com.ibm.scis.service.ProductSupplierService;
+import com.ibm.scis.service.ConversionDispatcher;
+import com.ibm.scis.state.InputManifest;
+import com.ibm.scis.state.StateJournal;
+import com.ibm.scis.state.StateStore;
+import com.ibm.scis.utils.ConversionExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @RestController
 public class JsonToCsvController {
 
-	@Value("${conversion.service.base-url}")
-	private String baseUrl;
-
 	@Autowired
 	private COSService cosService;
 
-
-
-	private static final Logger logger = LoggerFactory.getLogger(JsonToCsvController.class);
-
 	@Autowired
-	private ProductService productService;
+	private ConversionDispatcher conversionDispatcher;
 
 	@Autowired
-	private OrganizationService organizationService;
+	private InputManifest inputManifest;
 
 	@Autowired
-	private ComplianceRecordService complianceRecordService;
+	private StateStore stateStore;
 
-	private final RestTemplate restTemplate = new RestTemplate();
+	private static final Logger logger = LoggerFactory.getLogger(JsonToCsvController.class);
 
-	@Autowired
-	private ProductSupplierService productSupplierService;
+	@Value("${ibm.scis.scheduler.max-concurrent-conversions:1}")
+	private int maxConcurrentConversions;
 
-	private final Map<String, Long> lastProcessedTimes = new HashMap<>();
-	private final String stateFilePath = "lastProcessedTimes.ser";
+	private static final String LEGACY_STATE_FILE = "lastProcessedTimes.ser";
+	private static final String PRODUCT_SUPPLIER_JOB = "ProductSupplier";
 
-	public JsonToCsvController() {
-		loadState();
-	}
+	private StateJournal lastProcessedTimes;
+
+	private ExecutorService conversionExecutor;
+	private Semaphore conversionPermits;
+	private volatile ConversionCycleReport lastCycleReport;
 
 	@GetMapping("/convert")
 	public ResponseEntity<ConversionResponse> convertJsonToCsv(@RequestParam String jsonFileName,
@@ -67,31 +71,7 @@ public class JsonToCsvController {
 		logger.info("Received request to convert JSON to CSV. jsonFileName: {}, csvFilePath: {}", jsonFileName,
 				csvFilePath);
 
-		ConversionResponse response;
-		if (jsonFileName.equalsIgnoreCase("product.json")) {
-			logger.info("Routing to ProductService for product.json");
-			response = productService.convertJsonToCsv(jsonFileName, null);
-		} else if (jsonFileName.equalsIgnoreCase("Compliance.json")) {
-			logger.info("Routing to ComplianceRecordService for compliance.json");
-			response = complianceRecordService.convertJsonToCsv(jsonFileName, null);
-		} else if (jsonFileName.equalsIgnoreCase("Organization.json")) {
-			logger.info("Routing to OrganizationService for Organization.json");
-			response = organizationService.convertJsonToCsv(jsonFileName, null);
-		} else if (jsonFileName.startsWith("ProductSupplier")) {
-			logger.info("Fetching the latest ProductSupplier file");
-			String latestProductSupplierFile = getLatestProductSupplierFile();
-			if (latestProductSupplierFile == null) {
-				logger.error("No ProductSupplier files found");
-				return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-						.body(new ConversionResponse(false, "No ProductSupplier files found."));
-			}
-			logger.info("Routing to ProductSupplierService for {}", latestProductSupplierFile);
-			response = productSupplierService.convertJsonToCsv(latestProductSupplierFile, null);
-		} else {
-			logger.error("Invalid JSON file name: {}", jsonFileName);
-			return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-					.body(new ConversionResponse(false, "Invalid JSON File."));
-		}
+		ConversionResponse response = conversionDispatcher.convertJsonToCsv(jsonFileName);
 
 		if (response.isSuccess()) {
 			logger.info("Conversion successful");
@@ -102,19 +82,6 @@ public class JsonToCsvController {
 		}
 	}
 
-	private String getLatestProductSupplierFile() {
-		List<String> files = cosService.listFiles();
-		logger.info(files.toString() + " files found");
-		return files.stream()
-				.filter(file -> file.startsWith("/import/products//ProductSupplier_") && file.endsWith(".json"))
-				.max(Comparator.comparing(this::extractTimestamp)).orElse(null);
-	}
-
-	private long extractTimestamp(String fileName) {
-		String timestampStr = fileName.replaceAll("[^0-9]", "");
-		return Long.parseLong(timestampStr);
-	}
-
 	@GetMapping("/json/check")
 	public ResponseEntity<Set<String>> checkRequiredJsonFiles() {
 		try {
@@ -125,71 +92,212 @@ public class JsonToCsvController {
 		}
 	}
 
+	@GetMapping("/json/last-cycle")
+	public ResponseEntity<ConversionCycleReport> lastCycleReport() {
+		ConversionCycleReport report = lastCycleReport;
+		return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+	}
+
+	@PostConstruct
+	void startConversionExecutor() {
+		maxConcurrentConversions = Math.max(1, maxConcurrentConversions);
+		conversionPermits = new Semaphore(maxConcurrentConversions);
+		if (maxConcurrentConversions > 1) {
+			conversionExecutor = ConversionExecutors.newConversionExecutor("scheduled-conversion",
+					maxConcurrentConversions);
+			logger.info("Scheduled conversions run concurrently, at most {} at a time ({} threads)",
+					maxConcurrentConversions, ConversionExecutors.virtualThreadsAvailable() ? "virtual" : "platform");
+		}
+	}
+
+	@PreDestroy
+	void stopConversionExecutor() {
+		if (conversionExecutor != null) {
+			conversionExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Converts every discovered file that changed since its last successful
+	 * conversion (by ETag, size and last-modified time) and was not converted
+	 * within the last minute. With {@code ibm.scis.scheduler.max-concurrent-conversions} above 1,
+	 * independent files are converted in parallel; all ProductSupplier files
+	 * resolve to the latest one, so they stay in a single sequential job.
+	 */
 	@Scheduled(fixedRate = 60000)
 	public synchronized void scheduledCheckAndConvert() {
 		logger.info("Scheduled task started 1");
-		Set<String> foundFiles = cosService.checkRequiredJsonFiles();
+		Map<String, S3ObjectSummary> foundFiles = cosService.listRequiredJsonObjects();
 		long currentTime = System.currentTimeMillis();
-		boolean processedAnyFile = false;
+		long cycleStart = System.nanoTime();
 
-		for (String jsonFilePath : foundFiles) {
-			Long lastProcessedTime = lastProcessedTimes.get(jsonFilePath);
-			logger.info("Checking file: {}. Last processed time: {}", jsonFilePath, lastProcessedTime);
+		Map<String, List<S3ObjectSummary>> jobs = new LinkedHashMap<>();
+		for (Map.Entry<String, S3ObjectSummary> foundFile : foundFiles.entrySet()) {
+			jobs.computeIfAbsent(jobKey(foundFile.getKey()), key -> new ArrayList<>()).add(foundFile.getValue());
+		}
 
-			if (lastProcessedTime == null || currentTime - lastProcessedTime >= (TimeUnit.MINUTES.toMillis(1))) {
+		List<FileReport> fileReports = new ArrayList<>();
+		if (conversionExecutor == null) {
+			for (List<S3ObjectSummary> job : jobs.values()) {
+				fileReports.addAll(processFiles(job, currentTime));
+			}
+		} else {
+			List<Future<List<FileReport>>> results = new ArrayList<>();
+			for (List<S3ObjectSummary> job : jobs.values()) {
+				results.add(conversionExecutor.submit(() -> processFiles(job, currentTime)));
+			}
+			for (Future<List<FileReport>> result : results) {
 				try {
-
-					String jsonFileName = Paths.get(jsonFilePath).getFileName().toString();
-					logger.info("Processing file: {}", jsonFileName);
-
-					String url = String.format("%s/convert?jsonFileName=%s&csvFilePath=output/", baseUrl, jsonFileName);
-					logger.info("Calling URL: {}", url);
-					ResponseEntity<ConversionResponse> response = restTemplate.getForEntity(url,
-							ConversionResponse.class);
-
-					if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null
-							&& response.getBody().isSuccess()) {
-						lastProcessedTimes.put(jsonFilePath, currentTime);
-						logger.info("Successfully processed file: {}. Updated last processed time: {}", jsonFileName,
-								currentTime);
-						processedAnyFile = true;
-					} else {
-						logger.error("Failed to process file: {}", jsonFileName);
-					}
-				} catch (Exception e) {
-					logger.error("Error processing file {}: {}", jsonFilePath, e.getMessage());
+					fileReports.addAll(result.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					logger.error("Interrupted while waiting for scheduled conversions");
+					break;
+				} catch (ExecutionException e) {
+					logger.error("Scheduled conversion job failed: {}", e.getCause().getMessage());
 				}
-			} else {
-				logger.info("Skipping file: {}. It was processed within the last 1 hours.", jsonFilePath);
 			}
 		}
 
-		if (!processedAnyFile) {
-			logger.info("No files were processed. All files have been processed within the last 1 min.");
+		ConversionCycleReport report = new ConversionCycleReport();
+		report.setStartedAt(currentTime);
+		report.setWallTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cycleStart));
+		report.setMaxConcurrentConversions(maxConcurrentConversions);
+		report.setFiles(fileReports);
+		report.setSkippedUnchangedTotal(inputManifest.getSkippedConversions());
+		lastCycleReport = report;
+
+		if (report.countByStatus(ConversionCycleReport.CONVERTED) == 0) {
+			logger.info("No files were converted in this cycle.");
+		}
+		for (FileReport fileReport : fileReports) {
+			logger.info("Cycle file: {}", fileReport);
 		}
+		logger.info("Cycle completed in {} ms: {} converted, {} failed, {} skipped, {} unchanged ({} since startup)",
+				report.getWallTimeMillis(), report.countByStatus(ConversionCycleReport.CONVERTED),
+				report.countByStatus(ConversionCycleReport.FAILED),
+				report.countByStatus(ConversionCycleReport.SKIPPED),
+				report.countByStatus(ConversionCycleReport.UNCHANGED), report.getSkippedUnchangedTotal());
 
-		saveState();
 		logger.info("Scheduled task completed");
 	}
 
-	private void loadState() {
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFilePath))) {
-			Map<String, Long> savedState = (Map<String, Long>) ois.readObject();
-			lastProcessedTimes.putAll(savedState);
-			logger.info("Loaded state from file");
-		} catch (FileNotFoundException e) {
-			logger.info("State file not found, starting with an empty state");
-		} catch (IOException | ClassNotFoundException e) {
-			logger.error("Error loading state: {}", e.getMessage());
+	private static String jobKey(String jsonFilePath) {
+		String jsonFileName = Paths.get(jsonFilePath).getFileName().toString();
+		return jsonFileName.startsWith(PRODUCT_SUPPLIER_JOB) ? PRODUCT_SUPPLIER_JOB : jsonFilePath;
+	}
+
+	/**
+	 * Processes the files of one job. A conversion of any ProductSupplier file
+	 * reads the latest one, so only that file is converted and recorded; the
+	 * others are reported as skipped and left out of the manifest.
+	 */
+	private List<FileReport> processFiles(List<S3ObjectSummary> jsonObjects, long currentTime) {
+		List<FileReport> fileReports = new ArrayList<>(jsonObjects.size());
+		String latestFile = null;
+		if (jobKey(jsonObjects.get(0).getKey()).equals(PRODUCT_SUPPLIER_JOB)) {
+			latestFile = conversionDispatcher
+					.inputFileFor(Paths.get(jsonObjects.get(0).getKey()).getFileName().toString());
+		}
+		for (S3ObjectSummary jsonObject : jsonObjects) {
+			String jsonFilePath = jsonObject.getKey();
+			if (latestFile != null && !latestFile.equals(jsonFilePath)) {
+				logger.info("Skipping file: {}. It is superseded by {}.", jsonFilePath, latestFile);
+				fileReports.add(new FileReport(jsonFilePath, ConversionCycleReport.SKIPPED, 0,
+						"Superseded by " + latestFile));
+				continue;
+			}
+			fileReports.add(processFile(jsonObject, currentTime));
+		}
+		return fileReports;
+	}
+
+	private FileReport processFile(S3ObjectSummary jsonObject, long currentTime) {
+		String jsonFilePath = jsonObject.getKey();
+		String fingerprint = InputManifest.fingerprint(jsonObject);
+		if (inputManifest.isUnchanged(jsonFilePath, fingerprint)) {
+			inputManifest.recordSkipped();
+			logger.info("Skipping file: {}. It has not changed since it was last converted.", jsonFilePath);
+			return new FileReport(jsonFilePath, ConversionCycleReport.UNCHANGED, 0, null);
+		}
+
+		Long lastProcessedTime = lastProcessedTime(jsonFilePath);
+		logger.info("Checking file: {}. Last processed time: {}", jsonFilePath, lastProcessedTime);
+
+		if (lastProcessedTime != null && currentTime - lastProcessedTime < (TimeUnit.MINUTES.toMillis(1))) {
+			logger.info("Skipping file: {}. It was processed within the last minute.", jsonFilePath);
+			return new FileReport(jsonFilePath, ConversionCycleReport.SKIPPED, 0, null);
+		}
+
+		String jsonFileName = Paths.get(jsonFilePath).getFileName().toString();
+		try {
+			conversionPermits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new FileReport(jsonFilePath, ConversionCycleReport.FAILED, 0, "Interrupted");
+		}
+		long start = System.nanoTime();
+		try {
+			logger.info("Processing file: {}", jsonFileName);
+
+			ConversionResponse response = conversionDispatcher.convertJsonToCsv(jsonFileName);
+			long wallTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			if (response.isSuccess()) {
+				saveState(jsonFilePath, currentTime);
+				inputManifest.recordConverted(jsonFilePath, fingerprint);
+				logger.info("Successfully processed file: {}. Updated last processed time: {}", jsonFileName,
+						currentTime);
+				return new FileReport(jsonFilePath, ConversionCycleReport.CONVERTED, wallTimeMillis, null);
+			} else {
+				logger.error("Failed to process file: {}. {}", jsonFileName, response.getMessage());
+				return new FileReport(jsonFilePath, ConversionCycleReport.FAILED, wallTimeMillis,
+						response.getMessage());
+			}
+		} catch (Exception e) {
+			logger.error("Error processing file {}: {}", jsonFilePath, e.getMessage());
+			return new FileReport(jsonFilePath, ConversionCycleReport.FAILED,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.getMessage());
+		} finally {
+			conversionPermits.release();
+		}
+	}
+
+	/**
+	 * Opens the processing-time journal once the state store is injected, importing
+	 * the former {@code lastProcessedTimes.ser} on first start.
+	 */
+	@PostConstruct
+	void loadState() throws IOException {
+		lastProcessedTimes = stateStore.journal("lastProcessedTimes");
+		StateStore.migrateLegacyState(Paths.get(LEGACY_STATE_FILE), lastProcessedTimes);
+		logger.info("Loaded state for {} files", lastProcessedTimes.size());
+	}
+
+	/**
+	 * Last processing time of {@code jsonFilePath}, or {@code null} when it was
+	 * never processed or its journal entry is not a number, so that a bad entry
+	 * converts the file again instead of failing the cycle.
+	 */
+	private Long lastProcessedTime(String jsonFilePath) {
+		String lastProcessed = lastProcessedTimes.get(jsonFilePath);
+		if (lastProcessed == null) {
+			return null;
+		}
+		try {
+			return Long.valueOf(lastProcessed);
+		} catch (NumberFormatException e) {
+			logger.warn("Ignoring invalid last processed time of {}: {}", jsonFilePath, lastProcessed);
+			return null;
 		}
 	}
 
-	private void saveState() {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(stateFilePath))) {
-			oos.writeObject(lastProcessedTimes);
-			logger.info("Saved state to file");
+	/** Durably records the processing time of one file as soon as it converted. */
+	private void saveState(String jsonFilePath, long currentTime) {
+		try {
+			lastProcessedTimes.put(jsonFilePath, Long.toString(currentTime));
 		} catch (IOException e) {
 			logger.error("Error saving state: {}", e.getMessage());
 		}
 	}
-}
\ No newline at end of file
+}
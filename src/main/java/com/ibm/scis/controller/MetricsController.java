@@ -0,0 +1,46 @@
+package com.ibm.scis.controller;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import com.ibm.scis.metrics.ConversionMetrics;
+import com.ibm.scis.metrics.ConversionMetrics.FileTypeSnapshot;
+import com.ibm.scis.metrics.MethodTimings;
+import com.ibm.scis.metrics.MethodTimings.MethodSnapshot;
+
+@RestController
+public class MetricsController {
+
+	@Autowired
+	private ConversionMetrics conversionMetrics;
+
+	@Autowired
+	private MethodTimings methodTimings;
+
+	/**
+	 * Per-stage latency percentiles, throughput, bytes and rejects of every file
+	 * type converted since startup.
+	 */
+	@GetMapping("/metrics/conversions")
+	public ResponseEntity<Map<String, FileTypeSnapshot>> conversionMetrics() {
+		return ResponseEntity.ok(conversionMetrics.snapshot());
+	}
+
+	@GetMapping("/metrics/conversions/{fileType}")
+	public ResponseEntity<FileTypeSnapshot> conversionMetrics(@PathVariable String fileType) {
+		FileTypeSnapshot snapshot = conversionMetrics.snapshot().get(fileType);
+		return snapshot == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(snapshot);
+	}
+
+	/**
+	 * Call latencies and error counts of the controller and service methods;
+	 * empty when {@code ibm.scis.timing.enabled} is false.
+	 */
+	@GetMapping("/metrics/methods")
+	public ResponseEntity<Map<String, MethodSnapshot>> methodTimings() {
+		return ResponseEntity.ok(methodTimings.snapshot());
+	}
+}
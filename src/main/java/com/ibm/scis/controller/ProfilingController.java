@@ -0,0 +1,58 @@
+package com.ibm.scis.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ConversionRecording;
+import com.ibm.scis.service.ConversionRecordingService;
+
+@RestController
+public class ProfilingController {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProfilingController.class);
+
+	@Autowired
+	private ConversionRecordingService conversionRecordingService;
+
+	/**
+	 * Converts one file under a Flight Recorder recording and returns the
+	 * recording, whether or not the conversion succeeded; the outcome is in the
+	 * {@code X-Conversion-Success} and {@code X-Conversion-Records} headers. Answers
+	 * 409 while another conversion is being recorded.
+	 */
+	@GetMapping("/profiling/convert")
+	public ResponseEntity<Resource> recordConversion(@RequestParam String jsonFileName)
+			throws IOException, ProcessingException {
+		logger.info("Received request to record the conversion of {}", jsonFileName);
+		ConversionRecording recording = conversionRecordingService.recordConversion(jsonFileName);
+		if (recording == null) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+		Path recordingFile = recording.getRecordingFile();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						ContentDisposition.attachment().filename(recordingFile.getFileName().toString()).build()
+								.toString())
+				.header("X-Conversion-Success", Boolean.toString(recording.getResponse().isSuccess()))
+				.header("X-Conversion-Records", Long.toString(recording.getResponse().getAcceptedRecords()))
+				.contentType(MediaType.APPLICATION_OCTET_STREAM).contentLength(Files.size(recordingFile))
+				// the file is removed once the response has been written
+				.body(new InputStreamResource(
+						Files.newInputStream(recordingFile, StandardOpenOption.DELETE_ON_CLOSE)));
+	}
+}
@@ -0,0 +1,46 @@
+package com.ibm.scis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One conversion run, from {@link com.ibm.scis.metrics.ConversionMetrics#start}
+ * to {@link com.ibm.scis.metrics.ConversionMetrics#finish}. Its start and end
+ * time frame the samples, allocations and lock waits of the run in JMC.
+ */
+@Name("com.ibm.scis.Conversion")
+@Label("Conversion")
+@Category({ "SCIS", "Conversion" })
+@Description("A conversion run of one input file")
+@StackTrace(false)
+public class ConversionEvent extends Event {
+
+	@Label("File Type")
+	public String fileType;
+
+	@Label("File")
+	public String fileName;
+
+	@Label("Success")
+	public boolean success;
+
+	@Label("Records")
+	@Description("Records written to the outputs")
+	public long records;
+
+	@Label("Rejected Records")
+	public long rejectedRecords;
+
+	@Label("Bytes In")
+	@DataAmount
+	public long bytesIn;
+
+	@Label("Bytes Out")
+	@DataAmount
+	public long bytesOut;
+}
@@ -0,0 +1,26 @@
+package com.ibm.scis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Start of a conversion run. Shows a run that was still going, or hung, when
+ * the recording ended; finished runs are covered by {@link ConversionEvent}.
+ */
+@Name("com.ibm.scis.ConversionStart")
+@Label("Conversion Start")
+@Category({ "SCIS", "Conversion" })
+@Description("A conversion run started")
+@StackTrace(false)
+public class ConversionStartEvent extends Event {
+
+	@Label("File Type")
+	public String fileType;
+
+	@Label("File")
+	public String fileName;
+}
@@ -0,0 +1,31 @@
+package com.ibm.scis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One HTTP attempt of a COS request; a retried request gives one event per
+ * attempt. The stack trace shows the code that made the request.
+ */
+@Name("com.ibm.scis.CosRequest")
+@Label("COS Request")
+@Category({ "SCIS", "COS" })
+@Description("An HTTP request to Cloud Object Storage")
+public class CosRequestEvent extends Event {
+
+	@Label("Operation")
+	public String operation;
+
+	@Label("Bucket")
+	public String bucket;
+
+	@Label("Key")
+	public String key;
+
+	@Label("Status")
+	@Description("HTTP status code; 0 when no response was received")
+	public int status;
+}
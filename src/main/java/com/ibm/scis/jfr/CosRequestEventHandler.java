@@ -0,0 +1,75 @@
+package com.ibm.scis.jfr;
+
+import com.ibm.cloud.objectstorage.AmazonServiceException;
+import com.ibm.cloud.objectstorage.Request;
+import com.ibm.cloud.objectstorage.Response;
+import com.ibm.cloud.objectstorage.handlers.HandlerAfterAttemptContext;
+import com.ibm.cloud.objectstorage.handlers.HandlerBeforeAttemptContext;
+import com.ibm.cloud.objectstorage.handlers.HandlerContextKey;
+import com.ibm.cloud.objectstorage.handlers.RequestHandler2;
+import com.ibm.cloud.objectstorage.util.SdkHttpUtils;
+
+/**
+ * Emits a {@link CosRequestEvent} for every HTTP attempt of the COS client it is
+ * registered with, so every call site (ServiceUtil, the upload streams, the
+ * listers) is covered. Does nothing beyond a flag check when the event is not
+ * enabled in the running recordings. Bucket and key are taken from the
+ * path-style request path.
+ */
+public class CosRequestEventHandler extends RequestHandler2 {
+
+	private static final HandlerContextKey<CosRequestEvent> EVENT = new HandlerContextKey<>(
+			CosRequestEvent.class.getName());
+	private static final String REQUEST_SUFFIX = "Request";
+
+	@Override
+	public void beforeAttempt(HandlerBeforeAttemptContext context) {
+		CosRequestEvent event = new CosRequestEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		Request<?> request = context.getRequest();
+		event.operation = operation(request);
+		String path = request.getResourcePath() == null ? "" : SdkHttpUtils.urlDecode(request.getResourcePath());
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		int slash = path.indexOf('/');
+		event.bucket = slash < 0 ? path : path.substring(0, slash);
+		event.key = slash < 0 ? "" : path.substring(slash + 1);
+		request.addHandlerContext(EVENT, event);
+		event.begin();
+	}
+
+	@Override
+	public void afterAttempt(HandlerAfterAttemptContext context) {
+		CosRequestEvent event = context.getRequest().getHandlerContext(EVENT);
+		if (event == null) {
+			return;
+		}
+		context.getRequest().addHandlerContext(EVENT, null);
+		event.end();
+		if (event.shouldCommit()) {
+			event.status = status(context.getResponse(), context.getException());
+			event.commit();
+		}
+	}
+
+	private static String operation(Request<?> request) {
+		if (request.getOriginalRequest() == null) {
+			return String.valueOf(request.getHttpMethod());
+		}
+		String name = request.getOriginalRequest().getClass().getSimpleName();
+		return name.endsWith(REQUEST_SUFFIX) ? name.substring(0, name.length() - REQUEST_SUFFIX.length()) : name;
+	}
+
+	private static int status(Response<?> response, Exception exception) {
+		if (response != null && response.getHttpResponse() != null) {
+			return response.getHttpResponse().getStatusCode();
+		}
+		if (exception instanceof AmazonServiceException) {
+			return ((AmazonServiceException) exception).getStatusCode();
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,27 @@
+package com.ibm.scis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An input record that failed mapping or validation, whether it failed the run
+ * or was quarantined. Emitted on the thread that mapped the record.
+ */
+@Name("com.ibm.scis.ValidationFailure")
+@Label("Validation Failure")
+@Category({ "SCIS", "Conversion" })
+@Description("An input record was rejected")
+public class ValidationFailureEvent extends Event {
+
+	@Label("File Type")
+	public String fileType;
+
+	@Label("File")
+	public String fileName;
+
+	@Label("Message")
+	public String message;
+}
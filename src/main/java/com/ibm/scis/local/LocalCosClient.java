@@ -0,0 +1,1083 @@
+package com.ibm.scis.local;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.ibm.cloud.objectstorage.AbortedException;
+import com.ibm.cloud.objectstorage.AmazonServiceException.ErrorType;
+import com.ibm.cloud.objectstorage.SdkClientException;
+import com.ibm.cloud.objectstorage.services.s3.AbstractAmazonS3;
+import com.ibm.cloud.objectstorage.services.s3.Headers;
+import com.ibm.cloud.objectstorage.services.s3.internal.Mimetypes;
+import com.ibm.cloud.objectstorage.services.s3.model.AbortMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.AddLegalHoldRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.AmazonS3Exception;
+import com.ibm.cloud.objectstorage.services.s3.model.Bucket;
+import com.ibm.cloud.objectstorage.services.s3.model.BucketProtectionConfiguration;
+import com.ibm.cloud.objectstorage.services.s3.model.CompleteMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.CompleteMultipartUploadResult;
+import com.ibm.cloud.objectstorage.services.s3.model.CopyObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.CopyObjectResult;
+import com.ibm.cloud.objectstorage.services.s3.model.DeleteLegalHoldRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.DeleteObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.DeleteObjectsRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.DeleteObjectsResult;
+import com.ibm.cloud.objectstorage.services.s3.model.DeleteObjectsResult.DeletedObject;
+import com.ibm.cloud.objectstorage.services.s3.model.ExtendObjectRetentionRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.FASPConnectionInfo;
+import com.ibm.cloud.objectstorage.services.s3.model.GetBucketFaspConnectionInfoRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.GetBucketProtectionConfigurationRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.GetObjectMetadataRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.GetObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.InitiateMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.InitiateMultipartUploadResult;
+import com.ibm.cloud.objectstorage.services.s3.model.ListBucketsExtendedRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ListBucketsExtendedResponse;
+import com.ibm.cloud.objectstorage.services.s3.model.ListLegalHoldsRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ListLegalHoldsResult;
+import com.ibm.cloud.objectstorage.services.s3.model.ListNextBatchOfObjectsRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectListing;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
+import com.ibm.cloud.objectstorage.services.s3.model.PartETag;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectResult;
+import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import com.ibm.cloud.objectstorage.services.s3.model.SetBucketProtectionConfigurationRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.UploadPartRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.UploadPartResult;
+
+/**
+ * {@link com.ibm.cloud.objectstorage.services.s3.AmazonS3} backed by a
+ * directory tree, for tests, benchmarks and offline runs. It implements the
+ * operations this application uses: get, put, multipart upload, copy, HEAD,
+ * delete and both listing APIs with prefix, delimiter and paging. The IBM
+ * extensions (retention, legal holds, FASP, extended bucket listings) throw
+ * {@link UnsupportedOperationException}.
+ * <p>
+ * Each bucket is a directory under the root and each key a file path below
+ * it, so inputs can be dropped in and outputs inspected with ordinary tools.
+ * Key segments are stored as they are, except that an empty segment is stored
+ * as {@code %} and {@code %}, characters that are not allowed in file names,
+ * and a leading dot are escaped as {@code %XX}. A key ending in {@code /} is a
+ * {@code .folder} file in that directory. Files whose names start with a dot
+ * are not objects. ETags and content headers are kept in {@code .metadata/};
+ * for a file copied in by hand the ETag is computed from its content. A key
+ * cannot be both an object and the prefix of another key (say {@code a} and
+ * {@code a/b}) because a path cannot be both a file and a directory.
+ * <p>
+ * Every call waits {@code latencyMs}, plus a random extra delay drawn from an
+ * exponential distribution with mean {@code latencyJitterMs} so that there is
+ * a long tail, and then fails with {@code 503 SlowDown} with probability
+ * {@code errorRate}. The random numbers come from {@code seed}, so a
+ * single-threaded run sees the same delays and failures every time. Injected
+ * errors reach the caller directly, as they would after the HTTP client's
+ * retries are used up.
+ */
+public class LocalCosClient extends AbstractAmazonS3 {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalCosClient.class);
+
+	private static final String METADATA_DIR = ".metadata";
+	private static final String UPLOADS_DIR = ".uploads";
+	private static final String FOLDER_MARKER = ".folder";
+	private static final String METADATA_SUFFIX = ".properties";
+	private static final String UPLOAD_TARGET = "upload" + METADATA_SUFFIX;
+	private static final String USER_METADATA_PREFIX = "x-amz-meta-";
+	private static final int CACHED_LISTINGS = 16;
+	private static final String[] STORED_HEADERS = { Headers.CONTENT_TYPE, Headers.CONTENT_ENCODING,
+			Headers.CACHE_CONTROL, Headers.CONTENT_DISPOSITION, Headers.CONTENT_LANGUAGE };
+	private static final String ESCAPED_CHARACTERS = "%\\:*?\"<>|";
+	private static final int DEFAULT_MAX_KEYS = 1000;
+
+	private final Path root;
+	private final int latencyMs;
+	private final int latencyJitterMs;
+	private final double errorRate;
+	private final Random random;
+	private final AtomicLong writes = new AtomicLong();
+	private final Map<String, KeyListing> listings = Collections.synchronizedMap(
+			new LinkedHashMap<String, KeyListing>(CACHED_LISTINGS, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, KeyListing> eldest) {
+					return size() > CACHED_LISTINGS;
+				}
+			});
+
+	public LocalCosClient(Path root) throws IOException {
+		this(root, 0, 0, 0, 0);
+	}
+
+	public LocalCosClient(Path root, int latencyMs, int latencyJitterMs, double errorRate, long seed)
+			throws IOException {
+		if (errorRate < 0 || errorRate > 1) {
+			throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+		}
+		this.root = Files.createDirectories(root).toAbsolutePath();
+		this.latencyMs = Math.max(0, latencyMs);
+		this.latencyJitterMs = Math.max(0, latencyJitterMs);
+		this.errorRate = errorRate;
+		this.random = new Random(seed);
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	@Override
+	public Bucket createBucket(String bucketName) {
+		try {
+			Files.createDirectories(bucketDir(bucketName));
+		} catch (IOException e) {
+			throw new SdkClientException("Could not create bucket " + bucketName, e);
+		}
+		return new Bucket(bucketName);
+	}
+
+	@Override
+	public boolean doesBucketExistV2(String bucketName) {
+		simulateRequest();
+		return Files.isDirectory(bucketDir(bucketName));
+	}
+
+	@Override
+	public boolean doesObjectExist(String bucketName, String objectName) {
+		simulateRequest();
+		return Files.isRegularFile(dataPath(existingBucket(bucketName), objectName));
+	}
+
+	// ---- reads
+
+	@Override
+	public S3Object getObject(String bucketName, String key) {
+		return getObject(new GetObjectRequest(bucketName, key));
+	}
+
+	@Override
+	public S3Object getObject(GetObjectRequest request) {
+		simulateRequest();
+		Path data = existingObject(request.getBucketName(), request.getKey());
+		ObjectMetadata metadata = readMetadata(request.getBucketName(), request.getKey(), data);
+		try {
+			InputStream content = Files.newInputStream(data);
+			long[] range = request.getRange();
+			if (range != null) {
+				long size = metadata.getContentLength();
+				long first = Math.min(range[0], size);
+				long last = Math.min(range.length > 1 ? range[1] : size - 1, size - 1);
+				content.skipNBytes(first);
+				content = new BoundedInputStream(content, Math.max(0, last - first + 1));
+				metadata.setContentLength(Math.max(0, last - first + 1));
+				metadata.setHeader(Headers.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + size);
+			}
+			S3Object object = new S3Object();
+			object.setBucketName(request.getBucketName());
+			object.setKey(request.getKey());
+			object.setObjectMetadata(metadata);
+			object.setObjectContent(content);
+			return object;
+		} catch (IOException e) {
+			throw new SdkClientException("Could not read " + request.getKey(), e);
+		}
+	}
+
+	@Override
+	public ObjectMetadata getObject(GetObjectRequest request, File destinationFile) {
+		try (S3Object object = getObject(request); InputStream in = object.getObjectContent()) {
+			Files.copy(in, destinationFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return object.getObjectMetadata();
+		} catch (IOException e) {
+			throw new SdkClientException("Could not write " + destinationFile, e);
+		}
+	}
+
+	@Override
+	public String getObjectAsString(String bucketName, String key) {
+		try (S3Object object = getObject(bucketName, key); InputStream in = object.getObjectContent()) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new SdkClientException("Could not read " + key, e);
+		}
+	}
+
+	@Override
+	public ObjectMetadata getObjectMetadata(String bucketName, String key) {
+		return getObjectMetadata(new GetObjectMetadataRequest(bucketName, key));
+	}
+
+	@Override
+	public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest request) {
+		simulateRequest();
+		Path data = existingObject(request.getBucketName(), request.getKey());
+		return readMetadata(request.getBucketName(), request.getKey(), data);
+	}
+
+	// ---- writes
+
+	@Override
+	public PutObjectResult putObject(String bucketName, String key, File file) {
+		return putObject(new PutObjectRequest(bucketName, key, file));
+	}
+
+	@Override
+	public PutObjectResult putObject(String bucketName, String key, InputStream input, ObjectMetadata metadata) {
+		return putObject(new PutObjectRequest(bucketName, key, input, metadata));
+	}
+
+	@Override
+	public PutObjectResult putObject(String bucketName, String key, String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(bytes.length);
+		metadata.setContentType("text/plain");
+		return putObject(new PutObjectRequest(bucketName, key, new ByteArrayInputStream(bytes), metadata));
+	}
+
+	@Override
+	public PutObjectResult putObject(PutObjectRequest request) {
+		simulateRequest();
+		String bucketName = request.getBucketName();
+		String key = request.getKey();
+		Path bucket = existingBucket(bucketName);
+		ObjectMetadata metadata = request.getMetadata() == null ? new ObjectMetadata() : request.getMetadata();
+		long limit = metadata.getRawMetadataValue(Headers.CONTENT_LENGTH) == null ? -1 : metadata.getContentLength();
+		byte[] digest;
+		try (InputStream in = request.getFile() != null ? Files.newInputStream(request.getFile().toPath())
+				: request.getInputStream()) {
+			digest = writeAtomically(dataPath(bucket, key), limit < 0 ? in : new BoundedInputStream(in, limit));
+		} catch (IOException e) {
+			throw new SdkClientException("Could not store " + key, e);
+		} finally {
+			writes.incrementAndGet();
+		}
+		String eTag = HexFormat.of().formatHex(digest);
+		writeMetadata(bucketName, key, metadata, eTag);
+		PutObjectResult result = new PutObjectResult();
+		result.setETag(eTag);
+		result.setContentMd5(Base64.getEncoder().encodeToString(digest));
+		return result;
+	}
+
+	@Override
+	public CopyObjectResult copyObject(String sourceBucketName, String sourceKey, String destinationBucketName,
+			String destinationKey) {
+		return copyObject(new CopyObjectRequest(sourceBucketName, sourceKey, destinationBucketName, destinationKey));
+	}
+
+	@Override
+	public CopyObjectResult copyObject(CopyObjectRequest request) {
+		simulateRequest();
+		Path source = existingObject(request.getSourceBucketName(), request.getSourceKey());
+		Path target = dataPath(existingBucket(request.getDestinationBucketName()), request.getDestinationKey());
+		ObjectMetadata metadata = request.getNewObjectMetadata() != null ? request.getNewObjectMetadata()
+				: readMetadata(request.getSourceBucketName(), request.getSourceKey(), source);
+		String eTag;
+		try (InputStream in = Files.newInputStream(source)) {
+			writeAtomically(target, in);
+			eTag = metadata.getETag() != null ? metadata.getETag() : md5Hex(target);
+		} catch (IOException e) {
+			throw new SdkClientException("Could not copy " + request.getSourceKey(), e);
+		} finally {
+			writes.incrementAndGet();
+		}
+		writeMetadata(request.getDestinationBucketName(), request.getDestinationKey(), metadata, eTag);
+		CopyObjectResult result = new CopyObjectResult();
+		result.setETag(eTag);
+		result.setLastModifiedDate(new Date());
+		return result;
+	}
+
+	@Override
+	public void deleteObject(String bucketName, String key) {
+		deleteObject(new DeleteObjectRequest(bucketName, key));
+	}
+
+	@Override
+	public void deleteObject(DeleteObjectRequest request) {
+		simulateRequest();
+		delete(request.getBucketName(), request.getKey());
+	}
+
+	@Override
+	public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+		simulateRequest();
+		List<DeletedObject> deleted = new ArrayList<>();
+		for (DeleteObjectsRequest.KeyVersion keyVersion : request.getKeys()) {
+			delete(request.getBucketName(), keyVersion.getKey());
+			if (!request.getQuiet()) {
+				DeletedObject deletedObject = new DeletedObject();
+				deletedObject.setKey(keyVersion.getKey());
+				deleted.add(deletedObject);
+			}
+		}
+		return new DeleteObjectsResult(deleted);
+	}
+
+	// ---- multipart uploads
+
+	@Override
+	public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+		simulateRequest();
+		existingBucket(request.getBucketName());
+		String uploadId = UUID.randomUUID().toString();
+		Properties target = toProperties(
+				request.getObjectMetadata() == null ? new ObjectMetadata() : request.getObjectMetadata(), null);
+		target.setProperty("bucket", request.getBucketName());
+		target.setProperty("key", request.getKey());
+		try {
+			Path uploadDir = Files.createDirectories(root.resolve(UPLOADS_DIR).resolve(uploadId));
+			storeProperties(uploadDir.resolve(UPLOAD_TARGET), target);
+		} catch (IOException e) {
+			throw new SdkClientException("Could not start upload of " + request.getKey(), e);
+		}
+		InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+		result.setBucketName(request.getBucketName());
+		result.setKey(request.getKey());
+		result.setUploadId(uploadId);
+		return result;
+	}
+
+	@Override
+	public UploadPartResult uploadPart(UploadPartRequest request) {
+		simulateRequest();
+		Path uploadDir = existingUpload(request.getUploadId());
+		byte[] digest;
+		try (InputStream in = request.getFile() != null ? Files.newInputStream(request.getFile().toPath())
+				: request.getInputStream()) {
+			if (request.getFile() != null) {
+				in.skipNBytes(request.getFileOffset());
+			}
+			digest = writeAtomically(uploadDir.resolve(String.valueOf(request.getPartNumber())),
+					new BoundedInputStream(in, request.getPartSize()));
+		} catch (IOException e) {
+			throw new SdkClientException("Could not store part " + request.getPartNumber() + " of "
+					+ request.getKey(), e);
+		}
+		UploadPartResult result = new UploadPartResult();
+		result.setPartNumber(request.getPartNumber());
+		result.setETag(HexFormat.of().formatHex(digest));
+		return result;
+	}
+
+	@Override
+	public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+		simulateRequest();
+		Path uploadDir = existingUpload(request.getUploadId());
+		List<PartETag> parts = new ArrayList<>(request.getPartETags());
+		parts.sort(Comparator.comparingInt(PartETag::getPartNumber));
+		MessageDigest partDigests = newMd5();
+		List<InputStream> partStreams = new ArrayList<>();
+		try {
+			Properties target = loadProperties(uploadDir.resolve(UPLOAD_TARGET));
+			for (PartETag part : parts) {
+				Path partFile = uploadDir.resolve(String.valueOf(part.getPartNumber()));
+				if (!Files.isRegularFile(partFile)) {
+					throw notFound("InvalidPart", "Part " + part.getPartNumber() + " was not uploaded");
+				}
+				partDigests.update(HexFormat.of().parseHex(part.getETag()));
+				partStreams.add(Files.newInputStream(partFile));
+			}
+			String bucketName = (String) target.remove("bucket");
+			String key = (String) target.remove("key");
+			try (InputStream in = new SequenceInputStream(Collections.enumeration(partStreams))) {
+				writeAtomically(dataPath(existingBucket(bucketName), key), in);
+			} finally {
+				writes.incrementAndGet();
+			}
+			String eTag = HexFormat.of().formatHex(partDigests.digest()) + "-" + parts.size();
+			target.setProperty(Headers.ETAG, eTag);
+			storeProperties(metadataPath(bucketName, key), target);
+			deleteRecursively(uploadDir);
+			CompleteMultipartUploadResult result = new CompleteMultipartUploadResult();
+			result.setBucketName(bucketName);
+			result.setKey(key);
+			result.setETag(eTag);
+			return result;
+		} catch (IOException e) {
+			throw new SdkClientException("Could not complete upload of " + request.getKey(), e);
+		} finally {
+			partStreams.forEach(LocalCosClient::closeQuietly);
+		}
+	}
+
+	@Override
+	public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+		simulateRequest();
+		try {
+			deleteRecursively(existingUpload(request.getUploadId()));
+		} catch (IOException e) {
+			throw new SdkClientException("Could not abort upload of " + request.getKey(), e);
+		}
+	}
+
+	// ---- listings
+
+	@Override
+	public ListObjectsV2Result listObjectsV2(String bucketName) {
+		return listObjectsV2(new ListObjectsV2Request().withBucketName(bucketName));
+	}
+
+	@Override
+	public ListObjectsV2Result listObjectsV2(String bucketName, String prefix) {
+		return listObjectsV2(new ListObjectsV2Request().withBucketName(bucketName).withPrefix(prefix));
+	}
+
+	@Override
+	public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+		simulateRequest();
+		String marker = request.getContinuationToken() != null
+				? new String(Base64.getUrlDecoder().decode(request.getContinuationToken()), StandardCharsets.UTF_8)
+				: request.getStartAfter();
+		Page page = list(request.getBucketName(), request.getPrefix(), request.getDelimiter(), marker,
+				request.getMaxKeys());
+		ListObjectsV2Result result = new ListObjectsV2Result();
+		result.setBucketName(request.getBucketName());
+		result.setPrefix(request.getPrefix());
+		result.setDelimiter(request.getDelimiter());
+		result.setStartAfter(request.getStartAfter());
+		result.setContinuationToken(request.getContinuationToken());
+		result.setMaxKeys(page.maxKeys);
+		result.getObjectSummaries().addAll(page.summaries);
+		result.setCommonPrefixes(page.commonPrefixes);
+		result.setKeyCount(page.summaries.size() + page.commonPrefixes.size());
+		result.setTruncated(page.nextMarker != null);
+		if (page.nextMarker != null) {
+			result.setNextContinuationToken(
+					Base64.getUrlEncoder().encodeToString(page.nextMarker.getBytes(StandardCharsets.UTF_8)));
+		}
+		return result;
+	}
+
+	@Override
+	public ObjectListing listObjects(String bucketName) {
+		return listObjects(new ListObjectsRequest().withBucketName(bucketName));
+	}
+
+	@Override
+	public ObjectListing listObjects(String bucketName, String prefix) {
+		return listObjects(new ListObjectsRequest().withBucketName(bucketName).withPrefix(prefix));
+	}
+
+	@Override
+	public ObjectListing listObjects(ListObjectsRequest request) {
+		simulateRequest();
+		Page page = list(request.getBucketName(), request.getPrefix(), request.getDelimiter(), request.getMarker(),
+				request.getMaxKeys());
+		ObjectListing listing = new ObjectListing();
+		listing.setBucketName(request.getBucketName());
+		listing.setPrefix(request.getPrefix());
+		listing.setDelimiter(request.getDelimiter());
+		listing.setMarker(request.getMarker());
+		listing.setMaxKeys(page.maxKeys);
+		listing.getObjectSummaries().addAll(page.summaries);
+		listing.setCommonPrefixes(page.commonPrefixes);
+		listing.setTruncated(page.nextMarker != null);
+		listing.setNextMarker(page.nextMarker);
+		return listing;
+	}
+
+	@Override
+	public ObjectListing listNextBatchOfObjects(ObjectListing previousListing) {
+		if (!previousListing.isTruncated()) {
+			ObjectListing empty = new ObjectListing();
+			empty.setBucketName(previousListing.getBucketName());
+			empty.setPrefix(previousListing.getPrefix());
+			empty.setDelimiter(previousListing.getDelimiter());
+			empty.setMarker(previousListing.getNextMarker());
+			empty.setMaxKeys(previousListing.getMaxKeys());
+			return empty;
+		}
+		return listObjects(new ListObjectsRequest(previousListing.getBucketName(), previousListing.getPrefix(),
+				previousListing.getNextMarker(), previousListing.getDelimiter(), previousListing.getMaxKeys()));
+	}
+
+	@Override
+	public ObjectListing listNextBatchOfObjects(ListNextBatchOfObjectsRequest request) {
+		return listNextBatchOfObjects(request.getPreviousObjectListing());
+	}
+
+	@Override
+	public void shutdown() {
+	}
+
+	// ---- IBM extensions that AbstractAmazonS3 leaves abstract; not used here
+
+	@Override
+	public BucketProtectionConfiguration getBucketProtection(String bucketName) {
+		throw unsupported("getBucketProtection");
+	}
+
+	@Override
+	public BucketProtectionConfiguration getBucketProtectionConfiguration(
+			GetBucketProtectionConfigurationRequest request) {
+		throw unsupported("getBucketProtectionConfiguration");
+	}
+
+	@Override
+	public void setBucketProtection(String bucketName, BucketProtectionConfiguration configuration) {
+		throw unsupported("setBucketProtection");
+	}
+
+	@Override
+	public void setBucketProtectionConfiguration(SetBucketProtectionConfigurationRequest request) {
+		throw unsupported("setBucketProtectionConfiguration");
+	}
+
+	@Override
+	public FASPConnectionInfo getBucketFaspConnectionInfo(GetBucketFaspConnectionInfoRequest request) {
+		throw unsupported("getBucketFaspConnectionInfo");
+	}
+
+	@Override
+	public FASPConnectionInfo getBucketFaspConnectionInfo(String bucketName) {
+		throw unsupported("getBucketFaspConnectionInfo");
+	}
+
+	@Override
+	public ListBucketsExtendedResponse listBucketsExtended() {
+		throw unsupported("listBucketsExtended");
+	}
+
+	@Override
+	public ListBucketsExtendedResponse listBucketsExtended(ListBucketsExtendedRequest request) {
+		throw unsupported("listBucketsExtended");
+	}
+
+	@Override
+	public ListLegalHoldsResult listLegalHolds(ListLegalHoldsRequest request) {
+		throw unsupported("listLegalHolds");
+	}
+
+	@Override
+	public ListLegalHoldsResult listLegalHolds(String bucketName, String key) {
+		throw unsupported("listLegalHolds");
+	}
+
+	@Override
+	public void addLegalHold(AddLegalHoldRequest request) {
+		throw unsupported("addLegalHold");
+	}
+
+	@Override
+	public void addLegalHold(String bucketName, String key, String legalHoldId) {
+		throw unsupported("addLegalHold");
+	}
+
+	@Override
+	public void deleteLegalHold(DeleteLegalHoldRequest request) {
+		throw unsupported("deleteLegalHold");
+	}
+
+	@Override
+	public void deleteLegalHold(String bucketName, String key, String legalHoldId) {
+		throw unsupported("deleteLegalHold");
+	}
+
+	@Override
+	public void extendObjectRetention(ExtendObjectRetentionRequest request) {
+		throw unsupported("extendObjectRetention");
+	}
+
+	@Override
+	public void extendObjectRetention(String bucketName, String key, Long additionalRetentionPeriod,
+			Long extendRetentionFromCurrentTime, Date newRetentionExpirationDate, Long newRetentionPeriod) {
+		throw unsupported("extendObjectRetention");
+	}
+
+	private static UnsupportedOperationException unsupported(String operation) {
+		return new UnsupportedOperationException(operation + " is not supported by the local COS stand-in");
+	}
+
+	private static final class Page {
+		final List<S3ObjectSummary> summaries = new ArrayList<>();
+		final List<String> commonPrefixes = new ArrayList<>();
+		int maxKeys;
+		String nextMarker;
+	}
+
+	/**
+	 * Lists the keys after {@code marker} in key order. With a delimiter, keys
+	 * sharing the part of the key up to the first delimiter after the prefix are
+	 * rolled into one common prefix; each common prefix counts as one entry
+	 * towards {@code maxKeys} and is the marker of a page that ends with it.
+	 */
+	private Page list(String bucketName, String prefix, String delimiter, String marker, Integer maxKeys) {
+		Path bucket = existingBucket(bucketName);
+		String keyPrefix = prefix == null ? "" : prefix;
+		String rollUp = delimiter == null || delimiter.isEmpty() ? null : delimiter;
+		Page page = new Page();
+		page.maxKeys = maxKeys == null || maxKeys <= 0 ? DEFAULT_MAX_KEYS : Math.min(maxKeys, DEFAULT_MAX_KEYS);
+		List<String> keys = keysUnder(bucketName, bucket, keyPrefix, marker != null);
+		int from = 0;
+		if (marker != null) {
+			int index = Collections.binarySearch(keys, marker);
+			from = index >= 0 ? index + 1 : -index - 1;
+		}
+		String last = null;
+		for (String key : keys.subList(from, keys.size())) {
+			int end = rollUp == null ? -1 : key.indexOf(rollUp, keyPrefix.length());
+			String entry = end < 0 ? key : key.substring(0, end + rollUp.length());
+			if ((marker != null && entry.compareTo(marker) <= 0) || entry.equals(last)) {
+				continue;
+			}
+			if (page.summaries.size() + page.commonPrefixes.size() == page.maxKeys) {
+				page.nextMarker = last;
+				break;
+			}
+			if (end < 0) {
+				page.summaries.add(summary(bucketName, key, dataPath(bucket, key)));
+			} else {
+				page.commonPrefixes.add(entry);
+			}
+			last = entry;
+		}
+		return page;
+	}
+
+	/**
+	 * All keys starting with {@code prefix}, sorted. Only the directory the
+	 * prefix points into is walked, and only for the first page of a listing:
+	 * later pages reuse the sorted keys until something is written through this
+	 * client, so a listing walks the tree once instead of once per page.
+	 */
+	private List<String> keysUnder(String bucketName, Path bucket, String prefix, boolean continued) {
+		String listingKey = bucketName + '/' + prefix;
+		long version = writes.get();
+		if (continued) {
+			KeyListing cached = listings.get(listingKey);
+			if (cached != null && cached.version == version) {
+				return cached.keys;
+			}
+		}
+		int lastSlash = prefix.lastIndexOf('/');
+		Path start = lastSlash < 0 ? bucket : directoryPath(bucket, prefix.substring(0, lastSlash));
+		if (!Files.isDirectory(start)) {
+			return List.of();
+		}
+		List<String> keys;
+		try (Stream<Path> files = Files.walk(start)) {
+			keys = files.filter(Files::isRegularFile).map(file -> toKey(bucket, file)).filter(key -> key != null)
+					.filter(key -> key.startsWith(prefix)).sorted().collect(Collectors.toUnmodifiableList());
+		} catch (IOException e) {
+			throw new SdkClientException("Could not list " + bucket.getFileName() + "/" + prefix, e);
+		}
+		listings.put(listingKey, new KeyListing(version, keys));
+		return keys;
+	}
+
+	/** Sorted keys of a listing, valid while no write has happened since {@code version}. */
+	private static final class KeyListing {
+		final long version;
+		final List<String> keys;
+
+		KeyListing(long version, List<String> keys) {
+			this.version = version;
+			this.keys = keys;
+		}
+	}
+
+	private S3ObjectSummary summary(String bucketName, String key, Path data) {
+		ObjectMetadata metadata = readMetadata(bucketName, key, data);
+		S3ObjectSummary summary = new S3ObjectSummary();
+		summary.setBucketName(bucketName);
+		summary.setKey(key);
+		summary.setSize(metadata.getContentLength());
+		summary.setLastModified(metadata.getLastModified());
+		summary.setETag(metadata.getETag());
+		summary.setStorageClass("STANDARD");
+		return summary;
+	}
+
+	// ---- key and path mapping
+
+	private Path bucketDir(String bucketName) {
+		if (bucketName == null || bucketName.isEmpty() || bucketName.startsWith(".") || bucketName.contains("/")
+				|| bucketName.contains("\\")) {
+			throw new IllegalArgumentException("Invalid bucket name: " + bucketName);
+		}
+		return root.resolve(bucketName);
+	}
+
+	private Path existingBucket(String bucketName) {
+		Path bucket = bucketDir(bucketName);
+		if (!Files.isDirectory(bucket)) {
+			throw notFound("NoSuchBucket", "The specified bucket does not exist: " + bucketName);
+		}
+		return bucket;
+	}
+
+	private Path existingObject(String bucketName, String key) {
+		Path data = dataPath(existingBucket(bucketName), key);
+		if (!Files.isRegularFile(data)) {
+			throw notFound("NoSuchKey", "The specified key does not exist: " + key);
+		}
+		return data;
+	}
+
+	private Path existingUpload(String uploadId) {
+		Path uploadDir = root.resolve(UPLOADS_DIR).resolve(uploadId == null ? "" : uploadId);
+		if (uploadId == null || uploadId.isEmpty() || !Files.isRegularFile(uploadDir.resolve(UPLOAD_TARGET))) {
+			throw notFound("NoSuchUpload", "The specified upload does not exist: " + uploadId);
+		}
+		return uploadDir;
+	}
+
+	private static Path dataPath(Path bucket, String key) {
+		if (key == null || key.isEmpty()) {
+			throw new IllegalArgumentException("Key must not be empty");
+		}
+		String[] segments = key.split("/", -1);
+		Path path = bucket;
+		for (int i = 0; i < segments.length - 1; i++) {
+			path = path.resolve(encodeSegment(segments[i]));
+		}
+		String name = segments[segments.length - 1];
+		return path.resolve(name.isEmpty() ? FOLDER_MARKER : encodeSegment(name));
+	}
+
+	private static Path directoryPath(Path bucket, String folder) {
+		Path path = bucket;
+		for (String segment : folder.split("/", -1)) {
+			path = path.resolve(encodeSegment(segment));
+		}
+		return path;
+	}
+
+	/** Maps a file under {@code bucket} back to its key, or {@code null} if it is not an object. */
+	private static String toKey(Path bucket, Path file) {
+		Path relative = bucket.relativize(file);
+		StringBuilder key = new StringBuilder();
+		for (int i = 0; i < relative.getNameCount(); i++) {
+			String name = relative.getName(i).toString();
+			boolean lastName = i == relative.getNameCount() - 1;
+			if (lastName && FOLDER_MARKER.equals(name)) {
+				return key.toString();
+			}
+			if (name.startsWith(".")) {
+				return null;
+			}
+			key.append(decodeSegment(name));
+			if (!lastName) {
+				key.append('/');
+			}
+		}
+		return key.toString();
+	}
+
+	static String encodeSegment(String segment) {
+		if (segment.isEmpty()) {
+			return "%";
+		}
+		StringBuilder encoded = new StringBuilder(segment.length());
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c < 0x20 || ESCAPED_CHARACTERS.indexOf(c) >= 0 || (i == 0 && c == '.')) {
+				encoded.append('%').append(String.format("%02X", (int) c));
+			} else {
+				encoded.append(c);
+			}
+		}
+		return encoded.toString();
+	}
+
+	static String decodeSegment(String name) {
+		if ("%".equals(name)) {
+			return "";
+		}
+		StringBuilder decoded = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == '%' && i + 2 < name.length()) {
+				decoded.append((char) Integer.parseInt(name.substring(i + 1, i + 3), 16));
+				i += 2;
+			} else {
+				decoded.append(c);
+			}
+		}
+		return decoded.toString();
+	}
+
+	// ---- metadata
+
+	private Path metadataPath(String bucketName, String key) {
+		Path data = dataPath(root.resolve(METADATA_DIR).resolve(bucketName), key);
+		return data.resolveSibling(data.getFileName() + METADATA_SUFFIX);
+	}
+
+	private ObjectMetadata readMetadata(String bucketName, String key, Path data) {
+		try {
+			Path metadataFile = metadataPath(bucketName, key);
+			Properties properties = Files.isRegularFile(metadataFile) ? loadProperties(metadataFile) : new Properties();
+			ObjectMetadata metadata = new ObjectMetadata();
+			for (String name : properties.stringPropertyNames()) {
+				if (name.startsWith(USER_METADATA_PREFIX)) {
+					metadata.addUserMetadata(name.substring(USER_METADATA_PREFIX.length()), properties.getProperty(name));
+				} else {
+					metadata.setHeader(name, properties.getProperty(name));
+				}
+			}
+			if (metadata.getETag() == null) {
+				metadata.setHeader(Headers.ETAG, md5Hex(data));
+			}
+			if (metadata.getContentType() == null) {
+				metadata.setContentType(Mimetypes.getInstance().getMimetype(data.getFileName().toString()));
+			}
+			metadata.setContentLength(Files.size(data));
+			metadata.setLastModified(new Date(Files.getLastModifiedTime(data).toMillis()));
+			return metadata;
+		} catch (NoSuchFileException e) {
+			throw notFound("NoSuchKey", "The specified key does not exist: " + key);
+		} catch (IOException e) {
+			throw new SdkClientException("Could not read metadata of " + key, e);
+		}
+	}
+
+	private void writeMetadata(String bucketName, String key, ObjectMetadata metadata, String eTag) {
+		try {
+			storeProperties(metadataPath(bucketName, key), toProperties(metadata, eTag));
+		} catch (IOException e) {
+			throw new SdkClientException("Could not store metadata of " + key, e);
+		}
+	}
+
+	private static Properties toProperties(ObjectMetadata metadata, String eTag) {
+		Properties properties = new Properties();
+		for (String header : STORED_HEADERS) {
+			Object value = metadata.getRawMetadataValue(header);
+			if (value != null) {
+				properties.setProperty(header, value.toString());
+			}
+		}
+		for (Map.Entry<String, String> entry : metadata.getUserMetadata().entrySet()) {
+			properties.setProperty(USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
+		}
+		if (eTag != null) {
+			properties.setProperty(Headers.ETAG, eTag);
+		}
+		return properties;
+	}
+
+	private static Properties loadProperties(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		return properties;
+	}
+
+	private static void storeProperties(Path file, Properties properties) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path temp = Files.createTempFile(file.getParent(), ".tmp-", METADATA_SUFFIX);
+		try {
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				properties.store(writer, null);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	// ---- files
+
+	/**
+	 * Writes {@code in} to a temporary file next to {@code target} and moves it
+	 * into place, so readers see either the old object or the complete new one.
+	 * Returns the MD5 of the bytes written.
+	 */
+	private static byte[] writeAtomically(Path target, InputStream in) throws IOException {
+		Files.createDirectories(target.getParent());
+		Path temp = Files.createTempFile(target.getParent(), ".tmp-", null);
+		try {
+			MessageDigest md5 = newMd5();
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				new DigestInputStream(in, md5).transferTo(out);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return md5.digest();
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private void delete(String bucketName, String key) {
+		Path bucket = existingBucket(bucketName);
+		try {
+			Path data = dataPath(bucket, key);
+			Files.deleteIfExists(data);
+			pruneEmptyParents(data.getParent(), bucket);
+			Path metadataFile = metadataPath(bucketName, key);
+			Files.deleteIfExists(metadataFile);
+			pruneEmptyParents(metadataFile.getParent(), root.resolve(METADATA_DIR).resolve(bucketName));
+		} catch (IOException e) {
+			throw new SdkClientException("Could not delete " + key, e);
+		} finally {
+			writes.incrementAndGet();
+		}
+	}
+
+	/** Removes empty directories left by a delete, so that the key can later be used as an object. */
+	private static void pruneEmptyParents(Path directory, Path stop) throws IOException {
+		for (Path dir = directory; dir != null && dir.startsWith(stop) && !dir.equals(stop); dir = dir.getParent()) {
+			try {
+				if (!Files.deleteIfExists(dir)) {
+					return;
+				}
+			} catch (DirectoryNotEmptyException e) {
+				return;
+			}
+		}
+	}
+
+	private static void deleteRecursively(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	private static String md5Hex(Path file) throws IOException {
+		MessageDigest md5 = newMd5();
+		try (InputStream in = new DigestInputStream(Files.newInputStream(file), md5)) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		return HexFormat.of().formatHex(md5.digest());
+	}
+
+	private static MessageDigest newMd5() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void closeQuietly(InputStream in) {
+		try {
+			in.close();
+		} catch (IOException e) {
+			logger.debug("Could not close part stream: {}", e.getMessage());
+		}
+	}
+
+	// ---- injected latency and errors
+
+	private void simulateRequest() {
+		long delay = latencyMs;
+		boolean fail;
+		synchronized (random) {
+			if (latencyJitterMs > 0) {
+				delay += Math.round(-latencyJitterMs * Math.log(1 - random.nextDouble()));
+			}
+			fail = errorRate > 0 && random.nextDouble() < errorRate;
+		}
+		if (delay > 0) {
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AbortedException("Interrupted during simulated COS latency", e);
+			}
+		}
+		if (fail) {
+			AmazonS3Exception e = new AmazonS3Exception("Please reduce your request rate.");
+			e.setStatusCode(503);
+			e.setErrorCode("SlowDown");
+			e.setErrorType(ErrorType.Service);
+			e.setServiceName("Amazon S3");
+			throw e;
+		}
+	}
+
+	private static AmazonS3Exception notFound(String errorCode, String message) {
+		AmazonS3Exception e = new AmazonS3Exception(message);
+		e.setStatusCode(404);
+		e.setErrorCode(errorCode);
+		e.setErrorType(ErrorType.Client);
+		e.setServiceName("Amazon S3");
+		return e;
+	}
+
+	/** Reads at most {@code limit} bytes of the wrapped stream. */
+	private static final class BoundedInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		BoundedInputStream(InputStream in, long limit) {
+			super(in);
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = super.read(bytes, offset, (int) Math.min(length, remaining));
+			if (read > 0) {
+				remaining -= read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+	}
+}
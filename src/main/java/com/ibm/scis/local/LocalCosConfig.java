@@ -0,0 +1,56 @@
+package com.ibm.scis.local;
+
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+
+/**
+ * Replaces the COS client with a {@link LocalCosClient} when the
+ * {@code local-cos} profile is active, so the application runs without
+ * credentials, certificate or network. The flex and ford buckets are created
+ * under {@code ibm.cos.local.root} if they do not exist yet.
+ */
+@Configuration
+@Profile(LocalCosConfig.PROFILE)
+public class LocalCosConfig {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalCosConfig.class);
+
+	public static final String PROFILE = "local-cos";
+
+	@Value("${ibm.cos.local.root:local-cos}")
+	private String root;
+
+	@Value("${ibm.cos.local.latency-ms:0}")
+	private int latencyMs;
+
+	@Value("${ibm.cos.local.latency-jitter-ms:0}")
+	private int latencyJitterMs;
+
+	@Value("${ibm.cos.local.error-rate:0}")
+	private double errorRate;
+
+	@Value("${ibm.cos.local.seed:0}")
+	private long seed;
+
+	@Value("${ibm.cos.bucket.flex}")
+	private String flexBucket;
+
+	@Value("${ibm.cos.bucket.ford}")
+	private String fordBucket;
+
+	@Bean
+	public AmazonS3 cosClient() throws Exception {
+		LocalCosClient cosClient = new LocalCosClient(Paths.get(root), latencyMs, latencyJitterMs, errorRate, seed);
+		cosClient.createBucket(flexBucket);
+		cosClient.createBucket(fordBucket);
+		logger.info("Using local COS in {} (latency {} ms + ~{} ms, error rate {})", cosClient.getRoot(), latencyMs,
+				latencyJitterMs, errorRate);
+		return cosClient;
+	}
+}
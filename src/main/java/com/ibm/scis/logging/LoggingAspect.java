@@ -1,28 +0,0 @@
-package com.ibm.scis.logging;
-
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterThrowing;
-import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
-
-@Aspect
-@Component
-public class LoggingAspect {
-
-	private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
-
-	@Before("execution(* com.ibm.scis.*(..))")
-	public void logBefore(JoinPoint joinPoint) {
-		logger.info("Entering method: {} with arguments: {}", joinPoint.getSignature().toShortString(),
-				joinPoint.getArgs());
-	}
-
-	@AfterThrowing(pointcut = "execution(* com.ibm.scic.*(..))", throwing = "error")
-	public void logAfterThrowing(JoinPoint joinPoint, Throwable error) {
-		logger.error("Exception in method: {} with cause: {}", joinPoint.getSignature().toShortString(),
-				error.getMessage());
-	}
-}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.ibm.scis.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import com.ibm.scis.metrics.MethodTimings;
+
+/**
+ * Times every public method of the controllers and service implementations
+ * into {@link MethodTimings}, counting the calls that throw; the exceptions
+ * themselves are left to the callers to log. {@code @Scheduled} methods are
+ * left out: a scheduler tick is a batch over every input file, its length
+ * says nothing about a single call and it would trip the slow-call log on
+ * every cycle. The conversions it starts are still timed one by one.
+ * <p>
+ * Calls slower than {@code ibm.scis.timing.slow-call-threshold-ms} are logged
+ * with their arguments, each cut to {@code ibm.scis.timing.max-argument-length}
+ * characters, for a share {@code ibm.scis.timing.slow-call-sample-rate} of
+ * them (default 0.1); a rate of 0 turns this off and leaves two clock reads
+ * and a histogram update per call. With {@code ibm.scis.timing.enabled=false} the aspect is not
+ * registered and the beans are not proxied at all.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "ibm.scis.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class TimingAspect {
+
+	private static final Logger logger = LoggerFactory.getLogger(TimingAspect.class);
+
+	private final MethodTimings methodTimings;
+	private final long slowCallThresholdNanos;
+	private final double slowCallSampleRate;
+	private final int maxArgumentLength;
+
+	public TimingAspect(MethodTimings methodTimings,
+			@Value("${ibm.scis.timing.slow-call-threshold-ms:1000}") long slowCallThresholdMs,
+			@Value("${ibm.scis.timing.slow-call-sample-rate:0.1}") double slowCallSampleRate,
+			@Value("${ibm.scis.timing.max-argument-length:200}") int maxArgumentLength) {
+		this.methodTimings = methodTimings;
+		this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs);
+		this.slowCallSampleRate = slowCallSampleRate;
+		this.maxArgumentLength = Math.max(0, maxArgumentLength);
+	}
+
+	@Around("(execution(public * com.ibm.scis.serviceImpl..*.*(..))"
+			+ " || execution(public * com.ibm.scis.controller..*.*(..)))"
+			+ " && !@annotation(org.springframework.scheduling.annotation.Scheduled)")
+	public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			Object result = joinPoint.proceed();
+			failed = false;
+			return result;
+		} finally {
+			long elapsedNanos = System.nanoTime() - start;
+			methodTimings.record(((MethodSignature) joinPoint.getSignature()).getMethod(), elapsedNanos, failed);
+			if (elapsedNanos >= slowCallThresholdNanos && slowCallSampleRate > 0
+					&& (slowCallSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < slowCallSampleRate)) {
+				logger.warn("Slow call: {} took {} ms with arguments: {}", joinPoint.getSignature().toShortString(),
+						TimeUnit.NANOSECONDS.toMillis(elapsedNanos), describeArguments(joinPoint.getArgs()));
+			}
+		}
+	}
+
+	private String describeArguments(Object[] args) {
+		StringBuilder description = new StringBuilder("[");
+		for (int i = 0; i < args.length; i++) {
+			if (i > 0) {
+				description.append(", ");
+			}
+			String arg = String.valueOf(args[i]);
+			if (arg.length() > maxArgumentLength) {
+				description.append(arg, 0, maxArgumentLength).append("... (").append(arg.length())
+						.append(" chars)");
+			} else {
+				description.append(arg);
+			}
+		}
+		return description.append(']').toString();
+	}
+}
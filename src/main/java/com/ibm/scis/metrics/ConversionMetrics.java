@@ -0,0 +1,179 @@
+package com.ibm.scis.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import com.ibm.scis.model.ConversionResponse;
+import com.ibm.scis.model.ConversionStats;
+
+/**
+ * Conversion metrics per file type since startup: a latency histogram per
+ * {@link ConversionStage} and for the whole run, and counters of runs,
+ * failures, records, rejected records and bytes. Converters open a
+ * {@link ConversionTimer} with {@link #start(String, String)} and hand it back with
+ * {@link #finish(ConversionTimer, ConversionResponse)}, which also attaches the
+ * {@link ConversionStats} of the run to its response.
+ */
+@Component
+public class ConversionMetrics {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConversionMetrics.class);
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	private final ConcurrentMap<String, FileTypeMetrics> fileTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param fileName input of the run, only used to label its Flight Recorder
+	 *                 events
+	 */
+	public ConversionTimer start(String fileType, String fileName) {
+		return new ConversionTimer(fileType, fileName);
+	}
+
+	/**
+	 * Records a finished run. {@code response} is {@code null} when the converter
+	 * threw; the run then counts as failed.
+	 */
+	public void finish(ConversionTimer timer, ConversionResponse response) {
+		long elapsedNanos = timer.getElapsedNanos();
+		boolean success = response != null && response.isSuccess();
+		long records = response == null ? 0 : response.getAcceptedRecords();
+		long rejected = response == null ? 0 : response.getRejectedRecords();
+		timer.commitEvent(success, records, rejected);
+
+		FileTypeMetrics metrics = fileTypes.computeIfAbsent(timer.getFileType(), fileType -> new FileTypeMetrics());
+		metrics.total.record(elapsedNanos);
+		ConversionStats stats = new ConversionStats();
+		for (ConversionStage stage : ConversionStage.values()) {
+			long stageNanos = timer.getStageNanos(stage);
+			if (stageNanos > 0) {
+				metrics.stages.get(stage).record(stageNanos);
+			}
+			stats.getStageMillis().put(stage.getKey(), stageNanos / NANOS_PER_MILLI);
+		}
+		metrics.conversions.increment();
+		if (!success) {
+			metrics.failures.increment();
+		}
+		metrics.records.add(records);
+		metrics.rejectedRecords.add(rejected);
+		metrics.bytesIn.add(timer.getBytesIn());
+		metrics.bytesOut.add(timer.getBytesOut());
+		metrics.elapsedNanos.add(elapsedNanos);
+
+		stats.setFileType(timer.getFileType());
+		stats.setWallTimeMillis(elapsedNanos / NANOS_PER_MILLI);
+		stats.setRecords(records);
+		stats.setRecordsPerSecond(perSecond(records, elapsedNanos));
+		stats.setBytesIn(timer.getBytesIn());
+		stats.setBytesOut(timer.getBytesOut());
+		if (response != null) {
+			response.setStats(stats);
+		}
+		logger.info("Conversion {}: {}", success ? "succeeded" : "failed", stats);
+	}
+
+	/** Metrics of every file type converted since startup, by file type. */
+	public Map<String, FileTypeSnapshot> snapshot() {
+		Map<String, FileTypeSnapshot> snapshot = new TreeMap<>();
+		fileTypes.forEach((fileType, metrics) -> snapshot.put(fileType, metrics.snapshot()));
+		return snapshot;
+	}
+
+	private static double perSecond(long records, long nanos) {
+		return nanos <= 0 ? 0 : records * 1_000_000_000.0 / nanos;
+	}
+
+	private static final class FileTypeMetrics {
+		final LatencyHistogram total = new LatencyHistogram();
+		final Map<ConversionStage, LatencyHistogram> stages = new LinkedHashMap<>();
+		final LongAdder conversions = new LongAdder();
+		final LongAdder failures = new LongAdder();
+		final LongAdder records = new LongAdder();
+		final LongAdder rejectedRecords = new LongAdder();
+		final LongAdder bytesIn = new LongAdder();
+		final LongAdder bytesOut = new LongAdder();
+		final LongAdder elapsedNanos = new LongAdder();
+
+		FileTypeMetrics() {
+			for (ConversionStage stage : ConversionStage.values()) {
+				stages.put(stage, new LatencyHistogram());
+			}
+		}
+
+		FileTypeSnapshot snapshot() {
+			Map<String, LatencyHistogram.Snapshot> latencies = new LinkedHashMap<>();
+			latencies.put("total", total.snapshot());
+			stages.forEach((stage, histogram) -> latencies.put(stage.getKey(), histogram.snapshot()));
+			long recordCount = records.sum();
+			return new FileTypeSnapshot(conversions.sum(), failures.sum(), recordCount, rejectedRecords.sum(),
+					bytesIn.sum(), bytesOut.sum(), perSecond(recordCount, elapsedNanos.sum()), latencies);
+		}
+	}
+
+	/**
+	 * Totals of one file type. Latencies are per run, in milliseconds; a stage a
+	 * run did not go through is not counted in that stage's histogram.
+	 */
+	public static class FileTypeSnapshot {
+		private final long conversions;
+		private final long failures;
+		private final long records;
+		private final long rejectedRecords;
+		private final long bytesIn;
+		private final long bytesOut;
+		private final double recordsPerSecond;
+		private final Map<String, LatencyHistogram.Snapshot> latencyMillis;
+
+		FileTypeSnapshot(long conversions, long failures, long records, long rejectedRecords, long bytesIn,
+				long bytesOut, double recordsPerSecond, Map<String, LatencyHistogram.Snapshot> latencyMillis) {
+			this.conversions = conversions;
+			this.failures = failures;
+			this.records = records;
+			this.rejectedRecords = rejectedRecords;
+			this.bytesIn = bytesIn;
+			this.bytesOut = bytesOut;
+			this.recordsPerSecond = recordsPerSecond;
+			this.latencyMillis = latencyMillis;
+		}
+
+		public long getConversions() {
+			return conversions;
+		}
+
+		public long getFailures() {
+			return failures;
+		}
+
+		public long getRecords() {
+			return records;
+		}
+
+		public long getRejectedRecords() {
+			return rejectedRecords;
+		}
+
+		public long getBytesIn() {
+			return bytesIn;
+		}
+
+		public long getBytesOut() {
+			return bytesOut;
+		}
+
+		/** Records written per second of conversion wall time. */
+		public double getRecordsPerSecond() {
+			return recordsPerSecond;
+		}
+
+		public Map<String, LatencyHistogram.Snapshot> getLatencyMillis() {
+			return latencyMillis;
+		}
+	}
+}
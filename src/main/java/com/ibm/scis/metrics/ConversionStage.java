@@ -0,0 +1,31 @@
+package com.ibm.scis.metrics;
+
+/**
+ * Stages of one conversion timed by {@link ConversionTimer}.
+ */
+public enum ConversionStage {
+
+	/** GET of the input and, unless it is parsed while streaming, reading its body. */
+	FETCH("fetch"),
+	/** Turning the input into JSON nodes. */
+	PARSE("parse"),
+	/** Building the output record of each input record. */
+	MAP("map"),
+	/** Checking each output record. */
+	VALIDATE("validate"),
+	/** Formatting output records; in streaming mode this includes uploading full parts. */
+	WRITE("write"),
+	/** Publishing the outputs to COS. */
+	UPLOAD("upload");
+
+	private final String key;
+
+	ConversionStage(String key) {
+		this.key = key;
+	}
+
+	/** Name of the stage in responses and on the metrics endpoint. */
+	public String getKey() {
+		return key;
+	}
+}
@@ -0,0 +1,183 @@
+package com.ibm.scis.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.jfr.ConversionEvent;
+import com.ibm.scis.jfr.ConversionStartEvent;
+import com.ibm.scis.jfr.ValidationFailureEvent;
+import com.ibm.scis.pipeline.RecordMapper;
+import com.ibm.scis.pipeline.RecordSink;
+import com.ibm.scis.pipeline.RecordSource;
+
+/**
+ * Stage times and byte counts of one conversion run, started by
+ * {@link ConversionMetrics#start(String, String)}. Stage times may be added from
+ * the mapping threads; everything else is used by the converting thread only.
+ * The run is also reported to Flight Recorder as a {@link ConversionEvent}.
+ * <p>
+ * A stage is timed with {@code long start = timer.start(); ...;
+ * timer.stop(stage, start)}; {@link #stop} returns the current time so
+ * consecutive stages can be chained.
+ */
+public final class ConversionTimer {
+
+	private static final ConversionStage[] STAGES = ConversionStage.values();
+
+	private final String fileType;
+	private final String fileName;
+	private final ConversionEvent event = new ConversionEvent();
+	private final long startNanos = System.nanoTime();
+	private final LongAdder[] stageNanos = new LongAdder[STAGES.length];
+	private long bytesIn;
+	private long bytesOut;
+
+	ConversionTimer(String fileType, String fileName) {
+		this.fileType = fileType;
+		this.fileName = fileName;
+		for (int i = 0; i < stageNanos.length; i++) {
+			stageNanos[i] = new LongAdder();
+		}
+		ConversionStartEvent startEvent = new ConversionStartEvent();
+		if (startEvent.shouldCommit()) {
+			startEvent.fileType = fileType;
+			startEvent.fileName = fileName;
+			startEvent.commit();
+		}
+		event.begin();
+	}
+
+	public String getFileType() {
+		return fileType;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/** Adds the time since {@code startNanos} to {@code stage} and returns the current time. */
+	public long stop(ConversionStage stage, long startNanos) {
+		long now = System.nanoTime();
+		stageNanos[stage.ordinal()].add(now - startNanos);
+		return now;
+	}
+
+	public void addBytesIn(long bytes) {
+		if (bytes > 0) {
+			bytesIn += bytes;
+		}
+	}
+
+	public void addBytesOut(long bytes) {
+		if (bytes > 0) {
+			bytesOut += bytes;
+		}
+	}
+
+	/** Times every {@code next()} of {@code source} as {@link ConversionStage#PARSE}. */
+	public RecordSource timed(RecordSource source) {
+		return () -> {
+			long start = start();
+			JsonNode node = source.next();
+			stop(ConversionStage.PARSE, start);
+			return node;
+		};
+	}
+
+	/**
+	 * Times {@code accept} of {@code sink} as {@link ConversionStage#WRITE} and
+	 * {@code commit} as {@link ConversionStage#UPLOAD}, and counts the committed
+	 * bytes as output.
+	 */
+	public <T> RecordSink<T> timed(RecordSink<T> sink) {
+		return new RecordSink<T>() {
+			private boolean committed;
+
+			@Override
+			public void accept(T record) throws IOException {
+				long start = start();
+				sink.accept(record);
+				stop(ConversionStage.WRITE, start);
+			}
+
+			@Override
+			public void commit() throws IOException {
+				if (committed) {
+					return;
+				}
+				long start = start();
+				sink.commit();
+				stop(ConversionStage.UPLOAD, start);
+				addBytesOut(sink.getBytesWritten());
+				committed = true;
+			}
+
+			@Override
+			public long getBytesWritten() {
+				return sink.getBytesWritten();
+			}
+
+			@Override
+			public void close() throws IOException {
+				sink.close();
+			}
+		};
+	}
+
+	/**
+	 * Reports every record {@code mapper} rejects as a
+	 * {@link ValidationFailureEvent} before passing the rejection on.
+	 */
+	public <T> RecordMapper<T> reportingRejects(RecordMapper<T> mapper) {
+		return node -> {
+			try {
+				return mapper.map(node);
+			} catch (ProcessingException e) {
+				ValidationFailureEvent failure = new ValidationFailureEvent();
+				if (failure.shouldCommit()) {
+					failure.fileType = fileType;
+					failure.fileName = fileName;
+					failure.message = e.getMessage();
+					failure.commit();
+				}
+				throw e;
+			}
+		};
+	}
+
+	/** Ends and commits the {@link ConversionEvent} of the run. */
+	void commitEvent(boolean success, long records, long rejectedRecords) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.fileType = fileType;
+			event.fileName = fileName;
+			event.success = success;
+			event.records = records;
+			event.rejectedRecords = rejectedRecords;
+			event.bytesIn = bytesIn;
+			event.bytesOut = bytesOut;
+			event.commit();
+		}
+	}
+
+	long getElapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+
+	long getStageNanos(ConversionStage stage) {
+		return stageNanos[stage.ordinal()].sum();
+	}
+
+	long getBytesIn() {
+		return bytesIn;
+	}
+
+	long getBytesOut() {
+		return bytesOut;
+	}
+}
@@ -0,0 +1,128 @@
+package com.ibm.scis.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Each power of two is split
+ * into 16 buckets, so a reported percentile is at most 1/16 (6.25%) above the
+ * true value, over the whole range of {@code long}. Recording is a few atomic
+ * adds and never allocates; a snapshot taken while other threads record may mix
+ * values from just before and just after it.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/** Records one duration; negative values count as 0. */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public Snapshot snapshot() {
+		long[] buckets = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = counts.get(i);
+			total += buckets[i];
+		}
+		long maxNanos = max.get();
+		return new Snapshot(total, total == 0 ? 0 : sum.sum() / (double) total / NANOS_PER_MILLI,
+				percentile(buckets, total, 0.50, maxNanos), percentile(buckets, total, 0.90, maxNanos),
+				percentile(buckets, total, 0.99, maxNanos), maxNanos / NANOS_PER_MILLI);
+	}
+
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/** Largest value that falls into {@code bucket}. */
+	static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	private static double percentile(long[] buckets, long total, double quantile, long maxNanos) {
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			seen += buckets[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), maxNanos) / NANOS_PER_MILLI;
+			}
+		}
+		return maxNanos / NANOS_PER_MILLI;
+	}
+
+	/** Count and latencies in milliseconds at the time of the snapshot. */
+	public static class Snapshot {
+		private final long count;
+		private final double mean;
+		private final double p50;
+		private final double p90;
+		private final double p99;
+		private final double max;
+
+		Snapshot(long count, double mean, double p50, double p90, double p99, double max) {
+			this.count = count;
+			this.mean = mean;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public double getMean() {
+			return mean;
+		}
+
+		public double getP50() {
+			return p50;
+		}
+
+		public double getP90() {
+			return p90;
+		}
+
+		public double getP99() {
+			return p99;
+		}
+
+		public double getMax() {
+			return max;
+		}
+	}
+}
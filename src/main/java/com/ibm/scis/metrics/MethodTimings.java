@@ -0,0 +1,77 @@
+package com.ibm.scis.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency histogram and error count per method, filled by
+ * {@link com.ibm.scis.logging.TimingAspect}. Recording looks the method up in
+ * a concurrent map and updates the histogram without locking.
+ */
+@Component
+public class MethodTimings {
+
+	private final ConcurrentMap<Method, Timing> timings = new ConcurrentHashMap<>();
+
+	public void record(Method method, long nanos, boolean failed) {
+		Timing timing = timings.get(method);
+		if (timing == null) {
+			timing = timings.computeIfAbsent(method, key -> new Timing());
+		}
+		timing.latency.record(nanos);
+		if (failed) {
+			timing.errors.increment();
+		}
+	}
+
+	/** Timings of every method called since startup, by {@code Class.method(ParameterTypes)}. */
+	public Map<String, MethodSnapshot> snapshot() {
+		Map<String, MethodSnapshot> snapshot = new TreeMap<>();
+		timings.forEach((method, timing) -> snapshot.put(describe(method),
+				new MethodSnapshot(timing.errors.sum(), timing.latency.snapshot())));
+		return snapshot;
+	}
+
+	static String describe(Method method) {
+		StringBuilder description = new StringBuilder(method.getDeclaringClass().getSimpleName()).append('.')
+				.append(method.getName()).append('(');
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				description.append(',');
+			}
+			description.append(parameterTypes[i].getSimpleName());
+		}
+		return description.append(')').toString();
+	}
+
+	private static final class Timing {
+		final LatencyHistogram latency = new LatencyHistogram();
+		final LongAdder errors = new LongAdder();
+	}
+
+	/** Calls of one method; latencies in milliseconds. */
+	public static class MethodSnapshot {
+		private final long errors;
+		private final LatencyHistogram.Snapshot latencyMillis;
+
+		MethodSnapshot(long errors, LatencyHistogram.Snapshot latencyMillis) {
+			this.errors = errors;
+			this.latencyMillis = latencyMillis;
+		}
+
+		/** Calls that ended with an exception. */
+		public long getErrors() {
+			return errors;
+		}
+
+		public LatencyHistogram.Snapshot getLatencyMillis() {
+			return latencyMillis;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.ibm.scis.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one scheduled conversion cycle, with the wall time of each file.
+ */
+public class ConversionCycleReport {
+
+	public static final String CONVERTED = "converted";
+	public static final String FAILED = "failed";
+	public static final String SKIPPED = "skipped";
+	public static final String UNCHANGED = "unchanged";
+
+	private long startedAt;
+	private long wallTimeMillis;
+	private int maxConcurrentConversions;
+	private long skippedUnchangedTotal;
+	private List<FileReport> files = new ArrayList<>();
+
+	public static class FileReport {
+		private String file;
+		private String status;
+		private long wallTimeMillis;
+		private String message;
+
+		public FileReport(String file, String status, long wallTimeMillis, String message) {
+			this.file = file;
+			this.status = status;
+			this.wallTimeMillis = wallTimeMillis;
+			this.message = message;
+		}
+
+		public String getFile() {
+			return file;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		public long getWallTimeMillis() {
+			return wallTimeMillis;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return file + " " + status + " in " + wallTimeMillis + " ms" + (message != null ? " (" + message + ")" : "");
+		}
+	}
+
+	public long getStartedAt() {
+		return startedAt;
+	}
+
+	public void setStartedAt(long startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	public long getWallTimeMillis() {
+		return wallTimeMillis;
+	}
+
+	public void setWallTimeMillis(long wallTimeMillis) {
+		this.wallTimeMillis = wallTimeMillis;
+	}
+
+	public int getMaxConcurrentConversions() {
+		return maxConcurrentConversions;
+	}
+
+	public void setMaxConcurrentConversions(int maxConcurrentConversions) {
+		this.maxConcurrentConversions = maxConcurrentConversions;
+	}
+
+	/** Conversions skipped because the input was unchanged, since startup. */
+	public long getSkippedUnchangedTotal() {
+		return skippedUnchangedTotal;
+	}
+
+	public void setSkippedUnchangedTotal(long skippedUnchangedTotal) {
+		this.skippedUnchangedTotal = skippedUnchangedTotal;
+	}
+
+	public List<FileReport> getFiles() {
+		return files;
+	}
+
+	public void setFiles(List<FileReport> files) {
+		this.files = files;
+	}
+
+	public long countByStatus(String status) {
+		return files.stream().filter(fileReport -> status.equals(fileReport.getStatus())).count();
+	}
+}
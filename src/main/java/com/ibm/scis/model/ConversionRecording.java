@@ -0,0 +1,26 @@
+package com.ibm.scis.model;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a conversion run under a Flight Recorder recording, and the file
+ * the recording was dumped to.
+ */
+public class ConversionRecording {
+
+	private ConversionResponse response;
+	private Path recordingFile;
+
+	public ConversionRecording(ConversionResponse response, Path recordingFile) {
+		this.response = response;
+		this.recordingFile = recordingFile;
+	}
+
+	public ConversionResponse getResponse() {
+		return response;
+	}
+
+	public Path getRecordingFile() {
+		return recordingFile;
+	}
+}
@@ -3,6 +3,10 @@ package com.ibm.scis.model;
 public class ConversionResponse {
 	private boolean success;
 	private String message;
+	private long acceptedRecords;
+	private long rejectedRecords;
+	private String rejectsFile;
+	private ConversionStats stats;
 
 	public ConversionResponse(boolean success, String message) {
 		this.success = success;
@@ -24,4 +28,40 @@ public class ConversionResponse {
 	public void setMessage(String message) {
 		this.message = message;
 	}
-}
\ No newline at end of file
+
+	/** Number of records written to the output CSVs. */
+	public long getAcceptedRecords() {
+		return acceptedRecords;
+	}
+
+	public void setAcceptedRecords(long acceptedRecords) {
+		this.acceptedRecords = acceptedRecords;
+	}
+
+	/** Number of records left out of the outputs because they were invalid. */
+	public long getRejectedRecords() {
+		return rejectedRecords;
+	}
+
+	public void setRejectedRecords(long rejectedRecords) {
+		this.rejectedRecords = rejectedRecords;
+	}
+
+	/** COS key of the file listing the rejected records, if any were rejected. */
+	public String getRejectsFile() {
+		return rejectsFile;
+	}
+
+	public void setRejectsFile(String rejectsFile) {
+		this.rejectsFile = rejectsFile;
+	}
+
+	/** Stage timings and volumes of the run. */
+	public ConversionStats getStats() {
+		return stats;
+	}
+
+	public void setStats(ConversionStats stats) {
+		this.stats = stats;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.ibm.scis.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings and volumes of one conversion run.
+ */
+public class ConversionStats {
+	private String fileType;
+	private double wallTimeMillis;
+	private Map<String, Double> stageMillis = new LinkedHashMap<>();
+	private long records;
+	private double recordsPerSecond;
+	private long bytesIn;
+	private long bytesOut;
+
+	public String getFileType() {
+		return fileType;
+	}
+
+	public void setFileType(String fileType) {
+		this.fileType = fileType;
+	}
+
+	public double getWallTimeMillis() {
+		return wallTimeMillis;
+	}
+
+	public void setWallTimeMillis(double wallTimeMillis) {
+		this.wallTimeMillis = wallTimeMillis;
+	}
+
+	/**
+	 * Time spent per stage. Map and validate are summed over the mapping
+	 * threads, so with a parallelism above 1 they can exceed the wall time.
+	 */
+	public Map<String, Double> getStageMillis() {
+		return stageMillis;
+	}
+
+	public void setStageMillis(Map<String, Double> stageMillis) {
+		this.stageMillis = stageMillis;
+	}
+
+	/** Records written to the outputs. */
+	public long getRecords() {
+		return records;
+	}
+
+	public void setRecords(long records) {
+		this.records = records;
+	}
+
+	public double getRecordsPerSecond() {
+		return recordsPerSecond;
+	}
+
+	public void setRecordsPerSecond(double recordsPerSecond) {
+		this.recordsPerSecond = recordsPerSecond;
+	}
+
+	/** Size of the input object. */
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	public void setBytesIn(long bytesIn) {
+		this.bytesIn = bytesIn;
+	}
+
+	/**
+	 * Bytes written to the published outputs, rejects files excluded. Compressed
+	 * outputs count as uploaded in streaming mode and as written before
+	 * compression in temp-file mode.
+	 */
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	public void setBytesOut(long bytesOut) {
+		this.bytesOut = bytesOut;
+	}
+
+	@Override
+	public String toString() {
+		return fileType + ": " + records + " record(s) in " + Math.round(wallTimeMillis) + " ms, " + bytesIn
+				+ " bytes in, " + bytesOut + " bytes out, stages " + stageMillis;
+	}
+}
@@ -0,0 +1,31 @@
+package com.ibm.scis.model;
+
+import java.util.Date;
+
+/**
+ * Object count, total size and newest last-modified time of one folder.
+ */
+public class FolderSummary {
+
+	private int fileCount;
+	private long totalBytes;
+	private Date lastModified;
+
+	public FolderSummary(int fileCount, long totalBytes, Date lastModified) {
+		this.fileCount = fileCount;
+		this.totalBytes = totalBytes;
+		this.lastModified = lastModified;
+	}
+
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public Date getLastModified() {
+		return lastModified;
+	}
+}
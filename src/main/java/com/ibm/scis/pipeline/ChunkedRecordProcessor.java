@@ -0,0 +1,250 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.scis.exception.ProcessingException;
+
+/**
+ * Runs a {@link RecordMapper} over a {@link RecordSource} and hands the results to
+ * a {@link RecordSink} in input order.
+ * <p>
+ * With a parallelism of 1 (the default) records are mapped on the calling
+ * thread. Otherwise the input is cut into chunks of {@code chunk-size} records
+ * that are mapped on a shared fork/join pool while the calling thread keeps
+ * reading input and writes finished chunks in order. At most two chunks per
+ * worker are in flight, so memory stays bounded on large inputs. A rejected
+ * record is reported as the first rejection in input order, as in the
+ * sequential case, unless a {@link RejectHandler} is given; then every rejected
+ * record is passed to it in input order and the remaining records are still
+ * written.
+ */
+@Component
+public class ChunkedRecordProcessor implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ChunkedRecordProcessor.class);
+	private static final int CHUNKS_IN_FLIGHT_PER_WORKER = 2;
+
+	private final int parallelism;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param parallelism number of mapping threads; 1 maps on the calling thread
+	 *                    and 0 or less uses one thread per available processor
+	 * @param chunkSize   number of records handed to a worker at a time
+	 */
+	public ChunkedRecordProcessor(@Value("${ibm.scis.conversion.parallelism:1}") int parallelism,
+			@Value("${ibm.scis.conversion.chunk-size:256}") int chunkSize) {
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		this.chunkSize = Math.max(1, chunkSize);
+		this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism, workerThreadFactory(), null, false)
+				: null;
+		logger.info("Record mapping parallelism: {}, chunk size: {}", this.parallelism, this.chunkSize);
+	}
+
+	private static ForkJoinWorkerThreadFactory workerThreadFactory() {
+		return forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("record-mapper-" + thread.getPoolIndex());
+			return thread;
+		};
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Maps every record of {@code source} and passes the results to {@code sink}
+	 * in input order. Does not commit the sink.
+	 *
+	 * @throws RejectedRecordException for the first record the mapper rejected;
+	 *                                 records after it are not written
+	 */
+	public <T> void process(RecordSource source, RecordMapper<T> mapper, RecordSink<? super T> sink)
+			throws IOException, RejectedRecordException {
+		process(source, mapper, sink, null);
+	}
+
+	/**
+	 * Like {@link #process(RecordSource, RecordMapper, RecordSink)}, but when
+	 * {@code rejects} is not {@code null} rejected records are handed to it and
+	 * skipped instead of ending the run.
+	 *
+	 * @return the number of records written to {@code sink}
+	 * @throws RejectedRecordException only when {@code rejects} is {@code null}
+	 */
+	public <T> long process(RecordSource source, RecordMapper<T> mapper, RecordSink<? super T> sink,
+			RejectHandler rejects) throws IOException, RejectedRecordException {
+		long accepted = 0;
+		if (pool == null) {
+			long index = 0;
+			JsonNode node;
+			while ((node = source.next()) != null) {
+				T record;
+				try {
+					record = mapper.map(node);
+				} catch (ProcessingException e) {
+					if (rejects == null) {
+						throw new RejectedRecordException(node, e);
+					}
+					rejects.reject(index++, node, e);
+					continue;
+				}
+				sink.accept(record);
+				accepted++;
+				index++;
+			}
+			return accepted;
+		}
+
+		int maxInFlight = parallelism * CHUNKS_IN_FLIGHT_PER_WORKER;
+		Deque<ForkJoinTask<MappedChunk<T>>> inFlight = new ArrayDeque<>(maxInFlight);
+		boolean quarantine = rejects != null;
+		try {
+			long index = 0;
+			List<JsonNode> chunk;
+			while (!(chunk = readChunk(source)).isEmpty()) {
+				List<JsonNode> nodes = chunk;
+				long firstIndex = index;
+				index += nodes.size();
+				inFlight.addLast(pool.submit(() -> mapChunk(mapper, nodes, firstIndex, quarantine)));
+				if (inFlight.size() >= maxInFlight) {
+					accepted += writeChunk(inFlight.removeFirst(), sink, rejects);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				accepted += writeChunk(inFlight.removeFirst(), sink, rejects);
+			}
+			return accepted;
+		} finally {
+			for (ForkJoinTask<MappedChunk<T>> task : inFlight) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	private List<JsonNode> readChunk(RecordSource source) throws IOException {
+		List<JsonNode> chunk = new ArrayList<>(chunkSize);
+		JsonNode node;
+		while (chunk.size() < chunkSize && (node = source.next()) != null) {
+			chunk.add(node);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Result of mapping one chunk. Checked failures are carried back rather than
+	 * thrown, so the caller rethrows the original exception instead of the copy
+	 * ForkJoinTask makes for exceptions raised on another thread.
+	 */
+	private static final class MappedChunk<T> {
+		final List<T> records;
+		final List<Rejection> rejections;
+		final Exception failure;
+
+		MappedChunk(List<T> records, List<Rejection> rejections, Exception failure) {
+			this.records = records;
+			this.rejections = rejections;
+			this.failure = failure;
+		}
+	}
+
+	private static final class Rejection {
+		final long index;
+		final JsonNode record;
+		final ProcessingException cause;
+
+		Rejection(long index, JsonNode record, ProcessingException cause) {
+			this.index = index;
+			this.record = record;
+			this.cause = cause;
+		}
+	}
+
+	private static <T> MappedChunk<T> mapChunk(RecordMapper<T> mapper, List<JsonNode> nodes, long firstIndex,
+			boolean quarantine) {
+		List<T> records = new ArrayList<>(nodes.size());
+		List<Rejection> rejections = null;
+		try {
+			for (int i = 0; i < nodes.size(); i++) {
+				JsonNode node = nodes.get(i);
+				try {
+					records.add(mapper.map(node));
+				} catch (ProcessingException e) {
+					if (!quarantine) {
+						throw new RejectedRecordException(node, e);
+					}
+					if (rejections == null) {
+						rejections = new ArrayList<>();
+					}
+					rejections.add(new Rejection(firstIndex + i, node, e));
+				}
+			}
+		} catch (IOException | RejectedRecordException e) {
+			return new MappedChunk<>(null, null, e);
+		}
+		return new MappedChunk<>(records, rejections, null);
+	}
+
+	private static <T> int writeChunk(ForkJoinTask<MappedChunk<T>> task, RecordSink<? super T> sink,
+			RejectHandler rejects) throws IOException, RejectedRecordException {
+		MappedChunk<T> chunk;
+		try {
+			chunk = task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while mapping records");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Record mapping failed", cause);
+		}
+		if (chunk.failure instanceof RejectedRecordException) {
+			throw (RejectedRecordException) chunk.failure;
+		}
+		if (chunk.failure instanceof IOException) {
+			throw (IOException) chunk.failure;
+		}
+		if (chunk.rejections != null) {
+			for (Rejection rejection : chunk.rejections) {
+				rejects.reject(rejection.index, rejection.record, rejection.cause);
+			}
+		}
+		for (T record : chunk.records) {
+			sink.accept(record);
+		}
+		return chunk.records.size();
+	}
+
+	@Override
+	public void destroy() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+}
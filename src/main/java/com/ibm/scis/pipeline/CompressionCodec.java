@@ -0,0 +1,86 @@
+package com.ibm.scis.pipeline;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Compression of an uploaded CSV output. A compressed output is stored under
+ * its key plus the codec's extension, with the codec's content type, so that it
+ * downloads as the compressed file its name says it is.
+ */
+public enum CompressionCodec {
+
+	NONE("", null) {
+		@Override
+		OutputStream wrap(OutputStream out) {
+			return out;
+		}
+	},
+	GZIP(".gz", "application/gzip") {
+		@Override
+		OutputStream wrap(OutputStream out) throws IOException {
+			return new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+	},
+	/** Zstandard at its default level (3); smaller and faster than gzip. */
+	ZSTD(".zst", "application/zstd") {
+		@Override
+		OutputStream wrap(OutputStream out) throws IOException {
+			return new ZstdOutputStream(out);
+		}
+	};
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final String extension;
+	private final String contentType;
+
+	CompressionCodec(String extension, String contentType) {
+		this.extension = extension;
+		this.contentType = contentType;
+	}
+
+	/** Key of the object holding {@code cosKey} compressed with this codec. */
+	public String keyFor(String cosKey) {
+		return cosKey + extension;
+	}
+
+	/** Content type of the compressed object, or {@code null} for {@link #NONE}. */
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * Returns a stream that compresses what is written into {@code out}. Closing
+	 * it ends the compressed data and flushes {@code out} but leaves it open, so
+	 * an upload can still be completed or aborted afterwards.
+	 */
+	public OutputStream compress(OutputStream out) throws IOException {
+		return wrap(new FilterOutputStream(out) {
+			@Override
+			public void write(byte[] bytes, int offset, int length) throws IOException {
+				out.write(bytes, offset, length);
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		});
+	}
+
+	abstract OutputStream wrap(OutputStream out) throws IOException;
+
+	/** Codec by name ({@code none}, {@code gzip} or {@code zstd}), ignoring case. */
+	public static CompressionCodec forName(String name) {
+		try {
+			return valueOf(name.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown compression codec: " + name);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.ibm.scis.pipeline;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.ibm.scis.pipeline.CsvFileSink.RowWriter;
+
+/**
+ * Writes records as CSV straight into a COS upload, without a local file,
+ * compressing them on the way if a codec is given. The object is only published
+ * on commit; closing the sink before that aborts the upload. Text is encoded
+ * with the platform charset, as {@link CsvFileSink} does, so both sinks produce
+ * the same CSV and report the same number of bytes for it.
+ */
+public class CosStreamingCsvSink<T> implements RecordSink<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(CosStreamingCsvSink.class);
+
+	private final CosUploadOutputStream upload;
+	private final CountingOutputStream csvBytes;
+	private final CSVPrinter csvPrinter;
+	private final RowWriter<T> rowWriter;
+	private boolean committed;
+
+	public CosStreamingCsvSink(CosUploadOutputStream upload, CSVFormat csvFormat, RowWriter<T> rowWriter)
+			throws IOException {
+		this(upload, CompressionCodec.NONE, csvFormat, rowWriter);
+	}
+
+	/**
+	 * @param codec compression of the uploaded bytes; {@code upload} must
+	 *              already be opened under its key and content type
+	 */
+	public CosStreamingCsvSink(CosUploadOutputStream upload, CompressionCodec codec, CSVFormat csvFormat,
+			RowWriter<T> rowWriter) throws IOException {
+		this.upload = upload;
+		try {
+			this.csvBytes = new CountingOutputStream(codec.compress(upload));
+			this.csvPrinter = new CSVPrinter(
+					new BufferedWriter(new OutputStreamWriter(csvBytes, Charset.defaultCharset())), csvFormat);
+		} catch (IOException e) {
+			upload.close();
+			throw e;
+		}
+		this.rowWriter = rowWriter;
+	}
+
+	@Override
+	public void accept(T record) throws IOException {
+		rowWriter.write(csvPrinter, record);
+	}
+
+	@Override
+	public void commit() throws IOException {
+		if (committed) {
+			return;
+		}
+		// ends the compressed data, if any, without closing the upload
+		csvPrinter.close();
+		upload.complete();
+		committed = true;
+	}
+
+	/** Bytes of CSV written, before compression; rows still buffered are not counted. */
+	@Override
+	public long getBytesWritten() {
+		return csvBytes.count;
+	}
+
+	/**
+	 * Aborts the upload unless the sink was committed. The upload is aborted
+	 * before the printer is closed, so rows still buffered in the writer or the
+	 * compressor are dropped instead of being uploaded as another part.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (committed) {
+			return;
+		}
+		upload.close();
+		try {
+			csvPrinter.close();
+		} catch (IOException e) {
+			// the buffered rows cannot reach the aborted upload, which is the point
+			logger.debug("Discarded unwritten rows of an aborted upload: {}", e.getMessage());
+		}
+	}
+
+	/** Counts the bytes passed on to the codec. */
+	private static final class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
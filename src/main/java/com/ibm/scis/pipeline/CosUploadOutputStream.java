@@ -0,0 +1,201 @@
+package com.ibm.scis.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.cloud.objectstorage.services.s3.internal.Mimetypes;
+import com.ibm.cloud.objectstorage.services.s3.model.AbortMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.CompleteMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.InitiateMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
+import com.ibm.cloud.objectstorage.services.s3.model.PartETag;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.UploadPartRequest;
+
+/**
+ * Output stream that uploads what is written to one COS object, holding at most
+ * one part in memory.
+ * <p>
+ * Bytes are buffered until a part is full; the first full part starts a
+ * multipart upload and each further one is uploaded as it fills. Output that
+ * never fills a part is sent with a single put on {@link #complete()}. Nothing
+ * is visible in the bucket until {@code complete()} succeeds; closing the stream
+ * without completing it aborts the multipart upload, if one was started.
+ */
+public class CosUploadOutputStream extends OutputStream {
+
+	private static final Logger logger = LoggerFactory.getLogger(CosUploadOutputStream.class);
+
+	/** Smallest part size COS accepts for every part but the last. */
+	public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	@FunctionalInterface
+	public interface CompletionListener {
+		void completed(String bucketName, String key, long size, String eTag);
+	}
+
+	private final AmazonS3 cosClient;
+	private final String bucketName;
+	private final String key;
+	private final int partSize;
+	private final String contentType;
+	private final CompletionListener listener;
+
+	private byte[] buffer;
+	private int buffered;
+	private long totalBytes;
+	private String uploadId;
+	private final List<PartETag> partETags = new ArrayList<>();
+	private boolean completed;
+	private boolean closed;
+
+	public CosUploadOutputStream(AmazonS3 cosClient, String bucketName, String key, int partSize,
+			CompletionListener listener) {
+		this(cosClient, bucketName, key, partSize, null, listener);
+	}
+
+	/**
+	 * @param contentType {@code Content-Type} of the object, or {@code null} to
+	 *                    derive it from the key
+	 */
+	public CosUploadOutputStream(AmazonS3 cosClient, String bucketName, String key, int partSize,
+			String contentType, CompletionListener listener) {
+		if (partSize < MIN_PART_SIZE) {
+			throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+		}
+		this.cosClient = cosClient;
+		this.bucketName = bucketName;
+		this.key = key;
+		this.partSize = partSize;
+		this.contentType = contentType;
+		this.listener = listener;
+		this.buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, partSize)];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		if (buffered == buffer.length) {
+			makeRoom();
+		}
+		buffer[buffered++] = (byte) b;
+		totalBytes++;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		ensureOpen();
+		while (length > 0) {
+			if (buffered == buffer.length) {
+				makeRoom();
+			}
+			int chunk = Math.min(length, buffer.length - buffered);
+			System.arraycopy(bytes, offset, buffer, buffered, chunk);
+			buffered += chunk;
+			totalBytes += chunk;
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	/** Number of bytes written to the stream so far. */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/** Uploads the remaining bytes and publishes the object. */
+	public void complete() throws IOException {
+		ensureOpen();
+		String eTag;
+		try {
+			if (uploadId == null) {
+				ObjectMetadata metadata = newMetadata();
+				metadata.setContentLength(buffered);
+				eTag = cosClient.putObject(new PutObjectRequest(bucketName, key,
+						new ByteArrayInputStream(buffer, 0, buffered), metadata)).getETag();
+			} else {
+				if (buffered > 0) {
+					uploadPart();
+				}
+				eTag = cosClient.completeMultipartUpload(
+						new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags)).getETag();
+			}
+		} catch (RuntimeException e) {
+			abort();
+			throw new IOException("Upload of " + key + " failed: " + e.getMessage(), e);
+		}
+		completed = true;
+		closed = true;
+		buffer = null;
+		logger.debug("Uploaded {} bytes to {} in {} part(s)", totalBytes, key, Math.max(1, partETags.size()));
+		if (listener != null) {
+			listener.completed(bucketName, key, totalBytes, eTag);
+		}
+	}
+
+	/** Discards the upload unless {@link #complete()} succeeded. */
+	@Override
+	public void close() {
+		if (!closed) {
+			abort();
+		}
+	}
+
+	private void abort() {
+		closed = true;
+		buffer = null;
+		if (uploadId != null && !completed) {
+			try {
+				cosClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+			} catch (RuntimeException e) {
+				logger.warn("Could not abort multipart upload of {}: {}", key, e.getMessage());
+			}
+			uploadId = null;
+		}
+	}
+
+	/** Grows the buffer up to the part size, then uploads it as a part. */
+	private void makeRoom() throws IOException {
+		if (buffer.length < partSize) {
+			buffer = Arrays.copyOf(buffer, Math.min(partSize, buffer.length * 2));
+			return;
+		}
+		try {
+			if (uploadId == null) {
+				uploadId = cosClient.initiateMultipartUpload(
+						new InitiateMultipartUploadRequest(bucketName, key, newMetadata())).getUploadId();
+			}
+			uploadPart();
+		} catch (RuntimeException e) {
+			abort();
+			throw new IOException("Upload of " + key + " failed: " + e.getMessage(), e);
+		}
+	}
+
+	private void uploadPart() {
+		UploadPartRequest request = new UploadPartRequest().withBucketName(bucketName).withKey(key)
+				.withUploadId(uploadId).withPartNumber(partETags.size() + 1)
+				.withInputStream(new ByteArrayInputStream(buffer, 0, buffered)).withPartSize(buffered);
+		partETags.add(cosClient.uploadPart(request).getPartETag());
+		buffered = 0;
+	}
+
+	private ObjectMetadata newMetadata() {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentType(contentType != null ? contentType : Mimetypes.getInstance().getMimetype(key));
+		return metadata;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Upload of " + key + " is already " + (completed ? "complete" : "aborted"));
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.ibm.scis.pipeline;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import com.ibm.scis.utils.ServiceUtil;
+
+/**
+ * Writes records to a temporary CSV file and hands the finished file to a
+ * publisher on commit. The temporary file is always removed on close.
+ */
+public class CsvFileSink<T> implements RecordSink<T> {
+
+	@FunctionalInterface
+	public interface RowWriter<T> {
+		void write(CSVPrinter csvPrinter, T record) throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface Publisher {
+		void publish(File csvFile) throws IOException;
+	}
+
+	private final File tempCsvFile;
+	private final CSVPrinter csvPrinter;
+	private final RowWriter<T> rowWriter;
+	private final Publisher publisher;
+	private boolean committed;
+	private long bytesWritten;
+
+	public CsvFileSink(String tempFilePrefix, CSVFormat csvFormat, RowWriter<T> rowWriter, Publisher publisher)
+			throws IOException {
+		this.tempCsvFile = ServiceUtil.createTempFile(tempFilePrefix, ".csv");
+		try {
+			this.csvPrinter = new CSVPrinter(new FileWriter(tempCsvFile), csvFormat);
+		} catch (IOException e) {
+			tempCsvFile.delete();
+			throw e;
+		}
+		this.rowWriter = rowWriter;
+		this.publisher = publisher;
+	}
+
+	@Override
+	public void accept(T record) throws IOException {
+		rowWriter.write(csvPrinter, record);
+	}
+
+	@Override
+	public void commit() throws IOException {
+		if (committed) {
+			return;
+		}
+		csvPrinter.close();
+		bytesWritten = tempCsvFile.length();
+		publisher.publish(tempCsvFile);
+		committed = true;
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			csvPrinter.close();
+		} finally {
+			tempCsvFile.delete();
+		}
+	}
+}
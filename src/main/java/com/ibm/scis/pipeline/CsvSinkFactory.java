@@ -0,0 +1,75 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import org.apache.commons.csv.CSVFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.scis.pipeline.CsvFileSink.Publisher;
+import com.ibm.scis.pipeline.CsvFileSink.RowWriter;
+import com.ibm.scis.utils.CosBucketIndex;
+
+/**
+ * Creates the CSV output sinks of the converters according to
+ * {@code ibm.scis.output.mode}:
+ * <ul>
+ * <li>{@code temp-file} (default): a {@link CsvFileSink}; the finished file is
+ * handed to the converter's publisher, which uploads it and keeps a local
+ * copy.</li>
+ * <li>{@code streaming}: a {@link CosStreamingCsvSink} that uploads while
+ * records are written, buffering at most {@code ibm.scis.output.part-size-mb}
+ * (minimum 5) per output and touching no local disk. No local copy is
+ * kept.</li>
+ * </ul>
+ * In streaming mode, outputs under a prefix configured in
+ * {@link OutputCompression} are compressed as they are written; in temp-file
+ * mode the file is compressed while it is uploaded. Either way they are stored
+ * under the key plus the codec's extension, and the sinks report the bytes of
+ * CSV written, before compression.
+ */
+@Component
+public class CsvSinkFactory {
+
+	private static final Logger logger = LoggerFactory.getLogger(CsvSinkFactory.class);
+
+	public static final String TEMP_FILE = "temp-file";
+	public static final String STREAMING = "streaming";
+
+	private final AmazonS3 cosClient;
+	private final CosBucketIndex bucketIndex;
+	private final OutputCompression outputCompression;
+	private final boolean streaming;
+	private final int partSize;
+
+	public CsvSinkFactory(AmazonS3 cosClient, CosBucketIndex bucketIndex, OutputCompression outputCompression,
+			@Value("${ibm.scis.output.mode:" + TEMP_FILE + "}") String outputMode,
+			@Value("${ibm.scis.output.part-size-mb:8}") int partSizeMb) {
+		if (!TEMP_FILE.equals(outputMode) && !STREAMING.equals(outputMode)) {
+			throw new IllegalArgumentException("Unknown ibm.scis.output.mode: " + outputMode);
+		}
+		this.cosClient = cosClient;
+		this.bucketIndex = bucketIndex;
+		this.outputCompression = outputCompression;
+		this.streaming = STREAMING.equals(outputMode);
+		this.partSize = Math.max(CosUploadOutputStream.MIN_PART_SIZE, partSizeMb * 1024 * 1024);
+		logger.info("CSV outputs are written {}", streaming ? "straight to COS" : "to temporary files");
+	}
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/** Opens a sink for the CSV output uploaded to {@code cosKey}. */
+	public <T> RecordSink<T> open(String bucketName, String cosKey, String tempFilePrefix, CSVFormat csvFormat,
+			RowWriter<T> rowWriter, Publisher filePublisher) throws IOException {
+		if (!streaming) {
+			return new CsvFileSink<>(tempFilePrefix, csvFormat, rowWriter, filePublisher);
+		}
+		CompressionCodec codec = outputCompression.codecFor(cosKey);
+		CosUploadOutputStream upload = new CosUploadOutputStream(cosClient, bucketName, codec.keyFor(cosKey), partSize,
+				codec.getContentType(), (bucket, key, size, eTag) -> bucketIndex.recordPut(bucket, key, size, eTag));
+		return new CosStreamingCsvSink<>(upload, codec, csvFormat, rowWriter);
+	}
+}
@@ -0,0 +1,83 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.ibm.scis.state.StateJournal;
+import com.ibm.scis.state.StateStore;
+
+/**
+ * Decides whether the converters that support it publish their full snapshot,
+ * a delta against the last run, or both, according to
+ * {@code ibm.scis.output.delta}:
+ * <ul>
+ * <li>{@code off} (default): the full snapshot only.</li>
+ * <li>{@code alongside}: the full snapshot and the delta outputs.</li>
+ * <li>{@code only}: the delta outputs only.</li>
+ * </ul>
+ * The fingerprints a delta is computed against are kept in a state journal per
+ * output, so the first run with deltas enabled lists every record as added.
+ */
+@Component
+public class DeltaOutput {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeltaOutput.class);
+
+	public static final String OFF = "off";
+	public static final String ALONGSIDE = "alongside";
+	public static final String ONLY = "only";
+
+	private final StateStore stateStore;
+	private final boolean enabled;
+	private final boolean snapshot;
+
+	public DeltaOutput(StateStore stateStore, @Value("${ibm.scis.output.delta:" + OFF + "}") String deltaMode) {
+		if (!OFF.equals(deltaMode) && !ALONGSIDE.equals(deltaMode) && !ONLY.equals(deltaMode)) {
+			throw new IllegalArgumentException("Unknown ibm.scis.output.delta: " + deltaMode);
+		}
+		this.stateStore = stateStore;
+		this.enabled = !OFF.equals(deltaMode);
+		this.snapshot = !ONLY.equals(deltaMode);
+		if (enabled) {
+			logger.info("Delta outputs are written {}",
+					snapshot ? "alongside the full snapshots" : "instead of the full snapshots");
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/** True when the full snapshot is published. */
+	public boolean isSnapshotWritten() {
+		return snapshot;
+	}
+
+	/**
+	 * Returns the sink of one run: {@code snapshot} (which may be {@code null}
+	 * when {@link #isSnapshotWritten()} is false) together with a
+	 * {@link DeltaSink} feeding {@code changes} against the fingerprints in the
+	 * state journal {@code name}. Both sinks are closed if the journal cannot be
+	 * opened.
+	 */
+	public <T> RecordSink<T> open(String name, RecordSink<T> snapshot, Function<T, String> keyFunction,
+			ToLongFunction<T> fingerprintFunction, RecordSink<DeltaSink.Change<T>> changes) throws IOException {
+		StateJournal fingerprints;
+		try {
+			fingerprints = stateStore.journal(name);
+		} catch (IOException e) {
+			changes.close();
+			if (snapshot != null) {
+				snapshot.close();
+			}
+			throw e;
+		}
+		DeltaSink<T> delta = new DeltaSink<>(fingerprints, keyFunction, fingerprintFunction, changes);
+		return snapshot == null ? delta : new FanOutSink<>(List.of(snapshot, delta));
+	}
+}
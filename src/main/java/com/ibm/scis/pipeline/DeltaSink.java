@@ -0,0 +1,212 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.ibm.scis.state.StateJournal;
+
+/**
+ * Passes on only the records that were added or changed since the last
+ * committed run, and on commit one removal per key that was not seen in this
+ * run.
+ * <p>
+ * Every record is identified by a key and summarised by a 64-bit fingerprint
+ * of its output columns; the fingerprints of the last committed run are kept
+ * in a {@link StateJournal}. A record whose fingerprint matches the stored one
+ * is dropped. When a key occurs more than once in a run the first record wins:
+ * later ones are left out of the delta and of the stored fingerprints, so every
+ * key gets at most one change.
+ * <p>
+ * Besides the journal, a run holds a 64-bit hash of every key it has seen and
+ * the fingerprints of the records it passed on. Removals are found by walking
+ * the journal's keys against the seen hashes; two keys with the same hash
+ * would hide a removal, which at 64 bits is not a practical concern.
+ * <p>
+ * The journal is only updated once the changes have been committed, so a run
+ * that fails leaves the baseline of the next run untouched. If the update
+ * itself fails, {@link #commit()} throws even though the changes were
+ * published, because the next run will publish them again. Runs over the same
+ * journal must not overlap.
+ */
+public class DeltaSink<T> implements RecordSink<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeltaSink.class);
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	public enum ChangeType {
+		ADDED, CHANGED, REMOVED;
+
+		/** Value of the change column of the delta outputs. */
+		public String label() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	/** One row of a delta output; removals carry the key only. */
+	public static final class Change<T> {
+		private final ChangeType type;
+		private final String key;
+		private final T record;
+
+		Change(ChangeType type, String key, T record) {
+			this.type = type;
+			this.key = key;
+			this.record = record;
+		}
+
+		public ChangeType getType() {
+			return type;
+		}
+
+		/** The parts the key was built from by {@link DeltaSink#key(String...)}. */
+		public String[] getKeyParts() {
+			return keyParts(key);
+		}
+
+		/** The record, or {@code null} for a removal. */
+		public T getRecord() {
+			return record;
+		}
+	}
+
+	private final StateJournal fingerprints;
+	private final Function<T, String> keyFunction;
+	private final ToLongFunction<T> fingerprintFunction;
+	private final RecordSink<Change<T>> changes;
+	private final LongHashSet seenKeys = new LongHashSet();
+	private final Map<String, String> changedFingerprints = new HashMap<>();
+	private long added;
+	private long changed;
+	private long duplicates;
+	private boolean committed;
+
+	public DeltaSink(StateJournal fingerprints, Function<T, String> keyFunction,
+			ToLongFunction<T> fingerprintFunction, RecordSink<Change<T>> changes) {
+		this.fingerprints = fingerprints;
+		this.keyFunction = keyFunction;
+		this.fingerprintFunction = fingerprintFunction;
+		this.changes = changes;
+	}
+
+	/**
+	 * Key made of {@code parts}, each preceded by its length, so any part may
+	 * contain any character.
+	 */
+	public static String key(String... parts) {
+		StringBuilder key = new StringBuilder();
+		for (String part : parts) {
+			key.append(part.length()).append(':').append(part);
+		}
+		return key.toString();
+	}
+
+	static String[] keyParts(String key) {
+		List<String> parts = new ArrayList<>();
+		int position = 0;
+		while (position < key.length()) {
+			int colon = key.indexOf(':', position);
+			int start = colon + 1;
+			int end = start + Integer.parseInt(key.substring(position, colon));
+			parts.add(key.substring(start, end));
+			position = end;
+		}
+		return parts.toArray(new String[0]);
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of the UTF-8 bytes of every value, each followed by its
+	 * length so that moving text between adjacent columns changes the result.
+	 */
+	public static long fingerprint(Object[]... rows) {
+		long hash = FNV_OFFSET_BASIS;
+		for (Object[] row : rows) {
+			for (Object value : row) {
+				byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+				for (byte b : bytes) {
+					hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+				}
+				hash = (hash ^ bytes.length) * FNV_PRIME;
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public void accept(T record) throws IOException {
+		String key = keyFunction.apply(record);
+		if (!seenKeys.add(keyHash(key))) {
+			duplicates++;
+			return;
+		}
+		String fingerprint = Long.toHexString(fingerprintFunction.applyAsLong(record));
+		String previous = fingerprints.get(key);
+		if (fingerprint.equals(previous)) {
+			return;
+		}
+		changedFingerprints.put(key, fingerprint);
+		if (previous == null) {
+			added++;
+			changes.accept(new Change<>(ChangeType.ADDED, key, record));
+		} else {
+			changed++;
+			changes.accept(new Change<>(ChangeType.CHANGED, key, record));
+		}
+	}
+
+	@Override
+	public void commit() throws IOException {
+		if (committed) {
+			return;
+		}
+		List<String> removed = new ArrayList<>();
+		fingerprints.forEachKey(key -> {
+			if (!seenKeys.contains(keyHash(key))) {
+				removed.add(key);
+			}
+		});
+		Collections.sort(removed);
+		for (String key : removed) {
+			changes.accept(new Change<>(ChangeType.REMOVED, key, null));
+		}
+		changes.commit();
+		committed = true;
+		try {
+			fingerprints.putAll(changedFingerprints);
+			fingerprints.removeAll(removed);
+		} catch (IOException e) {
+			throw new IOException("Published the delta but could not save the record fingerprints to "
+					+ fingerprints.getFile() + ", the next delta repeats these changes: " + e.getMessage(), e);
+		}
+		if (duplicates > 0) {
+			logger.warn("{} record(s) repeated a key seen earlier in the run and were left out of the delta",
+					duplicates);
+		}
+		logger.info("Delta of {} record(s): {} added, {} changed, {} removed", seenKeys.size(), added, changed,
+				removed.size());
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return changes.getBytesWritten();
+	}
+
+	@Override
+	public void close() throws IOException {
+		changes.close();
+	}
+
+	private static long keyHash(String key) {
+		return fingerprint(new Object[] { key });
+	}
+}
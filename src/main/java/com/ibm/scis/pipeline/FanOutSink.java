@@ -0,0 +1,60 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passes every record to several sinks, so a record that is mapped and validated
+ * once can feed all outputs of a conversion in a single pass.
+ */
+public class FanOutSink<T> implements RecordSink<T> {
+
+	private final List<RecordSink<? super T>> sinks;
+
+	public FanOutSink(List<RecordSink<? super T>> sinks) {
+		this.sinks = new ArrayList<>(sinks);
+	}
+
+	@Override
+	public void accept(T record) throws IOException {
+		for (RecordSink<? super T> sink : sinks) {
+			sink.accept(record);
+		}
+	}
+
+	@Override
+	public void commit() throws IOException {
+		for (RecordSink<? super T> sink : sinks) {
+			sink.commit();
+		}
+	}
+
+	@Override
+	public long getBytesWritten() {
+		long bytesWritten = 0;
+		for (RecordSink<? super T> sink : sinks) {
+			bytesWritten += sink.getBytesWritten();
+		}
+		return bytesWritten;
+	}
+
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		for (RecordSink<? super T> sink : sinks) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.ibm.scis.pipeline;
+
+/**
+ * Open-addressing set of {@code long} values, about 16 bytes per element
+ * instead of the 60 or so of a {@code HashSet<Long>}. Not thread-safe.
+ */
+final class LongHashSet {
+
+	private static final int MIN_CAPACITY = 1024;
+
+	private long[] slots = new long[MIN_CAPACITY];
+	private boolean containsZero;
+	private int size;
+
+	/** Adds {@code value}; returns false when it was already present. */
+	boolean add(long value) {
+		if (value == 0) {
+			if (containsZero) {
+				return false;
+			}
+			containsZero = true;
+			size++;
+			return true;
+		}
+		int mask = slots.length - 1;
+		int index = slot(value, mask);
+		while (slots[index] != 0) {
+			if (slots[index] == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		slots[index] = value;
+		size++;
+		if (size * 2 > slots.length) {
+			grow();
+		}
+		return true;
+	}
+
+	boolean contains(long value) {
+		if (value == 0) {
+			return containsZero;
+		}
+		int mask = slots.length - 1;
+		int index = slot(value, mask);
+		while (slots[index] != 0) {
+			if (slots[index] == value) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void grow() {
+		long[] old = slots;
+		slots = new long[old.length * 2];
+		int mask = slots.length - 1;
+		for (long value : old) {
+			if (value != 0) {
+				int index = slot(value, mask);
+				while (slots[index] != 0) {
+					index = (index + 1) & mask;
+				}
+				slots[index] = value;
+			}
+		}
+	}
+
+	private static int slot(long value, int mask) {
+		long mixed = value * 0x9E3779B97F4A7C15L;
+		return (int) (mixed ^ (mixed >>> 32)) & mask;
+	}
+}
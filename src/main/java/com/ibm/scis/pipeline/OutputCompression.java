@@ -0,0 +1,56 @@
+package com.ibm.scis.pipeline;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Codec of each uploaded output by COS key prefix, from
+ * {@code ibm.scis.output.compression}: comma-separated {@code prefix=codec}
+ * pairs, such as {@code upload/pcf/=zstd,import/partners/=gzip}. The longest
+ * matching prefix wins; an empty prefix sets the codec of all other keys. By
+ * default nothing is compressed.
+ * <p>
+ * A compressed output is stored under its key plus {@code .gz} or {@code .zst}
+ * (see {@link CompressionCodec#keyFor(String)}), with a content type of
+ * {@code application/gzip} or {@code application/zstd} and no
+ * {@code Content-Encoding}, so it is downloaded exactly as stored. Consumers of
+ * a compressed prefix must look for the suffixed keys.
+ */
+@Component
+public class OutputCompression {
+
+	private static final Logger logger = LoggerFactory.getLogger(OutputCompression.class);
+
+	/** Longest prefix first, so the first match is the most specific. */
+	private final Map<String, CompressionCodec> codecs = new TreeMap<>(
+			(a, b) -> a.length() != b.length() ? b.length() - a.length() : a.compareTo(b));
+
+	public OutputCompression(@Value("${ibm.scis.output.compression:}") String compression) {
+		for (String entry : compression.split(",")) {
+			if (entry.isBlank()) {
+				continue;
+			}
+			int separator = entry.lastIndexOf('=');
+			if (separator < 0) {
+				throw new IllegalArgumentException("Expected prefix=codec in ibm.scis.output.compression: " + entry);
+			}
+			codecs.put(entry.substring(0, separator).trim(), CompressionCodec.forName(entry.substring(separator + 1)));
+		}
+		if (!codecs.isEmpty()) {
+			logger.info("Output compression by key prefix: {}", codecs);
+		}
+	}
+
+	public CompressionCodec codecFor(String cosKey) {
+		for (Map.Entry<String, CompressionCodec> codec : codecs.entrySet()) {
+			if (cosKey.startsWith(codec.getKey())) {
+				return codec.getValue();
+			}
+		}
+		return CompressionCodec.NONE;
+	}
+}
@@ -0,0 +1,16 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.scis.exception.ProcessingException;
+
+/**
+ * Maps and validates one input record. Implementations must not modify shared
+ * state, since {@link ChunkedRecordProcessor} may call them from several threads.
+ */
+@FunctionalInterface
+public interface RecordMapper<T> {
+
+	T map(JsonNode node) throws ProcessingException, IOException;
+
+}
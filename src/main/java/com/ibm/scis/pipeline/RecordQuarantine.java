@@ -0,0 +1,95 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.scis.model.ConversionResponse;
+import com.ibm.scis.utils.ServiceUtil;
+
+/**
+ * Decides what a conversion does with invalid records, according to
+ * {@code ibm.scis.conversion.reject-mode}:
+ * <ul>
+ * <li>{@code fail} (default): the first invalid record fails the conversion and
+ * nothing is published.</li>
+ * <li>{@code quarantine}: invalid records are left out of the outputs and listed
+ * in {@code dead-files/<input>_<timestamp>_rejects.csv}; the valid ones are
+ * published. A run in which every record is invalid still fails.</li>
+ * </ul>
+ */
+@Component
+public class RecordQuarantine {
+
+	private static final Logger logger = LoggerFactory.getLogger(RecordQuarantine.class);
+
+	public static final String FAIL = "fail";
+	public static final String QUARANTINE = "quarantine";
+
+	private final CsvSinkFactory csvSinks;
+	private final ServiceUtil serviceUtil;
+	private final boolean enabled;
+
+	public RecordQuarantine(CsvSinkFactory csvSinks, ServiceUtil serviceUtil,
+			@Value("${ibm.scis.conversion.reject-mode:" + FAIL + "}") String rejectMode) {
+		if (!FAIL.equals(rejectMode) && !QUARANTINE.equals(rejectMode)) {
+			throw new IllegalArgumentException("Unknown ibm.scis.conversion.reject-mode: " + rejectMode);
+		}
+		this.csvSinks = csvSinks;
+		this.serviceUtil = serviceUtil;
+		this.enabled = QUARANTINE.equals(rejectMode);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Opens the rejects file for one run over {@code inputKey}, or returns
+	 * {@code null} in fail mode.
+	 */
+	public RejectedRecords open(AmazonS3 cosClient, String bucketName, String inputKey) throws IOException {
+		if (!enabled) {
+			return null;
+		}
+		String inputName = Paths.get(inputKey).getFileName().toString().replaceFirst("\\.json$", "");
+		String cosKey = "dead-files/" + inputName + "_" + ServiceUtil.formatDateTime(LocalDateTime.now())
+				+ "_rejects.csv";
+		return new RejectedRecords(cosKey, csvSinks.open(bucketName, cosKey, "Rejects_",
+				RejectedRecords.REJECTS_CSV_FORMAT, (csvPrinter, row) -> csvPrinter.printRecord((Object[]) row),
+				csvFile -> serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, csvFile)));
+	}
+
+	/**
+	 * Publishes the outputs of a run that processed every record, together with
+	 * its rejects file. When every record was rejected the outputs are not
+	 * published and a failed response is returned.
+	 */
+	public ConversionResponse complete(RecordSink<?> outputs, long accepted, RejectedRecords rejects)
+			throws IOException {
+		long rejected = rejects == null ? 0 : rejects.getCount();
+		ConversionResponse response;
+		if (rejected > 0 && accepted == 0) {
+			response = new ConversionResponse(false,
+					"Invalid JSON data: all " + rejected + " record(s) rejected, see " + rejects.getCosKey());
+		} else {
+			outputs.commit();
+			response = new ConversionResponse(true, rejected == 0 ? "Conversion successful. CSV uploaded"
+					: "Conversion successful. CSV uploaded; " + rejected + " invalid record(s) listed in "
+							+ rejects.getCosKey());
+		}
+		if (rejected > 0) {
+			rejects.commit();
+			logger.warn("{} of {} record(s) rejected, listed in {}", rejected, accepted + rejected,
+					rejects.getCosKey());
+			response.setRejectsFile(rejects.getCosKey());
+		}
+		response.setAcceptedRecords(accepted);
+		response.setRejectedRecords(rejected);
+		return response;
+	}
+}
@@ -0,0 +1,25 @@
+package com.ibm.scis.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination for mapped records. Output is only published on {@link #commit()};
+ * closing a sink that was never committed discards whatever it has buffered.
+ */
+public interface RecordSink<T> extends Closeable {
+
+	void accept(T record) throws IOException;
+
+	void commit() throws IOException;
+
+	/**
+	 * Number of bytes of output produced so far, before any compression of the
+	 * upload; exact once committed. Sinks that produce no bytes of their own
+	 * return 0.
+	 */
+	default long getBytesWritten() {
+		return 0;
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import java.util.Iterator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibm.scis.utils.ServiceUtil;
+
+/**
+ * Pull-based supplier of input records; {@link #next()} returns {@code null} once
+ * the input is exhausted.
+ */
+@FunctionalInterface
+public interface RecordSource {
+
+	JsonNode next() throws IOException;
+
+	static RecordSource of(JsonNode jsonArray) {
+		Iterator<JsonNode> elements = jsonArray.elements();
+		return () -> elements.hasNext() ? elements.next() : null;
+	}
+
+	static RecordSource of(ObjectMapper objectMapper, JsonParser arrayParser) {
+		return () -> ServiceUtil.nextArrayElement(objectMapper, arrayParser);
+	}
+}
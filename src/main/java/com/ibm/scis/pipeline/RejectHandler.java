@@ -0,0 +1,19 @@
+package com.ibm.scis.pipeline;
+
+import java.io.IOException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.scis.exception.ProcessingException;
+
+/**
+ * Receives the records a {@link RecordMapper} rejected, in input order, when a
+ * conversion keeps going past invalid records.
+ */
+@FunctionalInterface
+public interface RejectHandler {
+
+	/**
+	 * @param recordIndex zero-based position of the record in the input
+	 */
+	void reject(long recordIndex, JsonNode record, ProcessingException cause) throws IOException;
+
+}
@@ -0,0 +1,23 @@
+package com.ibm.scis.pipeline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.scis.exception.ProcessingException;
+
+/**
+ * Raised by {@link ChunkedRecordProcessor} for the first record, in input order,
+ * that its mapper rejected.
+ */
+@SuppressWarnings("serial")
+public class RejectedRecordException extends Exception {
+
+	private final transient JsonNode record;
+
+	public RejectedRecordException(JsonNode record, ProcessingException cause) {
+		super(cause.getMessage(), cause);
+		this.record = record;
+	}
+
+	public JsonNode getRecord() {
+		return record;
+	}
+}
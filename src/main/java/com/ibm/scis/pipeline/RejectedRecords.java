@@ -0,0 +1,58 @@
+package com.ibm.scis.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import org.apache.commons.csv.CSVFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ibm.scis.exception.ProcessingException;
+
+/**
+ * Rejects file of one conversion run: one CSV row per rejected record with its
+ * index in the input, the violation messages and the record itself. The file
+ * is only published when at least one record was rejected.
+ */
+public class RejectedRecords implements RejectHandler, Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(RejectedRecords.class);
+
+	static final CSVFormat REJECTS_CSV_FORMAT = CSVFormat.DEFAULT.withHeader("record_index", "violations",
+			"record");
+
+	private final String cosKey;
+	private final RecordSink<String[]> sink;
+	private long count;
+
+	RejectedRecords(String cosKey, RecordSink<String[]> sink) {
+		this.cosKey = cosKey;
+		this.sink = sink;
+	}
+
+	@Override
+	public void reject(long recordIndex, JsonNode record, ProcessingException cause) throws IOException {
+		logger.warn("Rejected record {}: {}", recordIndex, cause.getMessage());
+		sink.accept(new String[] { Long.toString(recordIndex), cause.getMessage(), record.toString() });
+		count++;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public String getCosKey() {
+		return cosKey;
+	}
+
+	/** Publishes the rejects file if anything was rejected. */
+	public void commit() throws IOException {
+		if (count > 0) {
+			sink.commit();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		sink.close();
+	}
+}
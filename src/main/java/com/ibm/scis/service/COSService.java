@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import com.ibm.scis.model.FolderSummary;
 
 public interface COSService {
 
@@ -17,9 +19,18 @@ public interface COSService {
 
 	public Set<String> checkRequiredJsonFiles();
 
+	/**
+	 * Lists the import files the scheduler converts, keyed by object key, with the
+	 * listing metadata (ETag, size, last-modified) of each.
+	 */
+	public Map<String, S3ObjectSummary> listRequiredJsonObjects();
+
 	public List<String> getAllDataFromBucket(String bucketName);
 
 	public void deleteFolder(String bucketName, String folderName);
 
 	public Map<String, List<Map<String, Object>>> getFilesInFolders(String bucketName, List<String> folderKeys);
+
+	/** Counts the files directly inside each folder, with their total size and newest timestamp. */
+	public Map<String, FolderSummary> summarizeFolders(String bucketName, List<String> folderKeys);
 }
@@ -0,0 +1,37 @@
+package com.ibm.scis.service;
+
+import java.io.IOException;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ConversionResponse;
+
+/**
+ * Routes a conversion job to the converter for its input file. The REST
+ * endpoints and the scheduled tasks both submit jobs here, so scheduled work
+ * runs in-process instead of calling back into the application over HTTP.
+ */
+public interface ConversionDispatcher {
+
+	/**
+	 * Converts an import file (product, organization, compliance or the latest
+	 * product supplier file) to CSV. Unknown file names produce an unsuccessful
+	 * response rather than an exception.
+	 */
+	ConversionResponse convertJsonToCsv(String jsonFileName) throws IOException, ProcessingException;
+
+	/** Converts a Ford {@code pcf_gec} file to the Flex format. */
+	ConversionResponse fetchAndConvertJson(String jsonFileName) throws IOException, ProcessingException;
+
+	/**
+	 * Converts any input file: Ford files as {@link #fetchAndConvertJson}, all
+	 * others as {@link #convertJsonToCsv}.
+	 */
+	ConversionResponse convert(String jsonFileName) throws IOException, ProcessingException;
+
+	/**
+	 * Returns the key of the file a conversion of {@code jsonFileName} reads:
+	 * the latest product supplier file for any product supplier name, or
+	 * {@code null} when there is none; {@code jsonFileName} itself otherwise.
+	 */
+	String inputFileFor(String jsonFileName);
+
+}
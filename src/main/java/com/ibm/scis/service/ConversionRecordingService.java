@@ -0,0 +1,24 @@
+package com.ibm.scis.service;
+
+import java.io.IOException;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ConversionRecording;
+
+/**
+ * Runs one conversion under a Java Flight Recorder recording, so the profile of
+ * a specific slow file can be looked at in JMC.
+ */
+public interface ConversionRecordingService {
+
+	/**
+	 * Converts {@code jsonFileName} as {@link ConversionDispatcher} would, with a
+	 * recording running from just before to just after the run. The recording is
+	 * JVM-wide: work running at the same time, such as a scheduled cycle, is in it
+	 * too, and the {@code com.ibm.scis.Conversion} event marks the requested run.
+	 *
+	 * @return the response and the recording file, which the caller deletes; or
+	 *         {@code null} when another conversion is being recorded
+	 */
+	ConversionRecording recordConversion(String jsonFileName) throws IOException, ProcessingException;
+
+}
@@ -7,7 +7,10 @@ import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
 import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
 import com.ibm.cloud.objectstorage.services.s3.model.ObjectListing;
 import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import com.ibm.scis.model.FolderSummary;
 import com.ibm.scis.service.COSService;
+import com.ibm.scis.utils.ConcurrentPrefixLister;
+import com.ibm.scis.utils.CosBucketIndex;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,12 +48,28 @@ public class COSServiceImpl implements COSService {
 
 	@Autowired
 	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CosBucketIndex bucketIndex;
+
+	@Autowired
+	private ConcurrentPrefixLister prefixLister;
 	
 	@Override
 	public List<String> getAllDataFromBucket(String bucketNameflex) {
 	    List<String> dataList = new ArrayList<>();
 	    int objectCount = 0;
 
+	    if (bucketIndex.covers(bucketNameflex)) {
+	        try {
+	            dataList.addAll(bucketIndex.listKeys());
+	        } catch (Exception e) {
+	            logger.error("Error listing objects in bucket: {}", bucketNameflex, e);
+	        }
+	        logger.info("Total number of objects in bucket: {}", dataList.size());
+	        return dataList;
+	    }
+
 	    try {
 	        ObjectListing objectListing = cosClient.listObjects(bucketNameflex);
 
@@ -86,51 +105,12 @@ public class COSServiceImpl implements COSService {
 
 	@Override
 	public Map<String, List<Map<String, Object>>> getFilesInFolders(List<String> folderKeys) {
-		Map<String, List<Map<String, Object>>> folderFiles = new HashMap<>();
-
-		for (String folderKey : folderKeys) {
-			ListObjectsV2Request listObjectsV2Request = new ListObjectsV2Request().withBucketName(bucketNameflex)
-					.withPrefix(folderKey).withDelimiter("/");
-
-			ListObjectsV2Result result;
-			List<Map<String, Object>> fileInfos = new ArrayList<>();
-
-			do {
-				result = cosClient.listObjectsV2(listObjectsV2Request);
-				for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
-					String fileName = objectSummary.getKey();
-					Date creationTime = cosClient.getObjectMetadata(bucketNameflex, fileName).getLastModified();
-
-					Map<String, Object> fileInfo = new HashMap<>();
-					fileInfo.put("fileName", fileName);
-					fileInfo.put("creationTime", creationTime);
-
-					fileInfos.add(fileInfo);
-				}
-				listObjectsV2Request.setContinuationToken(result.getNextContinuationToken());
-			} while (result.isTruncated());
-
-			folderFiles.put(folderKey, fileInfos);
-		}
-
-		return folderFiles;
+		return getFilesInFolders(bucketNameflex, folderKeys);
 	}
 
 	@Override
 	public List<String> listAllFolders() {
-		List<String> folders = new ArrayList<>();
-		ListObjectsV2Request listObjectsV2Request = new ListObjectsV2Request().withBucketName(bucketNameflex)
-				.withDelimiter("/");
-
-		ListObjectsV2Result result;
-
-		do {
-			result = cosClient.listObjectsV2(listObjectsV2Request);
-			folders.addAll(result.getCommonPrefixes());
-			listObjectsV2Request.setContinuationToken(result.getNextContinuationToken());
-		} while (result.isTruncated());
-
-		return folders;
+		return bucketIndex.listSubFolders("");
 	}
 
 	@Override
@@ -168,25 +148,20 @@ public class COSServiceImpl implements COSService {
 
 	@Override
 	public List<String> listFiles() {
-		List<String> fileList = new ArrayList<>();
 		try {
-			ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketNameflex);
-			ListObjectsV2Result result;
-
-			do {
-				result = cosClient.listObjectsV2(req);
-				for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
-					fileList.add(objectSummary.getKey());
-				}
-				req.setContinuationToken(result.getNextContinuationToken());
-			} while (result.isTruncated());
+			return bucketIndex.listKeys();
 		} catch (Exception e) {
 			logger.error("Error listing objects in bucket: {}", bucketNameflex, e);
+			return new ArrayList<>();
 		}
-		return fileList;
 	}
 
 	public Set<String> checkRequiredJsonFiles() {
+		return new HashSet<>(listRequiredJsonObjects().keySet());
+	}
+
+	@Override
+	public Map<String, S3ObjectSummary> listRequiredJsonObjects() {
 		logger.info("Checking for required JSON files in COS bucket");
 
 		Set<String> requiredPrefixes = new HashSet<>();
@@ -195,32 +170,23 @@ public class COSServiceImpl implements COSService {
 		requiredPrefixes.add("ProductSupplier_");
 		requiredPrefixes.add("Organization");
 
-		Set<String> foundFiles = new HashSet<>();
-		ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketNameflex);
-		ListObjectsV2Result result;
+		Map<String, S3ObjectSummary> foundObjects = new LinkedHashMap<>();
+		for (S3ObjectSummary summary : bucketIndex.list("")) {
+			String key = summary.getKey();
 
-		do {
-			result = cosClient.listObjectsV2(req);
-
-			for (S3ObjectSummary summary : result.getObjectSummaries()) {
-				String key = summary.getKey();
-
-				if (key.startsWith("dead-files/")) {
-					continue;
-				}
-				for (String prefix : requiredPrefixes) {
-					if (key.contains(prefix) && key.endsWith(".json")) {
-						foundFiles.add(key);
-						break;
-					}
+			if (key.startsWith("dead-files/")) {
+				continue;
+			}
+			for (String prefix : requiredPrefixes) {
+				if (key.contains(prefix) && key.endsWith(".json")) {
+					foundObjects.put(key, summary);
+					break;
 				}
 			}
+		}
 
-			req.setContinuationToken(result.getNextContinuationToken());
-		} while (result.isTruncated());
-
-		logger.info("Required JSON files found: {}", foundFiles);
-		return foundFiles;
+		logger.info("Required JSON files found: {}", foundObjects.keySet());
+		return foundObjects;
 	}
 	
 	
@@ -245,41 +211,48 @@ public class COSServiceImpl implements COSService {
 	        DeleteObjectsRequest deleteObjectsRequest = new DeleteObjectsRequest(bucketNameflex).withKeys(keys)
 	                .withQuiet(true);
 	        cosClient.deleteObjects(deleteObjectsRequest);
+	        for (DeleteObjectsRequest.KeyVersion key : keys) {
+	            bucketIndex.recordDelete(bucketNameflex, key.getKey());
+	        }
 	    }
 	}
 
 
-    @Override
-	 public Map<String, List<Map<String, Object>>> getFilesInFolders(String bucketNameflex, List<String> folderKeys) {
-	        Map<String, List<Map<String, Object>>> folderFiles = new HashMap<>();
-
-	        for (String folderKey : folderKeys) {
-	            ListObjectsV2Request listObjectsV2Request = new ListObjectsV2Request().withBucketName(bucketNameflex)
-	                    .withPrefix(folderKey).withDelimiter("/");
-
-	            ListObjectsV2Result result;
-	            List<Map<String, Object>> fileInfos = new ArrayList<>();
-
-	            do {
-	                result = cosClient.listObjectsV2(listObjectsV2Request);
-	                for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
-	                    String fileName = objectSummary.getKey();
-	                    Date creationTime = cosClient.getObjectMetadata(bucketNameflex, fileName).getLastModified();
-
-	                    Map<String, Object> fileInfo = new HashMap<>();
-	                    fileInfo.put("fileName", fileName);
-	                    fileInfo.put("creationTime", creationTime);
-
-	                    fileInfos.add(fileInfo);
-	                }
-	                listObjectsV2Request.setContinuationToken(result.getNextContinuationToken());
-	            } while (result.isTruncated());
-
-	            folderFiles.put(folderKey, fileInfos);
-	        }
-
-	        return folderFiles;
-	    }
-
+	/**
+	 * Lists the folders concurrently and takes each file's creation time from the
+	 * listing itself, so no per-object metadata request is made.
+	 */
+	@Override
+	public Map<String, List<Map<String, Object>>> getFilesInFolders(String bucketNameflex, List<String> folderKeys) {
+		Map<String, List<Map<String, Object>>> folderFiles = new HashMap<>();
+		prefixLister.listFolders(bucketNameflex, folderKeys).forEach((folderKey, summaries) -> {
+			List<Map<String, Object>> fileInfos = new ArrayList<>(summaries.size());
+			for (S3ObjectSummary objectSummary : summaries) {
+				Map<String, Object> fileInfo = new HashMap<>();
+				fileInfo.put("fileName", objectSummary.getKey());
+				fileInfo.put("creationTime", objectSummary.getLastModified());
+				fileInfos.add(fileInfo);
+			}
+			folderFiles.put(folderKey, fileInfos);
+		});
+		return folderFiles;
+	}
 
+	@Override
+	public Map<String, FolderSummary> summarizeFolders(String bucketName, List<String> folderKeys) {
+		Map<String, FolderSummary> summaries = new HashMap<>();
+		prefixLister.listFolders(bucketName, folderKeys).forEach((folderKey, objects) -> {
+			long totalBytes = 0;
+			Date lastModified = null;
+			for (S3ObjectSummary objectSummary : objects) {
+				totalBytes += objectSummary.getSize();
+				Date modified = objectSummary.getLastModified();
+				if (modified != null && (lastModified == null || modified.after(lastModified))) {
+					lastModified = modified;
+				}
+			}
+			summaries.put(folderKey, new FolderSummary(objects.size(), totalBytes, lastModified));
+		});
+		return summaries;
+	}
 }
@@ -1,19 +1,33 @@
 package com.ibm.scis.serviceImpl;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.scis.model.ComplianceRecordDTO;
 import com.ibm.scis.model.ConversionResponse;
 import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
 import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
-import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectInputStream;
-import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
 import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.metrics.ConversionMetrics;
+import com.ibm.scis.metrics.ConversionStage;
+import com.ibm.scis.metrics.ConversionTimer;
+import com.ibm.scis.pipeline.ChunkedRecordProcessor;
+import com.ibm.scis.pipeline.CsvSinkFactory;
+import com.ibm.scis.pipeline.DeltaOutput;
+import com.ibm.scis.pipeline.DeltaSink;
+import com.ibm.scis.pipeline.FanOutSink;
+import com.ibm.scis.pipeline.RecordSink;
+import com.ibm.scis.pipeline.RecordQuarantine;
+import com.ibm.scis.pipeline.RecordSource;
+import com.ibm.scis.pipeline.RejectedRecordException;
+import com.ibm.scis.pipeline.RejectedRecords;
 import com.ibm.scis.service.ComplianceRecordService;
+import com.ibm.scis.utils.AdditionalInfoIndex;
+import com.ibm.scis.utils.CountryCodes;
+import com.ibm.scis.utils.FieldFormats;
 import com.ibm.scis.utils.ServiceUtil;
-import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
-import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
-import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
+import com.ibm.scis.validation.CompiledValidator;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.slf4j.Logger;
@@ -21,117 +35,272 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.text.DecimalFormat;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class ComplianceRecordServiceImpl implements ComplianceRecordService {
 
 	private static final Logger logger = LoggerFactory.getLogger(OrganizationServiceImpl.class);
+	private static final String FILE_TYPE = "compliance";
 	private final ObjectMapper objectMapper;
-	private final Validator validator;
+	private final CompiledValidator<ComplianceRecordDTO> validator;
 	private static final String START_TIME_COMPONENT = "T00:00:00.000000";
 	private static final String END_TIME_COMPONENT = "T23:59:59.999999";
+	private static final CSVFormat PCF_CSV_FORMAT = CSVFormat.DEFAULT.withHeader("material_number", "pcf_id",
+				"preceding_pcf_id", "specversion", "partialfullpcf", "version", "created", "status",
+				"validityperiodstart", "validityperiodend", "comment", "pcflegalstatement", "declared_unit",
+				"unitary_product_amount", "product_mass_per_declared_unit", "exempted_emissions_percent",
+				"exempted_emissions_description", "packaging_emissions_included",
+				"geography_country_subdivision", "geography_country", "geography_region_or_subregion",
+				"boundary_processes_description", "reference_period_start", "reference_period_end",
+				"characterization_factors", "allocation_rules_description", "allocation_waste_incineration",
+				"primary_data_share", "coverage_percent", "technological_dqr", "temporal_dqr",
+				"geographical_dqr", "completeness_dqr", "reliability_dqr", "pcf_excluding_biogenic",
+				"pcf_including_biogenic", "fossil_ghg_emissions", "biogenic_carbon_emissions_other_than_co2",
+				"biogenic_carbon_withdrawal", "dluc_ghg_emissions", "lu_ghg_emissions",
+				"aircraft_ghg_emissions", "packaging_ghg_emissions", "distribution_pcf_excluding_biogenic",
+				"distribution_pcf_including_biogenic", "distribution_fossil_ghg_emissions",
+				"distribution_biogenic_carbon_emissions_other_than_co2",
+				"distribution_biogenic_carbon_withdrawal", "distribution_dluc_ghg_emissions",
+				"distribution_lu_ghg_emissions", "distribution_aircraftghg_emissions", "carbon_content_total",
+				"fossil_carbon_content", "biogenic_carbon_content");
+	private static final CSVFormat PCF_STANDARD_CSV_FORMAT = CSVFormat.DEFAULT.withHeader("pcf_id",
+			"cross_sectoral_standard");
+	private static final CSVFormat PCF_DELTA_CSV_FORMAT = withChangeColumn(PCF_CSV_FORMAT);
+	private static final CSVFormat PCF_STANDARD_DELTA_CSV_FORMAT = withChangeColumn(PCF_STANDARD_CSV_FORMAT);
+	/** Columns stamped with the time of the run, which do not make a record changed. */
+	private static final int[] RUN_STAMPED_PCF_COLUMNS = columnIndexes(PCF_CSV_FORMAT, "created",
+			"validityperiodstart", "validityperiodend");
+	private static final String FINGERPRINT_JOURNAL = "complianceFingerprints";
 	private final AmazonS3 cosClient;
 
 	@Autowired
 	private ServiceUtil serviceUtil;
 
+	@Autowired
+	private ChunkedRecordProcessor recordProcessor;
+
+	@Autowired
+	private CsvSinkFactory csvSinks;
+
+	@Autowired
+	private RecordQuarantine recordQuarantine;
+
+	@Autowired
+	private ConversionMetrics conversionMetrics;
+
+	@Autowired
+	private DeltaOutput deltaOutput;
+
 	LocalDateTime now = LocalDateTime.now();
-	DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+	private final String createdTimestamp = FieldFormats.formatDateTime(now);
+	private final String validityEndTimestamp = FieldFormats.formatDateTime(now.plusMonths(12));
 
 	@Value("${ibm.cos.bucket.flex}")
 	private String bucketName;
 
+	@Value("${ibm.scis.compliance.streaming-ingestion:false}")
+	private boolean streamingIngestion;
+
 	public ComplianceRecordServiceImpl(ObjectMapper objectMapper, AmazonS3 cosClient) {
 		this.objectMapper = objectMapper;
-		ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-		this.validator = factory.getValidator();
+		this.validator = CompiledValidator.forClass(ComplianceRecordDTO.class);
 		this.cosClient = cosClient;
 	}
 
 	@Override
 	public ConversionResponse convertJsonToCsv(String jsonFileName, File outputDir)
 			throws IOException, ProcessingException {
+		ConversionTimer timer = conversionMetrics.start(FILE_TYPE, jsonFileName);
+		ConversionResponse response = null;
+		try {
+			response = convert(jsonFileName, timer);
+			return response;
+		} finally {
+			conversionMetrics.finish(timer, response);
+		}
+	}
+
+	private ConversionResponse convert(String jsonFileName, ConversionTimer timer) throws IOException {
 		logger.info("Starting JSON to CSV conversion for file: {}", jsonFileName);
+		String inputKey = "import/" + jsonFileName;
 
 		try {
 
-			S3Object s3Object = serviceUtil.fetchJsonFromCos(cosClient, bucketName, "import/" + jsonFileName);
+			long start = timer.start();
+			S3Object s3Object = ServiceUtil.fetchJsonFromCos(cosClient, bucketName, inputKey);
+			timer.addBytesIn(s3Object.getObjectMetadata().getContentLength());
 			InputStream cosJsonInputStream = s3Object.getObjectContent();
-			String jsonData = serviceUtil.readJsonData(cosJsonInputStream);
+			if (streamingIngestion) {
+				timer.stop(ConversionStage.FETCH, start);
+				return convertJsonStreamToCsv(cosJsonInputStream, inputKey, timer);
+			}
+			String jsonData = ServiceUtil.readJsonData(cosJsonInputStream);
+			start = timer.stop(ConversionStage.FETCH, start);
 
 			JsonNode jsonTree;
 			try {
 				jsonTree = objectMapper.readTree(jsonData);
 			} catch (IOException e) {
 				logger.error("Failed to parse JSON data: {}", jsonData, e);
-				moveToDeadFolder("/import/partners/Compliance.json");
+				moveToDeadFolder(inputKey);
 				return new ConversionResponse(false, "Failed to parse JSON data: " + e.getMessage());
 			}
+			timer.stop(ConversionStage.PARSE, start);
 
 			if (!jsonTree.isArray()) {
 				logger.error("JSON input is not an array: {}", jsonData);
-				moveToDeadFolder("/import/partners/Compliance.json");
+				moveToDeadFolder(inputKey);
+				return new ConversionResponse(false, "JSON input is not an array.");
+			}
+
+			return writeCsvOutputs(RecordSource.of(jsonTree), inputKey, timer);
+		} catch (IOException e) {
+			logger.error("IOException occurred: ", e);
+			moveToDeadFolder(inputKey);
+			return new ConversionResponse(false, "IOException occurred: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the compliance array one element at a time instead of materialising the
+	 * payload, so memory depends on the largest record rather than on the file.
+	 * Reading the body is then timed as part of the parse stage.
+	 */
+	private ConversionResponse convertJsonStreamToCsv(InputStream cosJsonInputStream, String inputKey,
+			ConversionTimer timer) throws IOException {
+		try (InputStream inputStream = cosJsonInputStream;
+				JsonParser parser = ServiceUtil.createArrayParser(objectMapper, inputStream)) {
+			if (parser == null) {
+				logger.error("JSON input is not an array");
+				moveToDeadFolder(inputKey);
 				return new ConversionResponse(false, "JSON input is not an array.");
 			}
+			return writeCsvOutputs(timer.timed(RecordSource.of(objectMapper, parser)), inputKey, timer);
+		} catch (JsonProcessingException e) {
+			logger.error("Failed to parse JSON data: {}", e.getOriginalMessage(), e);
+			moveToDeadFolder(inputKey);
+			return new ConversionResponse(false, "Failed to parse JSON data: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Maps and validates each record exactly once and fans it out to every CSV
+	 * output. Outputs are only published when all records are valid, or, in
+	 * quarantine mode, when at least one is.
+	 */
+	private ConversionResponse writeCsvOutputs(RecordSource records, String inputKey, ConversionTimer timer)
+			throws IOException {
+		try (RecordSink<ComplianceRecordDTO> outputs = timer.timed(createOutputSinks());
+				RejectedRecords rejects = recordQuarantine.open(cosClient, bucketName, inputKey)) {
+			long accepted;
+			try {
+				accepted = recordProcessor.process(records,
+						timer.reportingRejects(record -> createValidatedRecord(record, timer)), outputs, rejects);
+			} catch (RejectedRecordException e) {
+				logger.error("Invalid JSON node: {}", e.getRecord().toString());
+				moveToDeadFolder(inputKey);
+				return new ConversionResponse(false, "Invalid JSON data: " + e.getMessage());
+			}
+			ConversionResponse response = recordQuarantine.complete(outputs, accepted, rejects);
+			if (!response.isSuccess()) {
+				moveToDeadFolder(inputKey);
+			}
+			return response;
+		}
+	}
 
-			for (JsonNode node : jsonTree) {
-				try {
-					ComplianceRecordDTO complianceRecordDTO = createComplianceRecordDTO(node);
-					validateDTO(complianceRecordDTO);
-				} catch (ProcessingException e) {
+	private ComplianceRecordDTO createValidatedRecord(JsonNode node, ConversionTimer timer)
+			throws ProcessingException {
+		long start = timer.start();
+		ComplianceRecordDTO complianceRecordDTO = createComplianceRecordDTO(node);
+		start = timer.stop(ConversionStage.MAP, start);
+		validateDTO(complianceRecordDTO);
+		timer.stop(ConversionStage.VALIDATE, start);
+		return complianceRecordDTO;
+	}
 
-					logger.error("Invalid JSON node: {}", node.toString());
-					moveToDeadFolder("/import/partners/Compliance.json");
-					return new ConversionResponse(false, "Invalid JSON data: " + e.getMessage());
-				}
+	/**
+	 * Opens the full PCF and PCF Standard outputs and, when delta outputs are
+	 * enabled, their deltas against the last run, keyed by material number and
+	 * PCF id.
+	 */
+	private RecordSink<ComplianceRecordDTO> createOutputSinks() throws IOException {
+		if (!deltaOutput.isEnabled()) {
+			return createSnapshotSinks();
+		}
+		RecordSink<DeltaSink.Change<ComplianceRecordDTO>> changes = createDeltaSinks();
+		RecordSink<ComplianceRecordDTO> snapshot = null;
+		if (deltaOutput.isSnapshotWritten()) {
+			try {
+				snapshot = createSnapshotSinks();
+			} catch (IOException e) {
+				changes.close();
+				throw e;
 			}
+		}
+		return deltaOutput.open(FINGERPRINT_JOURNAL, snapshot,
+				record -> DeltaSink.key(convertNullToString(record.getMaterialNumber()),
+						convertNullToString(record.getPcfId())),
+				this::fingerprint, changes);
+	}
 
-			convertToPcfCsv(jsonTree);
-			convertToPcfStandardCsv(jsonTree);
-			return new ConversionResponse(true, "Conversion successful. CSV uploaded");
+	private RecordSink<DeltaSink.Change<ComplianceRecordDTO>> createDeltaSinks() throws IOException {
+		RecordSink<DeltaSink.Change<ComplianceRecordDTO>> pcfSink = csvSinks.open(bucketName,
+				"upload/pcf-delta/PCF Delta.csv", "PCF Delta", PCF_DELTA_CSV_FORMAT, this::printPcfChange,
+				csvFile -> serviceUtil.uploadFileToCos(cosClient, bucketName, "upload/pcf-delta/PCF Delta.csv",
+						csvFile));
+		try {
+			return new FanOutSink<>(List.of(pcfSink,
+					csvSinks.open(bucketName, "upload/pcf-standard-delta/PCF Standard Delta.csv",
+							"PCF Standard Delta", PCF_STANDARD_DELTA_CSV_FORMAT, this::printPcfStandardChange,
+							csvFile -> serviceUtil.uploadFileToCos(cosClient, bucketName,
+									"upload/pcf-standard-delta/PCF Standard Delta.csv", csvFile))));
 		} catch (IOException e) {
-			logger.error("IOException occurred: ", e);
-			moveToDeadFolder("/import/partners/Compliance.json");
-			return new ConversionResponse(false, "IOException occurred: " + e.getMessage());
+			pcfSink.close();
+			throw e;
+		}
+	}
+
+	private RecordSink<ComplianceRecordDTO> createSnapshotSinks() throws IOException {
+		RecordSink<ComplianceRecordDTO> pcfSink = csvSinks.open(bucketName, "upload/pcf/PCF.csv", "PCF",
+				PCF_CSV_FORMAT, this::printPcfRecord, csvFile -> publishCsv(csvFile, "upload/pcf/PCF.csv", "PCF.csv"));
+		try {
+			return new FanOutSink<>(List.of(pcfSink,
+					csvSinks.open(bucketName, "upload/pcf-standard/PCF Standard.csv", "PCF Standard",
+							PCF_STANDARD_CSV_FORMAT, this::printPcfStandardRecord,
+							csvFile -> publishCsv(csvFile, "upload/pcf-standard/PCF Standard.csv",
+									"PCF Standard.csv"))));
+		} catch (IOException e) {
+			pcfSink.close();
+			throw e;
 		}
 	}
 
 	private ComplianceRecordDTO createComplianceRecordDTO(JsonNode node) throws ProcessingException {
 		ComplianceRecordDTO complianceRecordDTO = new ComplianceRecordDTO();
-		complianceRecordDTO.setMaterialNumber(getNodeText(node, "product.partNumber", true));
+		AdditionalInfoIndex additionalInfo = AdditionalInfoIndex.of(node);
+		complianceRecordDTO.setMaterialNumber(ServiceUtil.getNodeText(node, "product.partNumber", true));
 		//complianceRecordDTO.setPcfId(validateAndConvertToUUID(getNodeText(node, "id", true)));
-		complianceRecordDTO.setPcfId(getNodeText(node, "id", true));
-		complianceRecordDTO.setPrecedingPcfId(getNodeText(node, "precedingPcfId", false));
-		complianceRecordDTO.setSpecVersion(getAdditionalInfoValue(node, "specVersion"));
-		String partialFullPcf = getAdditionalInfoValue(node, "partialfullpcf");
+		complianceRecordDTO.setPcfId(ServiceUtil.getNodeText(node, "id", true));
+		complianceRecordDTO.setPrecedingPcfId(ServiceUtil.getNodeText(node, "precedingPcfId", false));
+		complianceRecordDTO.setSpecVersion(additionalInfo.get("specVersion"));
+		String partialFullPcf = additionalInfo.get("partialfullpcf");
 		if (!"Cradle-to-gate".equals(partialFullPcf) && !"Cradle-to-grave".equals(partialFullPcf)) {
 			partialFullPcf = "Cradle-to-gate";
 		}
 		complianceRecordDTO.setPartialFullPcf(partialFullPcf);
-		String versionStr = getAdditionalInfoValue(node, "version");
+		String versionStr = additionalInfo.get("version");
 		int version;
 		if (versionStr != null && !versionStr.isEmpty()) {
 			try {
@@ -140,78 +309,75 @@ public class ComplianceRecordServiceImpl implements ComplianceRecordService {
 			} catch (NumberFormatException e) {
 			}
 		}
-		complianceRecordDTO.setCreated(now.format(formatter));
-		String validityStart = now.format(formatter);
-		complianceRecordDTO.setValidityPeriodStart(validityStart);
-
-		String validityEnd = now.plusMonths(12).format(formatter);
-		complianceRecordDTO.setValidityPeriodEnd(validityEnd);
-
-		complianceRecordDTO.setStatus(getNodeText(node, "status", true));
-		complianceRecordDTO.setComment(getNodeText(node, "comment", false));
-		complianceRecordDTO.setPcfLegalStatement(getNodeText(node, "pcfLegalStatement", false));
-		complianceRecordDTO.setDeclaredUnit(getAdditionalInfoValue(node, "declaredUnit"));
-		String unitaryProductAmountStr = getAdditionalInfoValue(node, "unitaryProductAmount");
-		unitaryProductAmountStr = formatDecimalValue(unitaryProductAmountStr);
+		complianceRecordDTO.setCreated(createdTimestamp);
+		complianceRecordDTO.setValidityPeriodStart(createdTimestamp);
+		complianceRecordDTO.setValidityPeriodEnd(validityEndTimestamp);
+
+		complianceRecordDTO.setStatus(ServiceUtil.getNodeText(node, "status", true));
+		complianceRecordDTO.setComment(ServiceUtil.getNodeText(node, "comment", false));
+		complianceRecordDTO.setPcfLegalStatement(ServiceUtil.getNodeText(node, "pcfLegalStatement", false));
+		complianceRecordDTO.setDeclaredUnit(additionalInfo.get("declaredUnit"));
+		String unitaryProductAmountStr = additionalInfo.get("unitaryProductAmount");
+		unitaryProductAmountStr = FieldFormats.formatOneDecimal(unitaryProductAmountStr);
 		complianceRecordDTO.setUnitaryProductAmount(unitaryProductAmountStr);
-		String productMassPerDeclaredUnitStr = getNodeText(node, "product.measurementUnit", true);
-		productMassPerDeclaredUnitStr = formatDecimalValue(productMassPerDeclaredUnitStr);
+		String productMassPerDeclaredUnitStr = ServiceUtil.getNodeText(node, "product.measurementUnit", true);
+		productMassPerDeclaredUnitStr = FieldFormats.formatOneDecimal(productMassPerDeclaredUnitStr);
 		complianceRecordDTO.setProductMassPerDeclaredUnit(productMassPerDeclaredUnitStr);
-		complianceRecordDTO.setExemptedEmissionsPercent(getAdditionalInfoValue(node, "exemptedEmissionsPercent"));
-		complianceRecordDTO
-				.setExemptedEmissionsDescription(getAdditionalInfoValue(node, "exemptedEmissionsDescription"));
-		complianceRecordDTO.setPackagingEmissionsIncluded(getAdditionalInfoValue(node, "packagingEmissionsIncluded"));
-		complianceRecordDTO
-				.setGeographyCountrySubdivision(getNodeText(node, "customAttributes.countrySubDivisionString", false));
-		String geographyCountry = getNodeText(node, "location.country", false);
-		complianceRecordDTO.setGeographyCountry(convertCountryCode(geographyCountry));
-		complianceRecordDTO.setGeographyRegionOrSubregion(getNodeText(node, "location.geo", true));
-		complianceRecordDTO.setBoundaryProcessesDescription(getAdditionalInfoValue(node, "boundaryProcessDescription"));
-
+		complianceRecordDTO.setExemptedEmissionsPercent(additionalInfo.get("exemptedEmissionsPercent"));
 		complianceRecordDTO
-				.setReferencePeriodStart(formatDateTime(getAdditionalInfoValue(node, "referencePeriodStart"), true));
-		complianceRecordDTO
-				.setReferencePeriodEnd(formatDateTime(getAdditionalInfoValue(node, "referencePeriodEnd"), false));
+				.setExemptedEmissionsDescription(additionalInfo.get("exemptedEmissionsDescription"));
+		complianceRecordDTO.setPackagingEmissionsIncluded(additionalInfo.get("packagingEmissionsIncluded"));
+		complianceRecordDTO.setGeographyCountrySubdivision(
+				ServiceUtil.getNodeText(node, "customAttributes.countrySubDivisionString", false));
+		String geographyCountry = ServiceUtil.getNodeText(node, "location.country", false);
+		complianceRecordDTO.setGeographyCountry(CountryCodes.toIso2(geographyCountry));
+		complianceRecordDTO.setGeographyRegionOrSubregion(ServiceUtil.getNodeText(node, "location.geo", true));
+		complianceRecordDTO.setBoundaryProcessesDescription(additionalInfo.get("boundaryProcessDescription"));
+
+		complianceRecordDTO.setReferencePeriodStart(
+				FieldFormats.formatDayBoundary(additionalInfo.get("referencePeriodStart"), true));
+		complianceRecordDTO.setReferencePeriodEnd(
+				FieldFormats.formatDayBoundary(additionalInfo.get("referencePeriodEnd"), false));
 		complianceRecordDTO.setCharacterizationFactors(
-				validateCharacterizationFactors(getAdditionalInfoValue(node, "characterizationFactors")));
-		complianceRecordDTO.setAllocationRulesDescription(getAdditionalInfoValue(node, "allocationRulesDescription"));
+				validateCharacterizationFactors(additionalInfo.get("characterizationFactors")));
+		complianceRecordDTO.setAllocationRulesDescription(additionalInfo.get("allocationRulesDescription"));
 		complianceRecordDTO.setAllocationWasteIncineration(
-				validateAllocationWasteIncineration(getAdditionalInfoValue(node, "allocationWasteIncineration")));
-		complianceRecordDTO.setPrimaryDataShare(getNodeText(node, "scorePrimaryDataRatio", false));
-		complianceRecordDTO.setCoveragePercent(getNodeText(node, "coveragePercent", false));
-		complianceRecordDTO.setTechnologicalDqr(getNodeText(node, "technologicalDqr", false));
-		complianceRecordDTO.setTemporalDqr(getNodeText(node, "temporalDqr", false));
-		complianceRecordDTO.setGeographicalDqr(getNodeText(node, "geographicalDqr", false));
-		complianceRecordDTO.setCompletenessDqr(getNodeText(node, "completenessDqr", false));
-		complianceRecordDTO.setReliabilityDqr(getNodeText(node, "reliabilityDqr", false));
-		complianceRecordDTO.setPcfExcludingBiogenic(getAdditionalInfoValue(node, "pcfExcludingBiogenic"));
-		complianceRecordDTO.setPcfIncludingBiogenic(getAdditionalInfoValue(node, "pcfIncludingBiogenic"));
-		complianceRecordDTO.setFossilGhgEmissions(getAdditionalInfoValue(node, "fossilGhgEmissions"));
+				validateAllocationWasteIncineration(additionalInfo.get("allocationWasteIncineration")));
+		complianceRecordDTO.setPrimaryDataShare(ServiceUtil.getNodeText(node, "scorePrimaryDataRatio", false));
+		complianceRecordDTO.setCoveragePercent(ServiceUtil.getNodeText(node, "coveragePercent", false));
+		complianceRecordDTO.setTechnologicalDqr(ServiceUtil.getNodeText(node, "technologicalDqr", false));
+		complianceRecordDTO.setTemporalDqr(ServiceUtil.getNodeText(node, "temporalDqr", false));
+		complianceRecordDTO.setGeographicalDqr(ServiceUtil.getNodeText(node, "geographicalDqr", false));
+		complianceRecordDTO.setCompletenessDqr(ServiceUtil.getNodeText(node, "completenessDqr", false));
+		complianceRecordDTO.setReliabilityDqr(ServiceUtil.getNodeText(node, "reliabilityDqr", false));
+		complianceRecordDTO.setPcfExcludingBiogenic(additionalInfo.get("pcfExcludingBiogenic"));
+		complianceRecordDTO.setPcfIncludingBiogenic(additionalInfo.get("pcfIncludingBiogenic"));
+		complianceRecordDTO.setFossilGhgEmissions(additionalInfo.get("fossilGhgEmissions"));
 		complianceRecordDTO.setBiogenicCarbonEmissionsOtherThanCo2(
-				getAdditionalInfoValue(node, "biogenicCarbonEmissionsOotherThanCo2"));
-		complianceRecordDTO.setBiogenicCarbonWithdrawal(getAdditionalInfoValue(node, "biogenicCarbonWithdrawal"));
-		complianceRecordDTO.setDlucGhgEmissions(getAdditionalInfoValue(node, "dlucGhgEmissions"));
-		complianceRecordDTO.setLuGhgEmissions(getAdditionalInfoValue(node, "luGhgEmissions"));
-		complianceRecordDTO.setAircraftGhgEmissions(getAdditionalInfoValue(node, "aircraftGhgEmissions"));
-		complianceRecordDTO.setPackagingGhgEmissions(getAdditionalInfoValue(node, "packagingGhgEmissions"));
+				additionalInfo.get("biogenicCarbonEmissionsOotherThanCo2"));
+		complianceRecordDTO.setBiogenicCarbonWithdrawal(additionalInfo.get("biogenicCarbonWithdrawal"));
+		complianceRecordDTO.setDlucGhgEmissions(additionalInfo.get("dlucGhgEmissions"));
+		complianceRecordDTO.setLuGhgEmissions(additionalInfo.get("luGhgEmissions"));
+		complianceRecordDTO.setAircraftGhgEmissions(additionalInfo.get("aircraftGhgEmissions"));
+		complianceRecordDTO.setPackagingGhgEmissions(additionalInfo.get("packagingGhgEmissions"));
 		complianceRecordDTO
-				.setDistributionPcfExcludingBiogenic(getAdditionalInfoValue(node, "distributionPcfExcludingIogenic"));
+				.setDistributionPcfExcludingBiogenic(additionalInfo.get("distributionPcfExcludingIogenic"));
 		complianceRecordDTO
-				.setDistributionPcfIncludingBiogenic(getAdditionalInfoValue(node, "distributionPcfIncludingBiogenic"));
+				.setDistributionPcfIncludingBiogenic(additionalInfo.get("distributionPcfIncludingBiogenic"));
 		complianceRecordDTO
-				.setDistributionFossilGhgEmissions(getAdditionalInfoValue(node, "distributionFossilGhgEmissions"));
+				.setDistributionFossilGhgEmissions(additionalInfo.get("distributionFossilGhgEmissions"));
 		complianceRecordDTO.setDistributionBiogenicCarbonEmissionsOtherThanCo2(
-				getAdditionalInfoValue(node, "distributionBiogenicCarbonEmissionsOtherThanCo2"));
+				additionalInfo.get("distributionBiogenicCarbonEmissionsOtherThanCo2"));
 		complianceRecordDTO.setDistributionBiogenicCarbonWithdrawal(
-				getAdditionalInfoValue(node, "distributionBiogenicCarbonWithdrawal"));
+				additionalInfo.get("distributionBiogenicCarbonWithdrawal"));
 		complianceRecordDTO
-				.setDistributionDlucGhgEmissions(getAdditionalInfoValue(node, "distributionDlucGhgEmissions"));
-		complianceRecordDTO.setDistributionLuGhgEmissions(getAdditionalInfoValue(node, "distributionLuGhgEmissions"));
+				.setDistributionDlucGhgEmissions(additionalInfo.get("distributionDlucGhgEmissions"));
+		complianceRecordDTO.setDistributionLuGhgEmissions(additionalInfo.get("distributionLuGhgEmissions"));
 		complianceRecordDTO
-				.setDistributionAircraftGhgEmissions(getAdditionalInfoValue(node, "distributionAircraftGhgEmissions"));
+				.setDistributionAircraftGhgEmissions(additionalInfo.get("distributionAircraftGhgEmissions"));
 
-		String fossilCarbonContent = getAdditionalInfoValue(node, "fossilCarbonContent");
-		String biogenicCarbonContent = getAdditionalInfoValue(node, "biogenicCarbonContent");
+		String fossilCarbonContent = additionalInfo.get("fossilCarbonContent");
+		String biogenicCarbonContent = additionalInfo.get("biogenicCarbonContent");
 
 		complianceRecordDTO.setFossilCarbonContent(fossilCarbonContent);
 		complianceRecordDTO.setBiogenicCarbonContent(biogenicCarbonContent);
@@ -230,180 +396,168 @@ public class ComplianceRecordServiceImpl implements ComplianceRecordService {
 			}
 		}
 		complianceRecordDTO.setCrossSectoralStandard(
-				validateCrossSectoralStandard(getAdditionalInfoValue(node, "crossSectoralStandardsUsed")));
-		complianceRecordDTO.setStandardPcfId(getNodeText(node, "id", true));
+				validateCrossSectoralStandard(additionalInfo.get("crossSectoralStandardsUsed")));
+		complianceRecordDTO.setStandardPcfId(ServiceUtil.getNodeText(node, "id", true));
 
 		return complianceRecordDTO;
 	}
 
 	private void validateDTO(ComplianceRecordDTO complianceRecordDTO) throws ProcessingException {
-		Set<ConstraintViolation<ComplianceRecordDTO>> violations = validator.validate(complianceRecordDTO);
+		List<String> violations = validator.validate(complianceRecordDTO);
 		if (!violations.isEmpty()) {
 			StringBuilder errorMessage = new StringBuilder("Validation errors: ");
-			for (ConstraintViolation<ComplianceRecordDTO> violation : violations) {
-				errorMessage.append(violation.getMessage()).append("; ");
+			for (String violation : violations) {
+				errorMessage.append(violation).append("; ");
 			}
 			throw new ProcessingException(errorMessage.toString());
 		}
 	}
 
-	private void convertToPcfCsv(JsonNode jsonTree) throws IOException, ProcessingException {
-
-		LocalDateTime now = LocalDateTime.now();
-		String timestamp = serviceUtil.formatDateTime(now);
-
-		String fileName = "PCF.csv";
-
-		File tempCsvFile = serviceUtil.createTempFile("PCF", ".csv");
-
-		try (FileWriter writer = new FileWriter(tempCsvFile);
-				CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader("material_number", "pcf_id",
-						"preceding_pcf_id", "specversion", "partialfullpcf", "version", "created", "status",
-						"validityperiodstart", "validityperiodend", "comment", "pcflegalstatement", "declared_unit",
-						"unitary_product_amount", "product_mass_per_declared_unit", "exempted_emissions_percent",
-						"exempted_emissions_description", "packaging_emissions_included",
-						"geography_country_subdivision", "geography_country", "geography_region_or_subregion",
-						"boundary_processes_description", "reference_period_start", "reference_period_end",
-						"characterization_factors", "allocation_rules_description", "allocation_waste_incineration",
-						"primary_data_share", "coverage_percent", "technological_dqr", "temporal_dqr",
-						"geographical_dqr", "completeness_dqr", "reliability_dqr", "pcf_excluding_biogenic",
-						"pcf_including_biogenic", "fossil_ghg_emissions", "biogenic_carbon_emissions_other_than_co2",
-						"biogenic_carbon_withdrawal", "dluc_ghg_emissions", "lu_ghg_emissions",
-						"aircraft_ghg_emissions", "packaging_ghg_emissions", "distribution_pcf_excluding_biogenic",
-						"distribution_pcf_including_biogenic", "distribution_fossil_ghg_emissions",
-						"distribution_biogenic_carbon_emissions_other_than_co2",
-						"distribution_biogenic_carbon_withdrawal", "distribution_dluc_ghg_emissions",
-						"distribution_lu_ghg_emissions", "distribution_aircraftghg_emissions", "carbon_content_total",
-						"fossil_carbon_content", "biogenic_carbon_content"))) {
-			for (JsonNode node : jsonTree) {
-				ComplianceRecordDTO complianceRecordDTO = createComplianceRecordDTO(node);
-				csvPrinter.printRecord(convertNullToString(complianceRecordDTO.getMaterialNumber()),
-						convertNullToString(complianceRecordDTO.getPcfId()),
-						convertNullToString(complianceRecordDTO.getPrecedingPcfId()),
-						convertNullToString(complianceRecordDTO.getSpecVersion()),
-						convertNullToString(complianceRecordDTO.getPartialFullPcf()),
-						convertNullToString(complianceRecordDTO.getVersion()),
-						convertNullToString(complianceRecordDTO.getCreated()),
-						convertNullToString(complianceRecordDTO.getStatus()),
-						convertNullToString(complianceRecordDTO.getValidityPeriodStart()),
-						convertNullToString(complianceRecordDTO.getValidityPeriodEnd()),
-						convertNullToString(complianceRecordDTO.getComment()),
-						convertNullToString(complianceRecordDTO.getPcfLegalStatement()),
-						convertNullToString(complianceRecordDTO.getDeclaredUnit()),
-						convertNullToString(complianceRecordDTO.getUnitaryProductAmount()),
-						convertNullToString(complianceRecordDTO.getProductMassPerDeclaredUnit()),
-						convertNullToString(complianceRecordDTO.getExemptedEmissionsPercent()),
-						convertNullToString(complianceRecordDTO.getExemptedEmissionsDescription()),
-						convertNullToString(complianceRecordDTO.getPackagingEmissionsIncluded()),
-						convertNullToString(complianceRecordDTO.getGeographyCountrySubdivision()),
-						convertNullToString(complianceRecordDTO.getGeographyCountry()),
-						convertNullToString(complianceRecordDTO.getGeographyRegionOrSubregion()),
-						convertNullToString(complianceRecordDTO.getBoundaryProcessesDescription()),
-						convertNullToString(complianceRecordDTO.getReferencePeriodStart()),
-						convertNullToString(complianceRecordDTO.getReferencePeriodEnd()),
-						convertNullToString(complianceRecordDTO.getCharacterizationFactors()),
-						convertNullToString(complianceRecordDTO.getAllocationRulesDescription()),
-						convertNullToString(complianceRecordDTO.getAllocationWasteIncineration()),
-						convertNullToString(complianceRecordDTO.getPrimaryDataShare()),
-						convertNullToString(complianceRecordDTO.getCoveragePercent()),
-						convertNullToString(complianceRecordDTO.getTechnologicalDqr()),
-						convertNullToString(complianceRecordDTO.getTemporalDqr()),
-						convertNullToString(complianceRecordDTO.getGeographicalDqr()),
-						convertNullToString(complianceRecordDTO.getCompletenessDqr()),
-						convertNullToString(complianceRecordDTO.getReliabilityDqr()),
-						convertNullToString(complianceRecordDTO.getPcfExcludingBiogenic()),
-						convertNullToString(complianceRecordDTO.getPcfIncludingBiogenic()),
-						convertNullToString(complianceRecordDTO.getFossilGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getBiogenicCarbonEmissionsOtherThanCo2()),
-						convertNullToString(complianceRecordDTO.getBiogenicCarbonWithdrawal()),
-						convertNullToString(complianceRecordDTO.getDlucGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getLuGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getAircraftGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getPackagingGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getDistributionPcfExcludingBiogenic()),
-						convertNullToString(complianceRecordDTO.getDistributionPcfIncludingBiogenic()),
-						convertNullToString(complianceRecordDTO.getDistributionFossilGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getDistributionBiogenicCarbonEmissionsOtherThanCo2()),
-						convertNullToString(complianceRecordDTO.getDistributionBiogenicCarbonWithdrawal()),
-						convertNullToString(complianceRecordDTO.getDistributionDlucGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getDistributionLuGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getDistributionAircraftGhgEmissions()),
-						convertNullToString(complianceRecordDTO.getCarbonContentTotal()),
-						convertNullToString(complianceRecordDTO.getFossilCarbonContent()),
-						convertNullToString(complianceRecordDTO.getBiogenicCarbonContent()));
-			}
-		}
-
-		String cosKey = "upload/pcf/" + fileName;
-		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, tempCsvFile);
-		Path resourcesDir = Paths.get("src", "main", "resources", "import", "partners");
-		if (!Files.exists(resourcesDir)) {
-			Files.createDirectories(resourcesDir);
-		}
-		Path destinationFile = resourcesDir.resolve(fileName);
-		Files.copy(tempCsvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
-		tempCsvFile.delete();
+	private void printPcfRecord(CSVPrinter csvPrinter, ComplianceRecordDTO complianceRecordDTO) throws IOException {
+		csvPrinter.printRecord(pcfValues(complianceRecordDTO));
+	}
 
+	private Object[] pcfValues(ComplianceRecordDTO complianceRecordDTO) {
+		return new Object[] { convertNullToString(complianceRecordDTO.getMaterialNumber()),
+				convertNullToString(complianceRecordDTO.getPcfId()),
+				convertNullToString(complianceRecordDTO.getPrecedingPcfId()),
+				convertNullToString(complianceRecordDTO.getSpecVersion()),
+				convertNullToString(complianceRecordDTO.getPartialFullPcf()),
+				convertNullToString(complianceRecordDTO.getVersion()),
+				convertNullToString(complianceRecordDTO.getCreated()),
+				convertNullToString(complianceRecordDTO.getStatus()),
+				convertNullToString(complianceRecordDTO.getValidityPeriodStart()),
+				convertNullToString(complianceRecordDTO.getValidityPeriodEnd()),
+				convertNullToString(complianceRecordDTO.getComment()),
+				convertNullToString(complianceRecordDTO.getPcfLegalStatement()),
+				convertNullToString(complianceRecordDTO.getDeclaredUnit()),
+				convertNullToString(complianceRecordDTO.getUnitaryProductAmount()),
+				convertNullToString(complianceRecordDTO.getProductMassPerDeclaredUnit()),
+				convertNullToString(complianceRecordDTO.getExemptedEmissionsPercent()),
+				convertNullToString(complianceRecordDTO.getExemptedEmissionsDescription()),
+				convertNullToString(complianceRecordDTO.getPackagingEmissionsIncluded()),
+				convertNullToString(complianceRecordDTO.getGeographyCountrySubdivision()),
+				convertNullToString(complianceRecordDTO.getGeographyCountry()),
+				convertNullToString(complianceRecordDTO.getGeographyRegionOrSubregion()),
+				convertNullToString(complianceRecordDTO.getBoundaryProcessesDescription()),
+				convertNullToString(complianceRecordDTO.getReferencePeriodStart()),
+				convertNullToString(complianceRecordDTO.getReferencePeriodEnd()),
+				convertNullToString(complianceRecordDTO.getCharacterizationFactors()),
+				convertNullToString(complianceRecordDTO.getAllocationRulesDescription()),
+				convertNullToString(complianceRecordDTO.getAllocationWasteIncineration()),
+				convertNullToString(complianceRecordDTO.getPrimaryDataShare()),
+				convertNullToString(complianceRecordDTO.getCoveragePercent()),
+				convertNullToString(complianceRecordDTO.getTechnologicalDqr()),
+				convertNullToString(complianceRecordDTO.getTemporalDqr()),
+				convertNullToString(complianceRecordDTO.getGeographicalDqr()),
+				convertNullToString(complianceRecordDTO.getCompletenessDqr()),
+				convertNullToString(complianceRecordDTO.getReliabilityDqr()),
+				convertNullToString(complianceRecordDTO.getPcfExcludingBiogenic()),
+				convertNullToString(complianceRecordDTO.getPcfIncludingBiogenic()),
+				convertNullToString(complianceRecordDTO.getFossilGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getBiogenicCarbonEmissionsOtherThanCo2()),
+				convertNullToString(complianceRecordDTO.getBiogenicCarbonWithdrawal()),
+				convertNullToString(complianceRecordDTO.getDlucGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getLuGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getAircraftGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getPackagingGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getDistributionPcfExcludingBiogenic()),
+				convertNullToString(complianceRecordDTO.getDistributionPcfIncludingBiogenic()),
+				convertNullToString(complianceRecordDTO.getDistributionFossilGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getDistributionBiogenicCarbonEmissionsOtherThanCo2()),
+				convertNullToString(complianceRecordDTO.getDistributionBiogenicCarbonWithdrawal()),
+				convertNullToString(complianceRecordDTO.getDistributionDlucGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getDistributionLuGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getDistributionAircraftGhgEmissions()),
+				convertNullToString(complianceRecordDTO.getCarbonContentTotal()),
+				convertNullToString(complianceRecordDTO.getFossilCarbonContent()),
+				convertNullToString(complianceRecordDTO.getBiogenicCarbonContent()) };
 	}
 
-	private Object convertNullToString(UUID value) {
-		return (value == null || "null".equals(value)) ? "" : value;
+	private long fingerprint(ComplianceRecordDTO complianceRecordDTO) {
+		Object[] pcfValues = pcfValues(complianceRecordDTO);
+		for (int column : RUN_STAMPED_PCF_COLUMNS) {
+			pcfValues[column] = "";
+		}
+		return DeltaSink.fingerprint(pcfValues, pcfStandardValues(complianceRecordDTO));
 	}
 
-	private Object convertNullToString(Integer value) {
-		return (value == null || "null".equals(value)) ? "" : value;
+	private void printPcfChange(CSVPrinter csvPrinter, DeltaSink.Change<ComplianceRecordDTO> change)
+			throws IOException {
+		Object[] values = change.getRecord() == null ? keyValues(change, PCF_CSV_FORMAT, 0, 1)
+				: pcfValues(change.getRecord());
+		csvPrinter.printRecord(withChange(change, values));
 	}
 
-	private void convertToPcfStandardCsv(JsonNode jsonTree) throws IOException, ProcessingException {
+	private void printPcfStandardChange(CSVPrinter csvPrinter, DeltaSink.Change<ComplianceRecordDTO> change)
+			throws IOException {
+		Object[] values = change.getRecord() == null ? keyValues(change, PCF_STANDARD_CSV_FORMAT, -1, 0)
+				: pcfStandardValues(change.getRecord());
+		csvPrinter.printRecord(withChange(change, values));
+	}
 
-		LocalDateTime now = LocalDateTime.now();
-		String timestamp = serviceUtil.formatDateTime(now);
+	/**
+	 * Row of a removal: the material number and PCF id of the key in the given
+	 * columns (-1 to leave one out), every other column empty.
+	 */
+	private static Object[] keyValues(DeltaSink.Change<?> change, CSVFormat csvFormat, int materialNumberColumn,
+			int pcfIdColumn) {
+		Object[] values = new Object[csvFormat.getHeader().length];
+		Arrays.fill(values, "");
+		String[] key = change.getKeyParts();
+		if (materialNumberColumn >= 0) {
+			values[materialNumberColumn] = key[0];
+		}
+		values[pcfIdColumn] = key[1];
+		return values;
+	}
 
-		String fileName = "PCF Standard.csv";
+	private static Object[] withChange(DeltaSink.Change<?> change, Object[] values) {
+		Object[] row = new Object[values.length + 1];
+		row[0] = change.getType().label();
+		System.arraycopy(values, 0, row, 1, values.length);
+		return row;
+	}
 
-		File tempCsvFile = serviceUtil.createTempFile("PCF Standard", ".csv");
+	private static CSVFormat withChangeColumn(CSVFormat csvFormat) {
+		String[] header = csvFormat.getHeader();
+		String[] deltaHeader = new String[header.length + 1];
+		deltaHeader[0] = "change";
+		System.arraycopy(header, 0, deltaHeader, 1, header.length);
+		return CSVFormat.DEFAULT.withHeader(deltaHeader);
+	}
 
-		try (FileWriter writer = new FileWriter(tempCsvFile);
-				CSVPrinter csvPrinter = new CSVPrinter(writer,
-						CSVFormat.DEFAULT.withHeader("pcf_id", "cross_sectoral_standard"))) {
-			for (JsonNode node : jsonTree) {
-				ComplianceRecordDTO complianceRecordDTO = createComplianceRecordDTO(node);
-				csvPrinter.printRecord(convertNullToString(complianceRecordDTO.getStandardPcfId()),
-						convertNullToString(complianceRecordDTO.getCrossSectoralStandard()));
-			}
-		}
+	private static int[] columnIndexes(CSVFormat csvFormat, String... columns) {
+		List<String> header = Arrays.asList(csvFormat.getHeader());
+		return Arrays.stream(columns).mapToInt(header::indexOf).toArray();
+	}
 
-		String cosKey = "upload/pcf-standard/" + fileName;
-		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, tempCsvFile);
+	private void publishCsv(File csvFile, String cosKey, String fileName) throws IOException {
+		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, csvFile);
 		Path resourcesDir = Paths.get("src", "main", "resources", "import", "partners");
 		if (!Files.exists(resourcesDir)) {
 			Files.createDirectories(resourcesDir);
 		}
 		Path destinationFile = resourcesDir.resolve(fileName);
-		Files.copy(tempCsvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
-		tempCsvFile.delete();
+		Files.copy(csvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+	}
 
+	private Object convertNullToString(UUID value) {
+		return (value == null || "null".equals(value)) ? "" : value;
 	}
 
-	private String getNodeText(JsonNode node, String fieldName, boolean returnNullIfMissing) {
-		JsonNode fieldNode = node.at("/" + fieldName.replace(".", "/"));
-		if (fieldNode != null && !fieldNode.isMissingNode()) {
-			return fieldNode.asText();
-		} else {
-			return returnNullIfMissing ? null : "";
-		}
+	private Object convertNullToString(Integer value) {
+		return (value == null || "null".equals(value)) ? "" : value;
 	}
 
-	private String getAdditionalInfoValue(JsonNode node, String name) {
-		if (node.has("additionalInfo")) {
-			for (JsonNode infoNode : node.get("additionalInfo")) {
-				if (infoNode.has("name") && infoNode.get("name").asText().equals(name)) {
-					String value = infoNode.get("value").asText();
-					return (value == null || "null".equals(value)) ? "" : value;
-				}
-			}
-		}
-		return "";
+	private void printPcfStandardRecord(CSVPrinter csvPrinter, ComplianceRecordDTO complianceRecordDTO)
+			throws IOException {
+		csvPrinter.printRecord(pcfStandardValues(complianceRecordDTO));
+	}
+
+	private Object[] pcfStandardValues(ComplianceRecordDTO complianceRecordDTO) {
+		return new Object[] { convertNullToString(complianceRecordDTO.getStandardPcfId()),
+				convertNullToString(complianceRecordDTO.getCrossSectoralStandard()) };
 	}
 
 	private String convertNullToString(String value) {
@@ -422,21 +576,6 @@ public class ComplianceRecordServiceImpl implements ComplianceRecordService {
 		return null;
 	}
 
-	private String formatDecimalValue(String value) {
-		if (value == null || value.isEmpty()) {
-			return value;
-		}
-		try {
-			DecimalFormat decimalFormat = new DecimalFormat("#.0");
-			decimalFormat.setMinimumFractionDigits(1);
-			decimalFormat.setMaximumFractionDigits(1);
-			return decimalFormat.format(Double.parseDouble(value));
-		} catch (NumberFormatException e) {
-
-			return value;
-		}
-	}
-
 	private String ensureFullDateTime(String dateTime, boolean isStart) {
 		if (dateTime != null && !dateTime.isEmpty()) {
 
@@ -473,83 +612,8 @@ public class ComplianceRecordServiceImpl implements ComplianceRecordService {
 		}
 	}
 
-	private String convertCountryCode(String code) {
-		if (code.length() == 2) {
-
-			return code;
-		} else if (code.length() == 3) {
-
-			for (Locale locale : Locale.getAvailableLocales()) {
-				if (locale.getISO3Country().equals(code)) {
-					return locale.getCountry();
-				}
-			}
-		}
-		return "Invalid country code";
-	}
-
-	private String formatDateTime(String date, boolean isStart) {
-		if (date == null || date.isEmpty()) {
-			return date;
-		}
-		try {
-			LocalDate localDate = LocalDate.parse(date);
-			LocalDateTime localDateTime;
-			if (isStart) {
-				localDateTime = localDate.atStartOfDay();
-			} else {
-				localDateTime = localDate.atTime(23, 59, 59, 999999999);
-			}
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
-			return localDateTime.format(formatter);
-		} catch (Exception e) {
-
-			return date;
-		}
-	}
-
 	private void moveToDeadFolder(String jsonFileName) {
-		try {
-
-			logger.info("Bucket name: {}", bucketName);
-			logger.info("Checking existence of file: {}", jsonFileName);
-
-			ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketName);
-			ListObjectsV2Result result;
-			boolean fileExists = false;
-			do {
-				result = cosClient.listObjectsV2(req);
-				for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
-					logger.info("Found object: {}", objectSummary.getKey());
-					if (objectSummary.getKey().equals(jsonFileName)) {
-						fileExists = true;
-					}
-				}
-				req.setContinuationToken(result.getNextContinuationToken());
-			} while (result.isTruncated());
-
-			if (!fileExists) {
-				logger.error("File does not exist: {}", jsonFileName);
-				return;
-			}
-
-			S3Object s3Object = cosClient.getObject(bucketName, jsonFileName);
-			S3ObjectInputStream inputStream = s3Object.getObjectContent();
-			String jsonData = new BufferedReader(new InputStreamReader(inputStream)).lines()
-					.collect(Collectors.joining("\n"));
-
-			String deadFolderKey = "dead-files/" + Paths.get(jsonFileName).getFileName().toString();
-
-			logger.info("Dead folder key: {}", deadFolderKey);
-
-			ObjectMetadata metadata = new ObjectMetadata();
-			metadata.setContentLength(jsonData.length());
-			cosClient.putObject(bucketName, deadFolderKey, new ByteArrayInputStream(jsonData.getBytes()), metadata);
-
-			logger.info("Moved file to dead folder: {}", deadFolderKey);
-		} catch (Exception e) {
-			logger.error("Failed to move file to dead folder: {}", jsonFileName, e);
-		}
+		serviceUtil.moveToDeadFolder(cosClient, bucketName, jsonFileName);
 	}
 
-}
\ No newline at end of file
+}
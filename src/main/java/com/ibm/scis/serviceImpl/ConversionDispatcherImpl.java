@@ -0,0 +1,108 @@
+package com.ibm.scis.serviceImpl;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ConversionResponse;
+import com.ibm.scis.service.COSService;
+import com.ibm.scis.service.ComplianceRecordService;
+import com.ibm.scis.service.ConversionDispatcher;
+import com.ibm.scis.service.FordToFlexService;
+import com.ibm.scis.service.OrganizationService;
+import com.ibm.scis.service.ProductService;
+import com.ibm.scis.service.ProductSupplierService;
+
+@Service
+public class ConversionDispatcherImpl implements ConversionDispatcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConversionDispatcherImpl.class);
+
+	private static final String FORD_FILE_MARKER = "pcf_gec";
+
+	@Autowired
+	private COSService cosService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private OrganizationService organizationService;
+
+	@Autowired
+	private ComplianceRecordService complianceRecordService;
+
+	@Autowired
+	private ProductSupplierService productSupplierService;
+
+	@Autowired
+	private FordToFlexService fordToFlexService;
+
+	@Override
+	public ConversionResponse convertJsonToCsv(String jsonFileName) throws IOException, ProcessingException {
+		if (jsonFileName.equalsIgnoreCase("product.json")) {
+			logger.info("Routing to ProductService for product.json");
+			return productService.convertJsonToCsv(jsonFileName, null);
+		} else if (jsonFileName.equalsIgnoreCase("Compliance.json")) {
+			logger.info("Routing to ComplianceRecordService for compliance.json");
+			return complianceRecordService.convertJsonToCsv(jsonFileName, null);
+		} else if (jsonFileName.equalsIgnoreCase("Organization.json")) {
+			logger.info("Routing to OrganizationService for Organization.json");
+			return organizationService.convertJsonToCsv(jsonFileName, null);
+		} else if (jsonFileName.startsWith("ProductSupplier")) {
+			logger.info("Fetching the latest ProductSupplier file");
+			String latestProductSupplierFile = getLatestProductSupplierFile();
+			if (latestProductSupplierFile == null) {
+				logger.error("No ProductSupplier files found");
+				return new ConversionResponse(false, "No ProductSupplier files found.");
+			}
+			logger.info("Routing to ProductSupplierService for {}", latestProductSupplierFile);
+			return productSupplierService.convertJsonToCsv(latestProductSupplierFile, null);
+		} else {
+			logger.error("Invalid JSON file name: {}", jsonFileName);
+			return new ConversionResponse(false, "Invalid JSON File.");
+		}
+	}
+
+	@Override
+	public ConversionResponse fetchAndConvertJson(String jsonFileName) throws IOException, ProcessingException {
+		if (isFordFile(jsonFileName)) {
+			logger.info("Routing to fordToFlex for pcf_gec.json");
+			return fordToFlexService.fetchAndConvertJson(jsonFileName, null);
+		} else {
+			logger.error("Invalid JSON file name: {}", jsonFileName);
+			return new ConversionResponse(false, "Invalid JSON File.");
+		}
+	}
+
+	@Override
+	public ConversionResponse convert(String jsonFileName) throws IOException, ProcessingException {
+		return isFordFile(jsonFileName) ? fetchAndConvertJson(jsonFileName) : convertJsonToCsv(jsonFileName);
+	}
+
+	@Override
+	public String inputFileFor(String jsonFileName) {
+		return jsonFileName.startsWith("ProductSupplier") ? getLatestProductSupplierFile() : jsonFileName;
+	}
+
+	private static boolean isFordFile(String jsonFileName) {
+		return jsonFileName.contains(FORD_FILE_MARKER);
+	}
+
+	private String getLatestProductSupplierFile() {
+		List<String> files = cosService.listFiles();
+		logger.info(files.toString() + " files found");
+		return files.stream()
+				.filter(file -> file.startsWith("/import/products//ProductSupplier_") && file.endsWith(".json"))
+				.max(Comparator.comparing(this::extractTimestamp)).orElse(null);
+	}
+
+	private long extractTimestamp(String fileName) {
+		String timestampStr = fileName.replaceAll("[^0-9]", "");
+		return Long.parseLong(timestampStr);
+	}
+}
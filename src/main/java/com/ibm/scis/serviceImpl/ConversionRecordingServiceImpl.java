@@ -0,0 +1,83 @@
+package com.ibm.scis.serviceImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.model.ConversionRecording;
+import com.ibm.scis.model.ConversionResponse;
+import com.ibm.scis.service.ConversionDispatcher;
+import com.ibm.scis.service.ConversionRecordingService;
+
+/**
+ * Records with the JFR settings named by {@code ibm.scis.jfr.settings}: a
+ * built-in configuration ({@code profile}, the default, samples allocations and
+ * records lock waits above 10 ms; {@code default} is lighter) or the path of a
+ * {@code .jfc} file. Recordings are dumped to {@code ibm.scis.jfr.directory}.
+ */
+@Service
+public class ConversionRecordingServiceImpl implements ConversionRecordingService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConversionRecordingServiceImpl.class);
+
+	@Autowired
+	private ConversionDispatcher conversionDispatcher;
+
+	@Value("${ibm.scis.jfr.settings:profile}")
+	private String settings;
+
+	@Value("${ibm.scis.jfr.directory:${java.io.tmpdir}}")
+	private String directory;
+
+	private final ReentrantLock recordingLock = new ReentrantLock();
+
+	@Override
+	public ConversionRecording recordConversion(String jsonFileName) throws IOException, ProcessingException {
+		if (!recordingLock.tryLock()) {
+			logger.warn("Not recording {}: another conversion is being recorded", jsonFileName);
+			return null;
+		}
+		try {
+			Configuration configuration = loadConfiguration();
+			Path recordingFile = Files.createTempFile(Paths.get(directory), "conversion-", ".jfr");
+			try (Recording recording = new Recording(configuration)) {
+				recording.setName("conversion " + jsonFileName);
+				recording.start();
+				ConversionResponse response;
+				try {
+					response = conversionDispatcher.convert(jsonFileName);
+				} finally {
+					recording.stop();
+				}
+				recording.dump(recordingFile);
+				logger.info("Recorded conversion of {} to {} ({} bytes)", jsonFileName, recordingFile,
+						Files.size(recordingFile));
+				return new ConversionRecording(response, recordingFile);
+			} catch (IOException | ProcessingException | RuntimeException e) {
+				Files.deleteIfExists(recordingFile);
+				throw e;
+			}
+		} finally {
+			recordingLock.unlock();
+		}
+	}
+
+	private Configuration loadConfiguration() throws IOException {
+		try {
+			return settings.endsWith(".jfc") ? Configuration.create(Paths.get(settings))
+					: Configuration.getConfiguration(settings);
+		} catch (ParseException e) {
+			throw new IOException("Invalid JFR settings " + settings + ": " + e.getMessage(), e);
+		}
+	}
+}
@@ -5,11 +5,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
@@ -19,22 +17,31 @@ import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
 import com.ibm.cloud.objectstorage.services.s3.model.PutObjectRequest;
 import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
 import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.metrics.ConversionMetrics;
+import com.ibm.scis.metrics.ConversionStage;
+import com.ibm.scis.metrics.ConversionTimer;
 import com.ibm.scis.model.ConversionResponse;
 import com.ibm.scis.service.FordToFlexService;
+import com.ibm.scis.utils.CountryCodes;
+import com.ibm.scis.utils.FieldFormats;
 
 @Service
 public class FordToFlexServiceImpl implements FordToFlexService {
 
-	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
 	private final AmazonS3 cosClient;
 	private static final Logger logger = LoggerFactory.getLogger(FordToFlexServiceImpl.class);
+	private static final String FILE_TYPE = "fordToFlex";
 	private final ObjectMapper objectMapper;
 
+	@Autowired
+	private ConversionMetrics conversionMetrics;
+
 	@Value("${ibm.cos.bucket.ford}")
 	private String bucketName;
 
@@ -46,17 +53,42 @@ public class FordToFlexServiceImpl implements FordToFlexService {
 	@Override
 	public ConversionResponse fetchAndConvertJson(String jsonFileNamePrefix, File outputDir)
 			throws IOException, ProcessingException {
+		ConversionTimer timer = conversionMetrics.start(FILE_TYPE, jsonFileNamePrefix);
+		ConversionResponse response = null;
+		try {
+			response = fetchAndConvert(jsonFileNamePrefix, timer);
+			return response;
+		} finally {
+			conversionMetrics.finish(timer, response);
+		}
+	}
+
+	/**
+	 * The input is parsed while it is read, so reading the body is timed as part
+	 * of the parse stage.
+	 */
+	private ConversionResponse fetchAndConvert(String jsonFileNamePrefix, ConversionTimer timer) {
 		logger.info("Starting JSON to JSON conversion for file: {}", jsonFileNamePrefix);
 		File tempJsonFile = null;
 		try {
+			long start = timer.start();
 			String fullFileName = fetchFullFileNameFromCos(jsonFileNamePrefix);
 			S3Object s3Object = cosClient.getObject(bucketName, fullFileName);
+			timer.addBytesIn(s3Object.getObjectMetadata().getContentLength());
 			InputStream cosJsonInputStream = s3Object.getObjectContent();
+			start = timer.stop(ConversionStage.FETCH, start);
 			Map<String, Object> inputJson = parseJsonInput(cosJsonInputStream);
+			start = timer.stop(ConversionStage.PARSE, start);
 			Map<String, Object> outputJson = processJsonObject(inputJson);
+			start = timer.stop(ConversionStage.MAP, start);
 			tempJsonFile = writeJsonToTempFile(outputJson);
+			start = timer.stop(ConversionStage.WRITE, start);
 			uploadJsonToCos(tempJsonFile, fullFileName);
-			return new ConversionResponse(true, "Conversion successful. JSON uploaded");
+			timer.stop(ConversionStage.UPLOAD, start);
+			timer.addBytesOut(tempJsonFile.length());
+			ConversionResponse response = new ConversionResponse(true, "Conversion successful. JSON uploaded");
+			response.setAcceptedRecords(1);
+			return response;
 		} catch (IOException e) {
 			logger.error("IOException occurred: ", e);
 			return new ConversionResponse(false, "IOException occurred: " + e.getMessage());
@@ -101,7 +133,11 @@ public class FordToFlexServiceImpl implements FordToFlexService {
 		}
 	}
 
-	private Map<String, Object> processJsonObject(Map<String, Object> inputJson) {
+	/**
+	 * Maps one Ford PCF response to the flex PCF document. Needs no COS access,
+	 * which lets the benchmarks measure it on its own.
+	 */
+	public Map<String, Object> processJsonObject(Map<String, Object> inputJson) {
 		Map<String, Object> outputJson = new HashMap<>();
 		Map<String, Object> pcf = (Map<String, Object>) inputJson.get("pcf");
 		Map<String, Object> nestedPcf = (Map<String, Object>) pcf.get("pcf");
@@ -223,7 +259,7 @@ public class FordToFlexServiceImpl implements FordToFlexService {
 		Map<String, Object> location = new HashMap<>();
 		location.put("geo", nestedPcf.get("geographyRegionOrSubregion"));
 		String countryCode = (String) nestedPcf.get("geographyCountry");
-		String iso3CountryCode = convertToISO3CountryCode(countryCode);
+		String iso3CountryCode = CountryCodes.toIso3(countryCode);
 		location.put("country", iso3CountryCode);
 		return location;
 	}
@@ -253,24 +289,21 @@ public class FordToFlexServiceImpl implements FordToFlexService {
 	}
 
 	private String formatDateTime(Object dateTimeObj, boolean addOneYear) {
-		LocalDateTime dateTime;
 		if (dateTimeObj == null || (dateTimeObj instanceof String && ((String) dateTimeObj).isEmpty())) {
-			dateTime = LocalDateTime.now();
+			LocalDateTime dateTime = LocalDateTime.now();
 			if (addOneYear) {
 				dateTime = dateTime.plusMonths(12);
 			}
-		} else {
-			dateTime = LocalDateTime.parse(dateTimeObj.toString(), DateTimeFormatter.ISO_DATE_TIME);
+			return FieldFormats.formatDateTime(dateTime);
 		}
-		return dateTime.format(FORMATTER);
+		return FieldFormats.reformatIsoDateTime(dateTimeObj.toString());
 	}
 
 	private String referenceformatDateTime(Object dateTimeObj) {
 		if (dateTimeObj == null) {
 			return null;
 		}
-		LocalDateTime dateTime = LocalDateTime.parse(dateTimeObj.toString(), DateTimeFormatter.ISO_DATE_TIME);
-		return dateTime.format(FORMATTER);
+		return FieldFormats.reformatIsoDateTime(dateTimeObj.toString());
 	}
 
 	private Map<String, Object> createAdditionalInfo(String name, Object value) {
@@ -280,17 +313,4 @@ public class FordToFlexServiceImpl implements FordToFlexService {
 		return additionalInfo;
 	}
 
-	private String convertToISO3CountryCode(String code) {
-		if (code.length() == 2) {
-			for (Locale locale : Locale.getAvailableLocales()) {
-				if (locale.getCountry().equals(code)) {
-					return locale.getISO3Country();
-				}
-			}
-		} else if (code.length() == 3) {
-			return code;
-		}
-		return "Invalid country code";
-	}
-
-}
\ No newline at end of file
+}
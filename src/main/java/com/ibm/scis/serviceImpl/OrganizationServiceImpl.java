@@ -3,34 +3,33 @@ package com.ibm.scis.serviceImpl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
-import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
-import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
-import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
 import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
-import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectInputStream;
-import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
 import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.metrics.ConversionMetrics;
+import com.ibm.scis.metrics.ConversionStage;
+import com.ibm.scis.metrics.ConversionTimer;
 import com.ibm.scis.model.ConversionResponse;
 import com.ibm.scis.model.OrganizationRecordDTO;
+import com.ibm.scis.pipeline.ChunkedRecordProcessor;
+import com.ibm.scis.pipeline.CsvSinkFactory;
+import com.ibm.scis.pipeline.RecordSink;
+import com.ibm.scis.pipeline.RecordQuarantine;
+import com.ibm.scis.pipeline.RecordSource;
+import com.ibm.scis.pipeline.RejectedRecordException;
+import com.ibm.scis.pipeline.RejectedRecords;
 import com.ibm.scis.service.OrganizationService;
 import com.ibm.scis.utils.ServiceUtil;
+import com.ibm.scis.validation.CompiledValidator;
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,66 +37,83 @@ import org.slf4j.LoggerFactory;
 public class OrganizationServiceImpl implements OrganizationService {
 
 	private static final Logger logger = LoggerFactory.getLogger(OrganizationServiceImpl.class);
+	private static final String FILE_TYPE = "organization";
+	private static final CSVFormat CONTACT_ID_CSV_FORMAT = CSVFormat.DEFAULT.withHeader("bpn", "identifier");
 
 	private final ObjectMapper objectMapper;
-	private final Validator validator;
+	private final CompiledValidator<OrganizationRecordDTO> validator;
 	private final AmazonS3 cosClient;
 
 	@Autowired
 	private ServiceUtil serviceUtil;
 
+	@Autowired
+	private ChunkedRecordProcessor recordProcessor;
+
+	@Autowired
+	private CsvSinkFactory csvSinks;
+
+	@Autowired
+	private RecordQuarantine recordQuarantine;
+
+	@Autowired
+	private ConversionMetrics conversionMetrics;
+
 	@Value("${ibm.cos.bucket.flex}")
 	private String bucketName;
 
 	public OrganizationServiceImpl(ObjectMapper objectMapper, AmazonS3 cosClient) {
 		this.objectMapper = objectMapper;
-		ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-		this.validator = factory.getValidator();
+		this.validator = CompiledValidator.forClass(OrganizationRecordDTO.class);
 		this.cosClient = cosClient;
 	}
 
 	@Override
 	public ConversionResponse convertJsonToCsv(String jsonFileName, File outputDir)
 			throws IOException, ProcessingException {
+		ConversionTimer timer = conversionMetrics.start(FILE_TYPE, jsonFileName);
+		ConversionResponse response = null;
+		try {
+			response = convert(jsonFileName, timer);
+			return response;
+		} finally {
+			conversionMetrics.finish(timer, response);
+		}
+	}
+
+	private ConversionResponse convert(String jsonFileName, ConversionTimer timer) throws IOException {
 		logger.info("Starting JSON to CSV conversion for file: {}", jsonFileName);
+		String inputKey = "/import/contacts/" + jsonFileName;
 
 		try {
 
-			S3Object s3Object = serviceUtil.fetchJsonFromCos(cosClient, bucketName, "/import/contacts/" + jsonFileName);
+			long start = timer.start();
+			S3Object s3Object = ServiceUtil.fetchJsonFromCos(cosClient, bucketName, inputKey);
+			timer.addBytesIn(s3Object.getObjectMetadata().getContentLength());
 			InputStream cosJsonInputStream = s3Object.getObjectContent();
-			String jsonData = serviceUtil.readJsonData(cosJsonInputStream);
+			String jsonData = ServiceUtil.readJsonData(cosJsonInputStream);
+			start = timer.stop(ConversionStage.FETCH, start);
 
 			JsonNode jsonTree;
 			try {
 				jsonTree = objectMapper.readTree(jsonData);
 			} catch (IOException e) {
 				logger.error("Failed to parse JSON data: {}", jsonData, e);
-				moveToDeadFolder("/import/contacts/Organization.json");
+				moveToDeadFolder(inputKey);
 				return new ConversionResponse(false, "Failed to parse JSON data: " + e.getMessage());
 			}
+			timer.stop(ConversionStage.PARSE, start);
 
 			if (!jsonTree.isArray()) {
 				logger.error("JSON input is not an array: {}", jsonData);
-				moveToDeadFolder("/import/contacts/Organization.json");
+				moveToDeadFolder(inputKey);
 				return new ConversionResponse(false, "JSON input is not an array.");
 			}
 
-			for (JsonNode node : jsonTree) {
-				try {
-					OrganizationRecordDTO organizationRecordDTO = createOrganizationRecordDTO(node);
-					validateDTO(organizationRecordDTO);
-				} catch (ProcessingException e) {
-
-					logger.error("Invalid JSON node: {}", node.toString());
-					moveToDeadFolder("/import/contacts/Organization.json");
-					return new ConversionResponse(false, "Invalid JSON data: " + e.getMessage());
-				}
-			}
-
-			return convertToOrganizationCsvAndUpload(jsonTree);
+			return writeCsvOutputs(RecordSource.of(jsonTree), inputKey, timer);
 		} catch (IOException e) {
 			logger.error("IOException occurred: ", e);
-			moveToDeadFolder("/import/contacts/Organization.json");
+			moveToDeadFolder(inputKey);
 			return new ConversionResponse(false, "IOException occurred: " + e.getMessage());
 		}
 	}
@@ -110,18 +126,18 @@ public class OrganizationServiceImpl implements OrganizationService {
 			customAttributesNode = objectMapper.createObjectNode(); // Create an empty node if null
 		}
 
-		String bpn = convertBpn(serviceUtil.getNodeText(customAttributesNode, "BPNString"));
+		String bpn = convertBpn(ServiceUtil.getNodeText(customAttributesNode, "BPNString"));
 		organizationRecordDTO.setBpn(bpn);
 		organizationRecordDTO.setIdentifier("urn:bpn:" + bpn);
 		return organizationRecordDTO;
 	}
 
 	private void validateDTO(OrganizationRecordDTO organizationRecordDTO) throws ProcessingException {
-		Set<ConstraintViolation<OrganizationRecordDTO>> violations = validator.validate(organizationRecordDTO);
+		List<String> violations = validator.validate(organizationRecordDTO);
 		if (!violations.isEmpty()) {
 			StringBuilder errorMessage = new StringBuilder("Validation errors: ");
-			for (ConstraintViolation<OrganizationRecordDTO> violation : violations) {
-				errorMessage.append(violation.getMessage()).append("; ");
+			for (String violation : violations) {
+				errorMessage.append(violation).append("; ");
 			}
 			logger.error("Validation failed for DTO: {}", organizationRecordDTO);
 			throw new ProcessingException(errorMessage.toString());
@@ -135,45 +151,68 @@ public class OrganizationServiceImpl implements OrganizationService {
 		}
 	}
 
-	private ConversionResponse convertToOrganizationCsvAndUpload(JsonNode jsonTree) throws IOException {
-		LocalDateTime now = LocalDateTime.now();
-		String timestamp = serviceUtil.formatDateTime(now);
-
-		String fileName = "Contact_ID.csv";
-
-		File tempCsvFile = serviceUtil.createTempFile("Contact_ID", ".csv");
-
-		try (FileWriter writer = new FileWriter(tempCsvFile);
-				CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader("bpn", "identifier"))) {
-			for (JsonNode node : jsonTree) {
-				String bpn = serviceUtil.getNodeText(node, "customAttributes.BPNString");
-				String identifier = "";
-
-				if ("Flex".equals(serviceUtil.getNodeText(node, "organizationIdentifier"))) {
-					bpn = "BPNL000000000NPH";
-					identifier = "urn:bpn:BPNL000000000NPH";
-				} else {
-					if (bpn != null && !bpn.isEmpty()) {
-						identifier = "urn:bpn:" + bpn;
-					}
-				}
+	/**
+	 * Validates each record once and writes its Contact_ID.csv row, which is only
+	 * published when all records are valid, or, in quarantine mode, when at least
+	 * one is.
+	 */
+	private ConversionResponse writeCsvOutputs(RecordSource records, String inputKey, ConversionTimer timer)
+			throws IOException {
+		try (RecordSink<String[]> output = timer.timed(csvSinks.open(bucketName, "import/contacts/Contact_ID.csv",
+				"Contact_ID", CONTACT_ID_CSV_FORMAT, (csvPrinter, row) -> csvPrinter.printRecord((Object[]) row),
+				csvFile -> publishCsv(csvFile, "import/contacts/Contact_ID.csv", "Contact_ID.csv")));
+				RejectedRecords rejects = recordQuarantine.open(cosClient, bucketName, inputKey)) {
+			long accepted;
+			try {
+				accepted = recordProcessor.process(records,
+						timer.reportingRejects(record -> createValidatedRow(record, timer)), output, rejects);
+			} catch (RejectedRecordException e) {
+				logger.error("Invalid JSON node: {}", e.getRecord().toString());
+				moveToDeadFolder(inputKey);
+				return new ConversionResponse(false, "Invalid JSON data: " + e.getMessage());
+			}
+			ConversionResponse response = recordQuarantine.complete(output, accepted, rejects);
+			if (!response.isSuccess()) {
+				moveToDeadFolder(inputKey);
+			}
+			return response;
+		}
+	}
 
-				csvPrinter.printRecord(bpn, identifier);
+	/**
+	 * Validates the record and returns its {@code bpn, identifier} row. The row
+	 * keeps the raw BPN and the Flex override rather than the DTO values.
+	 */
+	private String[] createValidatedRow(JsonNode node, ConversionTimer timer) throws ProcessingException {
+		long start = timer.start();
+		OrganizationRecordDTO organizationRecordDTO = createOrganizationRecordDTO(node);
+		start = timer.stop(ConversionStage.MAP, start);
+		validateDTO(organizationRecordDTO);
+		start = timer.stop(ConversionStage.VALIDATE, start);
+
+		String bpn = ServiceUtil.getNodeText(node, "customAttributes.BPNString");
+		String identifier = "";
+
+		if ("Flex".equals(ServiceUtil.getNodeText(node, "organizationIdentifier"))) {
+			bpn = "BPNL000000000NPH";
+			identifier = "urn:bpn:BPNL000000000NPH";
+		} else {
+			if (bpn != null && !bpn.isEmpty()) {
+				identifier = "urn:bpn:" + bpn;
 			}
 		}
+		timer.stop(ConversionStage.MAP, start);
+		return new String[] { bpn, identifier };
+	}
 
-		String cosKey = "import/contacts/" + fileName;
-		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, tempCsvFile);
+	private void publishCsv(File csvFile, String cosKey, String fileName) throws IOException {
+		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, csvFile);
 		Path resourcesDir = Paths.get("src", "main", "resources", "import", "partners");
 		if (!Files.exists(resourcesDir)) {
 			Files.createDirectories(resourcesDir);
 		}
 		Path destinationFile = resourcesDir.resolve(fileName);
-		Files.copy(tempCsvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
-
-		tempCsvFile.delete();
-
-		return new ConversionResponse(true, "Conversion successful. CSV uploaded");
+		Files.copy(csvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
 	}
 
 	private String convertBpn(String value) {
@@ -185,47 +224,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 	}
 
 	private void moveToDeadFolder(String jsonFileName) {
-		try {
-
-			logger.info("Bucket name: {}", bucketName);
-			logger.info("Checking existence of file: {}", jsonFileName);
-
-			ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketName);
-			ListObjectsV2Result result;
-			boolean fileExists = false;
-			do {
-				result = cosClient.listObjectsV2(req);
-				for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
-					logger.info("Found object: {}", objectSummary.getKey());
-					if (objectSummary.getKey().equals(jsonFileName)) {
-						fileExists = true;
-					}
-				}
-				req.setContinuationToken(result.getNextContinuationToken());
-			} while (result.isTruncated());
-
-			if (!fileExists) {
-				logger.error("File does not exist: {}", jsonFileName);
-				return;
-			}
-
-			S3Object s3Object = cosClient.getObject(bucketName, jsonFileName);
-			S3ObjectInputStream inputStream = s3Object.getObjectContent();
-			String jsonData = new BufferedReader(new InputStreamReader(inputStream)).lines()
-					.collect(Collectors.joining("\n"));
-
-			String deadFolderKey = "dead-files/" + Paths.get(jsonFileName).getFileName().toString();
-
-			logger.info("Dead folder key: {}", deadFolderKey);
-
-			ObjectMetadata metadata = new ObjectMetadata();
-			metadata.setContentLength(jsonData.length());
-			cosClient.putObject(bucketName, deadFolderKey, new ByteArrayInputStream(jsonData.getBytes()), metadata);
-
-			logger.info("Moved file to dead folder: {}", deadFolderKey);
-		} catch (Exception e) {
-			logger.error("Failed to move file to dead folder: {}", jsonFileName, e);
-		}
+		serviceUtil.moveToDeadFolder(cosClient, bucketName, jsonFileName);
 	}
 
-}
\ No newline at end of file
+}
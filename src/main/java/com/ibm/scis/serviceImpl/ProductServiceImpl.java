@@ -3,17 +3,23 @@ package com.ibm.scis.serviceImpl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
-import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
-import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
-import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
 import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
-import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectInputStream;
-import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
 import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.metrics.ConversionMetrics;
+import com.ibm.scis.metrics.ConversionStage;
+import com.ibm.scis.metrics.ConversionTimer;
 import com.ibm.scis.model.ConversionResponse;
 import com.ibm.scis.model.ProductRecordDTO;
+import com.ibm.scis.pipeline.ChunkedRecordProcessor;
+import com.ibm.scis.pipeline.CsvSinkFactory;
+import com.ibm.scis.pipeline.RecordSink;
+import com.ibm.scis.pipeline.RecordQuarantine;
+import com.ibm.scis.pipeline.RecordSource;
+import com.ibm.scis.pipeline.RejectedRecordException;
+import com.ibm.scis.pipeline.RejectedRecords;
 import com.ibm.scis.service.ProductService;
 import com.ibm.scis.utils.ServiceUtil;
+import com.ibm.scis.validation.CompiledValidator;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.slf4j.Logger;
@@ -21,10 +27,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
-import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -32,28 +34,42 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.List;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
 	private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+	private static final String FILE_TYPE = "product";
+	private static final CSVFormat PRODUCT_CSV_FORMAT = CSVFormat.DEFAULT.withHeader("material_number",
+			"material_description", "created", "valid_from", "valid_to", "product_category_cpc",
+			"product_name_company");
 	private final ObjectMapper objectMapper;
-	private final Validator validator;
+	private final CompiledValidator<ProductRecordDTO> validator;
 	private final AmazonS3 cosClient;
 	private final String currentDate;
 
 	@Autowired
 	private ServiceUtil serviceUtil;
 
+	@Autowired
+	private ChunkedRecordProcessor recordProcessor;
+
+	@Autowired
+	private CsvSinkFactory csvSinks;
+
+	@Autowired
+	private RecordQuarantine recordQuarantine;
+
+	@Autowired
+	private ConversionMetrics conversionMetrics;
+
 	@Value("${ibm.cos.bucket.flex}")
 	private String bucketName;
 
 	public ProductServiceImpl(ObjectMapper objectMapper, AmazonS3 cosClient) {
 		this.objectMapper = objectMapper;
-		ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-		this.validator = factory.getValidator();
+		this.validator = CompiledValidator.forClass(ProductRecordDTO.class);
 		this.cosClient = cosClient;
 		this.currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS"));
 	}
@@ -61,56 +77,57 @@ public class ProductServiceImpl implements ProductService {
 	@Override
 	public ConversionResponse convertJsonToCsv(String jsonFileName, File outputDir)
 			throws IOException, ProcessingException {
+		ConversionTimer timer = conversionMetrics.start(FILE_TYPE, jsonFileName);
+		ConversionResponse response = null;
+		try {
+			response = convert(jsonFileName, timer);
+			return response;
+		} finally {
+			conversionMetrics.finish(timer, response);
+		}
+	}
+
+	private ConversionResponse convert(String jsonFileName, ConversionTimer timer) throws IOException {
 		logger.info("Starting JSON to CSV conversion for file: {}", jsonFileName);
+		String inputKey = "/import/products//" + jsonFileName;
 
 		try {
 
-			S3Object s3Object = serviceUtil.fetchJsonFromCos(cosClient, bucketName,
-					"/import/products//" + jsonFileName);
+			long start = timer.start();
+			S3Object s3Object = ServiceUtil.fetchJsonFromCos(cosClient, bucketName, inputKey);
+			timer.addBytesIn(s3Object.getObjectMetadata().getContentLength());
 			InputStream cosJsonInputStream = s3Object.getObjectContent();
-			String jsonData = serviceUtil.readJsonData(cosJsonInputStream);
+			String jsonData = ServiceUtil.readJsonData(cosJsonInputStream);
+			start = timer.stop(ConversionStage.FETCH, start);
 
 			JsonNode jsonTree;
 			try {
 				jsonTree = objectMapper.readTree(jsonData);
 			} catch (IOException e) {
 				logger.error("Failed to parse JSON data: {}", jsonData, e);
-				moveToDeadFolder("/import/products//product.json");
+				moveToDeadFolder(inputKey);
 				return new ConversionResponse(false, "Failed to parse JSON data: " + e.getMessage());
 			}
+			timer.stop(ConversionStage.PARSE, start);
 
 			if (!jsonTree.isArray()) {
 				logger.error("JSON input is not an array: {}", jsonData);
-				moveToDeadFolder("/import/products//product.json");
+				moveToDeadFolder(inputKey);
 				return new ConversionResponse(false, "JSON input is not an array.");
 			}
 
-			for (JsonNode node : jsonTree) {
-				try {
-					ProductRecordDTO productRecordDTO = createProductRecordDTO(node);
-					validateDTO(productRecordDTO);
-				} catch (ProcessingException e) {
-
-					logger.error("Invalid JSON node: {}", node.toString());
-					moveToDeadFolder("/import/products//product.json");
-					return new ConversionResponse(false, "Invalid JSON data: " + e.getMessage());
-				}
-			}
-
-			convertToProductCsvAndUpload(jsonTree);
-			convertToProductIdCsvAndUpload(jsonTree);
-			return new ConversionResponse(true, "Conversion successful. CSV uploaded");
+			return writeCsvOutputs(RecordSource.of(jsonTree), inputKey, timer);
 		} catch (IOException e) {
 			logger.error("IOException occurred: ", e);
-			moveToDeadFolder("/import/products//product.json");
+			moveToDeadFolder(inputKey);
 			return new ConversionResponse(false, "IOException occurred: " + e.getMessage());
 		}
 	}
 
 	private ProductRecordDTO createProductRecordDTO(JsonNode node) throws ProcessingException {
 		ProductRecordDTO productRecordDTO = new ProductRecordDTO();
-		productRecordDTO.setPartNumber(serviceUtil.getNodeText(node, "partNumber"));
-		String description = serviceUtil.getNodeText(node, "description");
+		productRecordDTO.setPartNumber(ServiceUtil.getNodeText(node, "partNumber"));
+		String description = ServiceUtil.getNodeText(node, "description");
 		if (description != null) {
 			description = description.replace("\u00A0", " "); // Replace non-breaking spaces with regular spaces
 		}
@@ -123,77 +140,75 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	private void validateDTO(ProductRecordDTO productRecordDTO) throws ProcessingException {
-		Set<ConstraintViolation<ProductRecordDTO>> violations = validator.validate(productRecordDTO);
+		List<String> violations = validator.validate(productRecordDTO);
 		if (!violations.isEmpty()) {
 			StringBuilder errorMessage = new StringBuilder("Validation errors: ");
-			for (ConstraintViolation<ProductRecordDTO> violation : violations) {
-				errorMessage.append(violation.getMessage()).append("; ");
+			for (String violation : violations) {
+				errorMessage.append(violation).append("; ");
 			}
 			throw new ProcessingException(errorMessage.toString());
 		}
 	}
 
-	private void convertToProductCsvAndUpload(JsonNode jsonTree) throws IOException, ProcessingException {
-
-		LocalDateTime now = LocalDateTime.now();
-		String timestamp = serviceUtil.formatDateTime(now);
-
-		String fileName = "Product.csv";
-
-		File tempCsvFile = serviceUtil.createTempFile("Product_", ".csv");
-
-		try (FileWriter writer = new FileWriter(tempCsvFile);
-				CSVPrinter csvPrinter = new CSVPrinter(writer,
-						CSVFormat.DEFAULT.withHeader("material_number", "material_description", "created", "valid_from",
-								"valid_to", "product_category_cpc", "product_name_company"))) {
-			for (JsonNode node : jsonTree) {
-				ProductRecordDTO productRecordDTO = createProductRecordDTO(node);
-				csvPrinter.printRecord(convertNullToString(productRecordDTO.getPartNumber()), // material_number
-						convertNullToString(productRecordDTO.getDescription()),
-						convertNullToString(productRecordDTO.getCreateDate()),
-						convertNullToString(productRecordDTO.getValidFrom()),
-						convertNullToString(productRecordDTO.getValidTo()),
-						convertNullToString(productRecordDTO.getProductCategory()), // product_category_cpc
-						convertNullToString(productRecordDTO.getDescription()) // product_name_company
-				);
+	/**
+	 * Maps and validates each record once and writes it to both CSV outputs.
+	 * Outputs are only published when all records are valid, or, in quarantine
+	 * mode, when at least one is.
+	 */
+	private ConversionResponse writeCsvOutputs(RecordSource records, String inputKey, ConversionTimer timer)
+			throws IOException {
+		try (RecordSink<ProductRecordDTO> outputs = timer.timed(createOutputSinks());
+				RejectedRecords rejects = recordQuarantine.open(cosClient, bucketName, inputKey)) {
+			long accepted;
+			try {
+				accepted = recordProcessor.process(records,
+						timer.reportingRejects(record -> createValidatedRecord(record, timer)), outputs, rejects);
+			} catch (RejectedRecordException e) {
+				logger.error("Invalid JSON node: {}", e.getRecord().toString());
+				moveToDeadFolder(inputKey);
+				return new ConversionResponse(false, "Invalid JSON data: " + e.getMessage());
 			}
+			ConversionResponse response = recordQuarantine.complete(outputs, accepted, rejects);
+			if (!response.isSuccess()) {
+				moveToDeadFolder(inputKey);
+			}
+			return response;
 		}
-
-		String cosKey = "import/products/" + fileName;
-		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, tempCsvFile);
-		Path resourcesDir = Paths.get("src", "main", "resources", "import", "partners");
-		if (!Files.exists(resourcesDir)) {
-			Files.createDirectories(resourcesDir);
-		}
-		Path destinationFile = resourcesDir.resolve(fileName);
-		Files.copy(tempCsvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
-
-		tempCsvFile.delete();
 	}
 
-	private void convertToProductIdCsvAndUpload(JsonNode jsonTree) throws IOException, ProcessingException {
-
-		LocalDateTime now = LocalDateTime.now();
-		String timestamp = serviceUtil.formatDateTime(now);
-
-		String fileName = "Product_ID.csv";
+	private ProductRecordDTO createValidatedRecord(JsonNode node, ConversionTimer timer) throws ProcessingException {
+		long start = timer.start();
+		ProductRecordDTO productRecordDTO = createProductRecordDTO(node);
+		start = timer.stop(ConversionStage.MAP, start);
+		validateDTO(productRecordDTO);
+		timer.stop(ConversionStage.VALIDATE, start);
+		return productRecordDTO;
+	}
 
-		File tempCsvFile = serviceUtil.createTempFile("Product_ID_", ".csv");
+	private RecordSink<ProductRecordDTO> createOutputSinks() throws IOException {
+		return csvSinks.open(bucketName, "import/products/Product.csv", "Product_", PRODUCT_CSV_FORMAT,
+				this::printProductRecord, csvFile -> publishCsv(csvFile, "import/products/Product.csv", "Product.csv"));
+	}
 
-		try (FileWriter writer = new FileWriter(tempCsvFile);
-				CSVPrinter csvPrinter = new CSVPrinter(writer,
-						CSVFormat.DEFAULT.withHeader("material_number", "identifier"))) {
-			for (JsonNode node : jsonTree) {
-				ProductRecordDTO productRecordDTO = createProductRecordDTO(node);
-				String id = "urn:id:" + productRecordDTO.getPartNumber();
+	private void printProductRecord(CSVPrinter csvPrinter, ProductRecordDTO productRecordDTO) throws IOException {
+		csvPrinter.printRecord(convertNullToString(productRecordDTO.getPartNumber()), // material_number
+				convertNullToString(productRecordDTO.getDescription()),
+				convertNullToString(productRecordDTO.getCreateDate()),
+				convertNullToString(productRecordDTO.getValidFrom()),
+				convertNullToString(productRecordDTO.getValidTo()),
+				convertNullToString(productRecordDTO.getProductCategory()), // product_category_cpc
+				convertNullToString(productRecordDTO.getDescription()) // product_name_company
+		);
+	}
 
-				csvPrinter.printRecord(convertNullToString(productRecordDTO.getPartNumber()), // material_number
-						id // identifier
-				);
-			}
+	private void publishCsv(File csvFile, String cosKey, String fileName) throws IOException {
+		serviceUtil.uploadFileToCos(cosClient, bucketName, cosKey, csvFile);
+		Path resourcesDir = Paths.get("src", "main", "resources", "import", "partners");
+		if (!Files.exists(resourcesDir)) {
+			Files.createDirectories(resourcesDir);
 		}
-
-		tempCsvFile.delete();
+		Path destinationFile = resourcesDir.resolve(fileName);
+		Files.copy(csvFile.toPath(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
 	}
 
 	private String convertNullToString(String value) {
@@ -201,47 +216,7 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	private void moveToDeadFolder(String jsonFileName) {
-		try {
-
-			logger.info("Bucket name: {}", bucketName);
-			logger.info("Checking existence of file: {}", jsonFileName);
-
-			ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketName);
-			ListObjectsV2Result result;
-			boolean fileExists = false;
-			do {
-				result = cosClient.listObjectsV2(req);
-				for (S3ObjectSummary objectSummary : result.getObjectSummaries()) {
-					logger.info("Found object: {}", objectSummary.getKey());
-					if (objectSummary.getKey().equals(jsonFileName)) {
-						fileExists = true;
-					}
-				}
-				req.setContinuationToken(result.getNextContinuationToken());
-			} while (result.isTruncated());
-
-			if (!fileExists) {
-				logger.error("File does not exist: {}", jsonFileName);
-				return;
-			}
-
-			S3Object s3Object = cosClient.getObject(bucketName, jsonFileName);
-			S3ObjectInputStream inputStream = s3Object.getObjectContent();
-			String jsonData = new BufferedReader(new InputStreamReader(inputStream)).lines()
-					.collect(Collectors.joining("\n"));
-
-			String deadFolderKey = "dead-files/" + Paths.get(jsonFileName).getFileName().toString();
-
-			logger.info("Dead folder key: {}", deadFolderKey);
-
-			ObjectMetadata metadata = new ObjectMetadata();
-			metadata.setContentLength(jsonData.length());
-			cosClient.putObject(bucketName, deadFolderKey, new ByteArrayInputStream(jsonData.getBytes()), metadata);
-
-			logger.info("Moved file to dead folder: {}", deadFolderKey);
-		} catch (Exception e) {
-			logger.error("Failed to move file to dead folder: {}", jsonFileName, e);
-		}
+		serviceUtil.moveToDeadFolder(cosClient, bucketName, jsonFileName);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.ibm.scis.state;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+
+/**
+ * Remembers the ETag, size and last-modified time of every input object at the
+ * time it was last converted successfully, so the scheduler can skip objects
+ * that have not changed since. The fingerprint comes from the listing the
+ * scheduler already performs, so checking it costs no extra COS request.
+ * Fingerprints are kept in the {@code inputManifest} state journal.
+ */
+@Component
+public class InputManifest {
+
+	private static final Logger logger = LoggerFactory.getLogger(InputManifest.class);
+
+	private final AtomicLong skippedConversions = new AtomicLong();
+	private StateJournal fingerprints;
+
+	@Autowired
+	private StateStore stateStore;
+
+	/** Fingerprint of a listed object: ETag, size and last-modified time. */
+	public static String fingerprint(S3ObjectSummary summary) {
+		long lastModified = summary.getLastModified() == null ? 0 : summary.getLastModified().getTime();
+		return summary.getETag() + ":" + summary.getSize() + ":" + lastModified;
+	}
+
+	/** True when {@code key} was converted from an object with the same fingerprint. */
+	public boolean isUnchanged(String key, String fingerprint) {
+		return fingerprint.equals(fingerprints.get(key));
+	}
+
+	/** Records a successful conversion of {@code key} from an object with {@code fingerprint}. */
+	public void recordConverted(String key, String fingerprint) {
+		try {
+			fingerprints.put(key, fingerprint);
+		} catch (IOException e) {
+			logger.error("Error saving input manifest: {}", e.getMessage());
+		}
+	}
+
+	public void recordSkipped() {
+		skippedConversions.incrementAndGet();
+	}
+
+	/** Number of conversions skipped because the input was unchanged, since startup. */
+	public long getSkippedConversions() {
+		return skippedConversions.get();
+	}
+
+	@PostConstruct
+	void load() throws IOException {
+		fingerprints = stateStore.journal("inputManifest");
+		logger.info("Loaded input manifest with {} entries", fingerprints.size());
+	}
+}
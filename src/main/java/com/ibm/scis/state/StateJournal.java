@@ -0,0 +1,336 @@
+package com.ibm.scis.state;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable string map kept as an append-only log of checksummed put/remove
+ * records.
+ * <p>
+ * Every change appends one small record and forces it to disk, so a crash can at
+ * most lose the record being written; a torn or corrupt tail is detected by its
+ * CRC on the next open and cut off. The log is replayed once on open through a
+ * read-only memory mapping, and rewritten with only the live entries (to a
+ * temporary file that atomically replaces the log) once it holds more than
+ * {@link #COMPACTION_FACTOR} records per live entry, which keeps replay bounded
+ * by the number of keys rather than by the number of updates.
+ * <p>
+ * Reads are served from memory and are safe from any thread; writes are
+ * serialised on the journal.
+ */
+public final class StateJournal implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(StateJournal.class);
+
+	private static final int MAGIC = 0x53434A31; // "SCJ1"
+	private static final int RECORD_HEADER_BYTES = 8; // payload length + CRC32
+	private static final byte OP_PUT = 1;
+	private static final byte OP_REMOVE = 2;
+	private static final int COMPACTION_FACTOR = 4;
+	private static final int MIN_RECORDS_BEFORE_COMPACTION = 1024;
+
+	private final Path file;
+	private final Map<String, String> entries = new ConcurrentHashMap<>();
+	private FileChannel channel;
+	private long recordCount;
+
+	private StateJournal(Path file) {
+		this.file = file;
+	}
+
+	/** Opens the journal at {@code file}, creating it when missing, and replays it. */
+	public static StateJournal open(Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		StateJournal journal = new StateJournal(file);
+		journal.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			journal.replay();
+			journal.compactIfNeeded();
+		} catch (IOException | RuntimeException e) {
+			journal.channel.close();
+			throw e;
+		}
+		return journal;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public String get(String key) {
+		return entries.get(key);
+	}
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Passes every key to {@code action} without copying the entries; keys put
+	 * or removed meanwhile may or may not be seen.
+	 */
+	public void forEachKey(Consumer<String> action) {
+		entries.keySet().forEach(action);
+	}
+
+	/** Returns an unmodifiable copy of the current entries. */
+	public Map<String, String> snapshot() {
+		return Collections.unmodifiableMap(new HashMap<>(entries));
+	}
+
+	/** Durably records {@code key = value}; a no-op when the value is unchanged. */
+	public synchronized void put(String key, String value) throws IOException {
+		if (value.equals(entries.get(key))) {
+			return;
+		}
+		append(encode(OP_PUT, key, value));
+		entries.put(key, value);
+		compactIfNeeded();
+	}
+
+	/** Durably records all entries with a single forced write. */
+	public synchronized void putAll(Map<String, String> values) throws IOException {
+		ByteBuffer batch = ByteBuffer.allocate(0);
+		int records = 0;
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			if (entry.getValue().equals(entries.get(entry.getKey()))) {
+				continue;
+			}
+			ByteBuffer record = encode(OP_PUT, entry.getKey(), entry.getValue());
+			if (batch.remaining() < record.remaining()) {
+				ByteBuffer grown = ByteBuffer.allocate(Math.max(batch.capacity() * 2, batch.position() + record.remaining()));
+				batch.flip();
+				grown.put(batch);
+				batch = grown;
+			}
+			batch.put(record);
+			records++;
+		}
+		if (records == 0) {
+			return;
+		}
+		batch.flip();
+		writeFully(batch);
+		channel.force(false);
+		recordCount += records;
+		entries.putAll(values);
+		compactIfNeeded();
+	}
+
+	public synchronized void remove(String key) throws IOException {
+		if (!entries.containsKey(key)) {
+			return;
+		}
+		append(encode(OP_REMOVE, key, null));
+		entries.remove(key);
+		compactIfNeeded();
+	}
+
+	/** Durably removes all {@code keys} with a single forced write. */
+	public synchronized void removeAll(Collection<String> keys) throws IOException {
+		List<ByteBuffer> records = new ArrayList<>();
+		int length = 0;
+		for (String key : keys) {
+			if (entries.containsKey(key)) {
+				ByteBuffer record = encode(OP_REMOVE, key, null);
+				records.add(record);
+				length += record.remaining();
+			}
+		}
+		if (records.isEmpty()) {
+			return;
+		}
+		ByteBuffer batch = ByteBuffer.allocate(length);
+		records.forEach(batch::put);
+		batch.flip();
+		writeFully(batch);
+		channel.force(false);
+		recordCount += records.size();
+		entries.keySet().removeAll(keys);
+		compactIfNeeded();
+	}
+
+	/** Rewrites the log so it holds exactly one record per live entry. */
+	public synchronized void compact() throws IOException {
+		Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+		try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+			header.flip();
+			while (header.hasRemaining()) {
+				out.write(header);
+			}
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				ByteBuffer record = encode(OP_PUT, entry.getKey(), entry.getValue());
+				while (record.hasRemaining()) {
+					out.write(record);
+				}
+			}
+			out.force(true);
+		}
+		// the current log stays open until the rename is done, so a failed move leaves it in use
+		try {
+			Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(compacted);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		syncDirectory(file.toAbsolutePath().getParent());
+		FileChannel replaced = channel;
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			channel.position(channel.size());
+		} finally {
+			replaced.close();
+		}
+		recordCount = entries.size();
+		logger.debug("Compacted {} to {} entries", file, recordCount);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	private void replay() throws IOException {
+		long size = channel.size();
+		if (size == 0) {
+			ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+			header.flip();
+			writeFully(header);
+			channel.force(true);
+			return;
+		}
+		MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		if (size < 4 || log.getInt() != MAGIC) {
+			throw new IOException("Not a state journal: " + file);
+		}
+		CRC32 crc = new CRC32();
+		long validEnd = log.position();
+		while (log.remaining() >= RECORD_HEADER_BYTES) {
+			int length = log.getInt();
+			int checksum = log.getInt();
+			if (length <= 0 || length > log.remaining()) {
+				break;
+			}
+			ByteBuffer payload = log.slice();
+			payload.limit(length);
+			crc.reset();
+			crc.update(payload.duplicate());
+			if ((int) crc.getValue() != checksum || !apply(payload)) {
+				break;
+			}
+			log.position(log.position() + length);
+			validEnd = log.position();
+			recordCount++;
+		}
+		if (validEnd < size) {
+			logger.warn("Discarding {} bytes of torn or corrupt records at the end of {}", size - validEnd, file);
+			channel.truncate(validEnd);
+			channel.force(true);
+		}
+		channel.position(validEnd);
+	}
+
+	private boolean apply(ByteBuffer payload) {
+		try {
+			byte op = payload.get();
+			String key = readString(payload);
+			if (op == OP_PUT) {
+				entries.put(key, readString(payload));
+				return true;
+			}
+			if (op == OP_REMOVE) {
+				entries.remove(key);
+				return true;
+			}
+			return false;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	private void compactIfNeeded() throws IOException {
+		if (recordCount > MIN_RECORDS_BEFORE_COMPACTION && recordCount > (long) COMPACTION_FACTOR * entries.size()) {
+			compact();
+		}
+	}
+
+	/** Forces a rename in {@code directory} to disk, where the platform allows opening directories. */
+	private static void syncDirectory(Path directory) {
+		if (directory == null) {
+			return;
+		}
+		try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			logger.debug("Could not sync directory {}: {}", directory, e.getMessage());
+		}
+	}
+
+	private void append(ByteBuffer record) throws IOException {
+		writeFully(record);
+		channel.force(false);
+		recordCount++;
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static ByteBuffer encode(byte op, String key, String value) {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		byte[] valueBytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+		int length = 1 + 4 + keyBytes.length + (valueBytes == null ? 0 : 4 + valueBytes.length);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+		record.putInt(length).putInt(0).put(op).putInt(keyBytes.length).put(keyBytes);
+		if (valueBytes != null) {
+			record.putInt(valueBytes.length).put(valueBytes);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), RECORD_HEADER_BYTES, length);
+		record.putInt(4, (int) crc.getValue());
+		record.flip();
+		return record;
+	}
+
+	private static String readString(ByteBuffer payload) {
+		int length = payload.getInt();
+		byte[] bytes = new byte[length];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
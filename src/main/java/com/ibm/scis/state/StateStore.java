@@ -0,0 +1,87 @@
+package com.ibm.scis.state;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out named {@link StateJournal}s kept under {@code ibm.scis.state.dir}, so
+ * any component that needs durable processing state shares one implementation
+ * and one directory.
+ */
+@Component
+public class StateStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(StateStore.class);
+
+	private final Path stateDir;
+	private final Map<String, StateJournal> journals = new HashMap<>();
+
+	public StateStore(@Value("${ibm.scis.state.dir:state}") String stateDir) {
+		this.stateDir = Paths.get(stateDir);
+	}
+
+	/** Opens (once) and returns the journal called {@code name}. */
+	public synchronized StateJournal journal(String name) throws IOException {
+		StateJournal journal = journals.get(name);
+		if (journal == null) {
+			journal = StateJournal.open(stateDir.resolve(name + ".journal"));
+			journals.put(name, journal);
+			logger.info("Opened state journal {} with {} entries", journal.getFile(), journal.size());
+		}
+		return journal;
+	}
+
+	/**
+	 * Copies a map written by the former {@code ObjectOutputStream} state files
+	 * into {@code journal} when the journal is still empty, then renames the legacy
+	 * file to {@code *.migrated} so it is not imported again.
+	 */
+	public static void migrateLegacyState(Path legacyFile, StateJournal journal) {
+		if (!journal.isEmpty() || !Files.exists(legacyFile)) {
+			return;
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(legacyFile.toFile()))) {
+			Map<?, ?> legacyState = (Map<?, ?>) ois.readObject();
+			Map<String, String> entries = new HashMap<>();
+			legacyState.forEach((key, value) -> entries.put(String.valueOf(key), String.valueOf(value)));
+			journal.putAll(entries);
+		} catch (FileNotFoundException e) {
+			return;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			logger.error("Error migrating legacy state {}: {}", legacyFile, e.getMessage());
+			return;
+		}
+		try {
+			Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + ".migrated"),
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("Migrated {} but could not rename it: {}", legacyFile, e.getMessage());
+		}
+		logger.info("Migrated {} entries from {} to {}", journal.size(), legacyFile, journal.getFile());
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		for (StateJournal journal : journals.values()) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				logger.warn("Error closing state journal {}: {}", journal.getFile(), e.getMessage());
+			}
+		}
+		journals.clear();
+	}
+}
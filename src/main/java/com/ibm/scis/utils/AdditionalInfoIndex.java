@@ -0,0 +1,51 @@
+package com.ibm.scis.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Name to value index over a record's {@code additionalInfo} array, built in one
+ * pass so that each lookup is a hash probe instead of a scan of the array. When a
+ * name occurs more than once the first entry wins, as with the linear scan.
+ */
+public final class AdditionalInfoIndex {
+
+	private static final AdditionalInfoIndex EMPTY = new AdditionalInfoIndex(Collections.emptyMap());
+
+	private final Map<String, JsonNode> values;
+
+	private AdditionalInfoIndex(Map<String, JsonNode> values) {
+		this.values = values;
+	}
+
+	public static AdditionalInfoIndex of(JsonNode node) {
+		JsonNode additionalInfo = node.get("additionalInfo");
+		if (additionalInfo == null || additionalInfo.size() == 0) {
+			return EMPTY;
+		}
+		Map<String, JsonNode> values = new HashMap<>(additionalInfo.size() * 4 / 3 + 1);
+		for (JsonNode infoNode : additionalInfo) {
+			JsonNode nameNode = infoNode.get("name");
+			if (nameNode != null) {
+				values.putIfAbsent(nameNode.asText(), infoNode);
+			}
+		}
+		return new AdditionalInfoIndex(values);
+	}
+
+	/**
+	 * Returns the value recorded under {@code name}, or an empty string when the
+	 * entry is missing or holds {@code null}.
+	 */
+	public String get(String name) {
+		JsonNode infoNode = values.get(name);
+		if (infoNode == null) {
+			return "";
+		}
+		JsonNode valueNode = infoNode.get("value");
+		String value = valueNode == null ? null : valueNode.asText();
+		return (value == null || "null".equals(value)) ? "" : value;
+	}
+}
@@ -7,9 +7,15 @@ import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
 import com.ibm.cloud.objectstorage.services.s3.AmazonS3ClientBuilder;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import com.ibm.scis.jfr.CosRequestEventHandler;
+import com.ibm.scis.local.LocalCosConfig;
 import javax.net.ssl.SSLContext;
 import java.io.InputStream;
 import java.security.KeyStore;
@@ -17,8 +23,12 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 
 @Configuration
+@Profile("!" + LocalCosConfig.PROFILE)
+@EnableConfigurationProperties(CosClientProperties.class)
 public class COSConfig {
 
+	private static final Logger logger = LoggerFactory.getLogger(COSConfig.class);
+
 	@Value("${ibm.cos.endpoint}")
 	private String endpoint;
 
@@ -29,9 +39,10 @@ public class COSConfig {
 	private String hmacSecretKey;
 
 	@Bean
-	public AmazonS3 cosClient() throws Exception {
+	public AmazonS3 cosClient(CosClientProperties clientProperties) throws Exception {
 		BasicAWSCredentials awsCreds = new BasicAWSCredentials(hmacAccessKey, hmacSecretKey);
-		ClientConfiguration clientConfig = new ClientConfiguration().withRequestTimeout(5000);
+		ClientConfiguration clientConfig = clientProperties.toClientConfiguration();
+		logger.info("COS client settings: {}", clientProperties);
 
 		InputStream certInputStream = getClass().getClassLoader().getResourceAsStream("ibm-cos-cert.cer");
 		if (certInputStream == null) {
@@ -65,6 +76,6 @@ public class COSConfig {
 		return AmazonS3ClientBuilder.standard()
 				.withEndpointConfiguration(new AmazonS3ClientBuilder.EndpointConfiguration(endpoint, null))
 				.withCredentials(new AWSStaticCredentialsProvider(awsCreds)).withPathStyleAccessEnabled(true)
-				.withClientConfiguration(clientConfig).build();
+				.withClientConfiguration(clientConfig).withRequestHandlers(new CosRequestEventHandler()).build();
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
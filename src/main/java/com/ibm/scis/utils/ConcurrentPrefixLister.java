@@ -0,0 +1,98 @@
+package com.ibm.scis.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+
+/**
+ * Lists several folders of a bucket concurrently, one task per folder, with at
+ * most {@code ibm.scis.listing.parallelism} listing requests in flight across
+ * all callers. Only listing data is used, so a folder costs one request per
+ * page of up to 1000 objects.
+ */
+@Component
+public class ConcurrentPrefixLister {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConcurrentPrefixLister.class);
+
+	private final AmazonS3 cosClient;
+	private final Semaphore listingPermits;
+	private final ExecutorService listingExecutor;
+
+	public ConcurrentPrefixLister(AmazonS3 cosClient, @Value("${ibm.scis.listing.parallelism:4}") int parallelism) {
+		this.cosClient = cosClient;
+		int permits = Math.max(1, parallelism);
+		this.listingPermits = new Semaphore(permits);
+		this.listingExecutor = ConversionExecutors.newConversionExecutor("folder-listing", permits);
+	}
+
+	/**
+	 * Lists the objects directly inside each of {@code folderKeys} (with {@code /}
+	 * as delimiter). The result keeps the order of {@code folderKeys}.
+	 */
+	public Map<String, List<S3ObjectSummary>> listFolders(String bucketName, List<String> folderKeys) {
+		Map<String, Future<List<S3ObjectSummary>>> pending = new LinkedHashMap<>();
+		for (String folderKey : folderKeys) {
+			pending.computeIfAbsent(folderKey,
+					key -> listingExecutor.submit(() -> listFolder(bucketName, key)));
+		}
+		Map<String, List<S3ObjectSummary>> folders = new LinkedHashMap<>();
+		try {
+			for (Map.Entry<String, Future<List<S3ObjectSummary>>> entry : pending.entrySet()) {
+				folders.put(entry.getKey(), entry.getValue().get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			pending.values().forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Interrupted while listing bucket " + bucketName, e);
+		} catch (ExecutionException e) {
+			pending.values().forEach(future -> future.cancel(true));
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Error listing bucket " + bucketName, cause);
+		}
+		return folders;
+	}
+
+	private List<S3ObjectSummary> listFolder(String bucketName, String folderKey) throws InterruptedException {
+		listingPermits.acquire();
+		try {
+			ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketName).withPrefix(folderKey)
+					.withDelimiter("/");
+			List<S3ObjectSummary> summaries = new ArrayList<>();
+			ListObjectsV2Result result;
+			int pages = 0;
+			do {
+				result = cosClient.listObjectsV2(req);
+				summaries.addAll(result.getObjectSummaries());
+				req.setContinuationToken(result.getNextContinuationToken());
+				pages++;
+			} while (result.isTruncated());
+			logger.debug("Listed {} objects in {} page(s) under {}", summaries.size(), pages, folderKey);
+			return summaries;
+		} finally {
+			listingPermits.release();
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		listingExecutor.shutdownNow();
+	}
+}
@@ -0,0 +1,63 @@
+package com.ibm.scis.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executors for running whole conversions concurrently. Conversions spend most
+ * of their time waiting on COS, so a virtual thread per task is used when the
+ * runtime has them (Java 21+). The lookup is reflective so the application still
+ * builds and runs on Java 17, where a fixed pool of daemon threads is used
+ * instead.
+ */
+public final class ConversionExecutors {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConversionExecutors.class);
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+	private ConversionExecutors() {
+	}
+
+	private static Method findVirtualThreadExecutorFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	public static boolean virtualThreadsAvailable() {
+		return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+	}
+
+	/**
+	 * Returns a virtual-thread-per-task executor when available, otherwise a fixed
+	 * pool of {@code platformThreads} daemon threads named {@code namePrefix-N}.
+	 * Callers bound concurrency themselves; the virtual-thread executor is
+	 * unbounded.
+	 */
+	public static ExecutorService newConversionExecutor(String namePrefix, int platformThreads) {
+		if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+			} catch (ReflectiveOperationException e) {
+				logger.warn("Virtual threads unavailable, using platform threads: {}", e.getMessage());
+			}
+		}
+		return Executors.newFixedThreadPool(Math.max(1, platformThreads), daemonThreadFactory(namePrefix));
+	}
+
+	private static ThreadFactory daemonThreadFactory(String namePrefix) {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -0,0 +1,319 @@
+package com.ibm.scis.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+
+/**
+ * In-memory index of the flex bucket: key, size, ETag and last-modified time of
+ * every object, so prefix, folder and existence queries do not each page
+ * through the whole bucket.
+ * <p>
+ * The listed objects are held in a sorted snapshot of parallel arrays that is
+ * searched with binary search and replaced as a whole by a background refresh
+ * every {@code ibm.scis.index.refresh-interval-ms}. Uploads and deletes made by
+ * this application are applied to an overlay straight away, so they are visible
+ * before the next refresh; overlay entries are dropped once a listing that
+ * started after them has been taken. With {@code ibm.scis.index.enabled=false}
+ * every query lists the bucket again, as before.
+ */
+@Component
+public class CosBucketIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(CosBucketIndex.class);
+	private static final char PREFIX_END = '\uffff';
+
+	private final AmazonS3 cosClient;
+	private final String bucketName;
+	private final boolean enabled;
+
+	private final NavigableMap<String, OverlayEntry> overlay = new ConcurrentSkipListMap<>();
+	private final AtomicLong writeSequence = new AtomicLong();
+	private final Object refreshLock = new Object();
+	private volatile Snapshot snapshot;
+
+	public CosBucketIndex(AmazonS3 cosClient, @Value("${ibm.cos.bucket.flex}") String bucketName,
+			@Value("${ibm.scis.index.enabled:true}") boolean enabled) {
+		this.cosClient = cosClient;
+		this.bucketName = bucketName;
+		this.enabled = enabled;
+	}
+
+	public String getBucketName() {
+		return bucketName;
+	}
+
+	/** True when {@code bucket} is the bucket this index covers. */
+	public boolean covers(String bucket) {
+		return bucketName.equals(bucket);
+	}
+
+	/** Returns the listing data of {@code key}, or {@code null} when it does not exist. */
+	public S3ObjectSummary get(String key) {
+		OverlayEntry local = overlay.get(key);
+		if (local != null) {
+			return local.deleted ? null : local.summary;
+		}
+		Snapshot current = snapshot();
+		int index = Arrays.binarySearch(current.keys, key);
+		return index < 0 ? null : current.summary(index, bucketName);
+	}
+
+	public boolean exists(String key) {
+		return get(key) != null;
+	}
+
+	/** Lists every object whose key starts with {@code prefix}, in key order. */
+	public List<S3ObjectSummary> list(String prefix) {
+		Snapshot current = snapshot();
+		List<S3ObjectSummary> summaries = new ArrayList<>();
+		int index = current.firstIndexOf(prefix);
+		Iterator<OverlayEntry> local = overlay.subMap(prefix, true, prefix + PREFIX_END, false).values().iterator();
+		OverlayEntry next = local.hasNext() ? local.next() : null;
+		while (true) {
+			String listedKey = index < current.keys.length && current.keys[index].startsWith(prefix)
+					? current.keys[index]
+					: null;
+			if (listedKey == null && next == null) {
+				return summaries;
+			}
+			int order = listedKey == null ? 1 : next == null ? -1 : listedKey.compareTo(next.summary.getKey());
+			if (order < 0) {
+				summaries.add(current.summary(index++, bucketName));
+				continue;
+			}
+			if (order == 0) {
+				index++;
+			}
+			if (!next.deleted) {
+				summaries.add(next.summary);
+			}
+			next = local.hasNext() ? local.next() : null;
+		}
+	}
+
+	/** Lists all keys in the bucket, in key order. */
+	public List<String> listKeys() {
+		List<S3ObjectSummary> summaries = list("");
+		List<String> keys = new ArrayList<>(summaries.size());
+		for (S3ObjectSummary summary : summaries) {
+			keys.add(summary.getKey());
+		}
+		return keys;
+	}
+
+	/**
+	 * Lists the objects directly inside {@code folder}, as a listing with
+	 * {@code /} as delimiter would.
+	 */
+	public List<S3ObjectSummary> listFolder(String folder) {
+		List<S3ObjectSummary> files = new ArrayList<>();
+		for (S3ObjectSummary summary : list(folder)) {
+			if (summary.getKey().indexOf('/', folder.length()) < 0) {
+				files.add(summary);
+			}
+		}
+		return files;
+	}
+
+	/** Lists the common prefixes (sub-folders) directly below {@code folder}, sorted. */
+	public List<String> listSubFolders(String folder) {
+		List<String> folders = new ArrayList<>();
+		String last = null;
+		for (S3ObjectSummary summary : list(folder)) {
+			String key = summary.getKey();
+			int slash = key.indexOf('/', folder.length());
+			if (slash >= 0) {
+				String subFolder = key.substring(0, slash + 1);
+				if (!subFolder.equals(last)) {
+					folders.add(subFolder);
+					last = subFolder;
+				}
+			}
+		}
+		return folders;
+	}
+
+	/** Makes an object written by this application visible before the next refresh. */
+	public void recordPut(String bucket, String key, long size, String eTag) {
+		if (!covers(bucket)) {
+			return;
+		}
+		S3ObjectSummary summary = new S3ObjectSummary();
+		summary.setBucketName(bucketName);
+		summary.setKey(key);
+		summary.setSize(size);
+		summary.setETag(eTag);
+		summary.setLastModified(new Date());
+		overlay.put(key, new OverlayEntry(summary, false, writeSequence.incrementAndGet()));
+	}
+
+	/** Hides an object deleted by this application before the next refresh. */
+	public void recordDelete(String bucket, String key) {
+		if (!covers(bucket)) {
+			return;
+		}
+		S3ObjectSummary summary = new S3ObjectSummary();
+		summary.setBucketName(bucketName);
+		summary.setKey(key);
+		overlay.put(key, new OverlayEntry(summary, true, writeSequence.incrementAndGet()));
+	}
+
+	/** Number of objects in the current snapshot, not counting local writes. */
+	public int size() {
+		Snapshot current = snapshot;
+		return current == null ? 0 : current.keys.length;
+	}
+
+	@Scheduled(fixedDelayString = "${ibm.scis.index.refresh-interval-ms:60000}",
+			initialDelayString = "${ibm.scis.index.refresh-interval-ms:60000}")
+	public void scheduledRefresh() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			refresh();
+		} catch (RuntimeException e) {
+			logger.error("Error refreshing index of bucket {}: {}", bucketName, e.getMessage());
+		}
+	}
+
+	/** Lists the bucket and replaces the snapshot, keeping local writes made meanwhile. */
+	public void refresh() {
+		synchronized (refreshLock) {
+			long sequence = writeSequence.get();
+			long start = System.nanoTime();
+			snapshot = Snapshot.list(cosClient, bucketName);
+			for (Map.Entry<String, OverlayEntry> entry : overlay.entrySet()) {
+				if (entry.getValue().sequence <= sequence) {
+					overlay.remove(entry.getKey(), entry.getValue());
+				}
+			}
+			logger.info("Indexed {} objects in bucket {} in {} ms", snapshot.keys.length, bucketName,
+					(System.nanoTime() - start) / 1_000_000);
+		}
+	}
+
+	private Snapshot snapshot() {
+		Snapshot current = snapshot;
+		if (current != null && enabled) {
+			return current;
+		}
+		synchronized (refreshLock) {
+			if (snapshot == null || !enabled) {
+				refresh();
+			}
+			return snapshot;
+		}
+	}
+
+	private static final class OverlayEntry {
+		final S3ObjectSummary summary;
+		final boolean deleted;
+		final long sequence;
+
+		OverlayEntry(S3ObjectSummary summary, boolean deleted, long sequence) {
+			this.summary = summary;
+			this.deleted = deleted;
+			this.sequence = sequence;
+		}
+	}
+
+	/** Immutable, key-sorted listing stored as parallel arrays. */
+	private static final class Snapshot {
+		final String[] keys;
+		final long[] sizes;
+		final long[] lastModified;
+		final String[] eTags;
+
+		private Snapshot(String[] keys, long[] sizes, long[] lastModified, String[] eTags) {
+			this.keys = keys;
+			this.sizes = sizes;
+			this.lastModified = lastModified;
+			this.eTags = eTags;
+		}
+
+		/** Listings are returned in key order, so the pages are appended as they come. */
+		static Snapshot list(AmazonS3 cosClient, String bucketName) {
+			int count = 0;
+			String[] keys = new String[1024];
+			long[] sizes = new long[1024];
+			long[] lastModified = new long[1024];
+			String[] eTags = new String[1024];
+			boolean sorted = true;
+			ListObjectsV2Request req = new ListObjectsV2Request().withBucketName(bucketName);
+			ListObjectsV2Result result;
+			do {
+				result = cosClient.listObjectsV2(req);
+				for (S3ObjectSummary summary : result.getObjectSummaries()) {
+					if (count == keys.length) {
+						int capacity = keys.length * 2;
+						keys = Arrays.copyOf(keys, capacity);
+						sizes = Arrays.copyOf(sizes, capacity);
+						lastModified = Arrays.copyOf(lastModified, capacity);
+						eTags = Arrays.copyOf(eTags, capacity);
+					}
+					keys[count] = summary.getKey();
+					sizes[count] = summary.getSize();
+					lastModified[count] = summary.getLastModified() == null ? 0 : summary.getLastModified().getTime();
+					eTags[count] = summary.getETag();
+					sorted &= count == 0 || keys[count - 1].compareTo(keys[count]) < 0;
+					count++;
+				}
+				req.setContinuationToken(result.getNextContinuationToken());
+			} while (result.isTruncated());
+			Snapshot snapshot = new Snapshot(Arrays.copyOf(keys, count), Arrays.copyOf(sizes, count),
+					Arrays.copyOf(lastModified, count), Arrays.copyOf(eTags, count));
+			return sorted ? snapshot : snapshot.sorted();
+		}
+
+		private Snapshot sorted() {
+			Integer[] order = new Integer[keys.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+			String[] sortedKeys = new String[keys.length];
+			long[] sortedSizes = new long[keys.length];
+			long[] sortedLastModified = new long[keys.length];
+			String[] sortedETags = new String[keys.length];
+			for (int i = 0; i < order.length; i++) {
+				sortedKeys[i] = keys[order[i]];
+				sortedSizes[i] = sizes[order[i]];
+				sortedLastModified[i] = lastModified[order[i]];
+				sortedETags[i] = eTags[order[i]];
+			}
+			return new Snapshot(sortedKeys, sortedSizes, sortedLastModified, sortedETags);
+		}
+
+		int firstIndexOf(String prefix) {
+			int index = Arrays.binarySearch(keys, prefix);
+			return index < 0 ? -index - 1 : index;
+		}
+
+		S3ObjectSummary summary(int index, String bucketName) {
+			S3ObjectSummary summary = new S3ObjectSummary();
+			summary.setBucketName(bucketName);
+			summary.setKey(keys[index]);
+			summary.setSize(sizes[index]);
+			summary.setLastModified(new Date(lastModified[index]));
+			summary.setETag(eTags[index]);
+			return summary;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package com.ibm.scis.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import com.ibm.cloud.objectstorage.AmazonClientException;
+import com.ibm.cloud.objectstorage.AmazonServiceException;
+import com.ibm.cloud.objectstorage.AmazonWebServiceRequest;
+import com.ibm.cloud.objectstorage.ClientConfiguration;
+import com.ibm.cloud.objectstorage.retry.PredefinedRetryPolicies;
+import com.ibm.cloud.objectstorage.retry.RetryPolicy;
+import com.ibm.cloud.objectstorage.retry.RetryUtils;
+
+/**
+ * HTTP settings of the COS client, bound from {@code ibm.cos.client.*}. The
+ * defaults are those of the SDK, except for the 5 second request timeout the
+ * client has always used.
+ * <p>
+ * The pool size bounds how many COS requests can be in flight at once; it
+ * should be at least the sum of the listing, upload and conversion
+ * parallelism. TCP_NODELAY is always set by the SDK's HTTP client and is not
+ * configurable.
+ */
+@ConfigurationProperties(prefix = "ibm.cos.client")
+public class CosClientProperties {
+
+	/** Maximum number of pooled HTTP connections. */
+	private int maxConnections = ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
+
+	/** Time to establish a connection, in milliseconds. */
+	private int connectionTimeoutMs = ClientConfiguration.DEFAULT_CONNECTION_TIMEOUT;
+
+	/** Time to wait for data on an open connection, in milliseconds. */
+	private int socketTimeoutMs = ClientConfiguration.DEFAULT_SOCKET_TIMEOUT;
+
+	/** Time allowed for one HTTP request, in milliseconds; 0 disables it. */
+	private int requestTimeoutMs = 5000;
+
+	/** Time allowed for a whole call including retries, in milliseconds; 0 disables it. */
+	private int clientExecutionTimeoutMs = ClientConfiguration.DEFAULT_CLIENT_EXECUTION_TIMEOUT;
+
+	/** Maximum lifetime of a pooled connection, in milliseconds; -1 keeps it forever. */
+	private long connectionTtlMs = ClientConfiguration.DEFAULT_CONNECTION_TTL;
+
+	/** Idle time after which a pooled connection is closed, in milliseconds. */
+	private long connectionMaxIdleMs = ClientConfiguration.DEFAULT_CONNECTION_MAX_IDLE_MILLIS;
+
+	/** Idle time after which a pooled connection is checked before reuse, in milliseconds. */
+	private int validateAfterInactivityMs = ClientConfiguration.DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+	/** Whether TCP keep-alive probes are sent on pooled connections. */
+	private boolean tcpKeepAlive = ClientConfiguration.DEFAULT_TCP_KEEP_ALIVE;
+
+	private final Retry retry = new Retry();
+
+	/** Builds the SDK client configuration described by these properties. */
+	public ClientConfiguration toClientConfiguration() {
+		return new ClientConfiguration().withMaxConnections(maxConnections)
+				.withConnectionTimeout(connectionTimeoutMs).withSocketTimeout(socketTimeoutMs)
+				.withRequestTimeout(requestTimeoutMs).withClientExecutionTimeout(clientExecutionTimeoutMs)
+				.withConnectionTTL(connectionTtlMs).withConnectionMaxIdleMillis(connectionMaxIdleMs)
+				.withValidateAfterInactivityMillis(validateAfterInactivityMs).withTcpKeepAlive(tcpKeepAlive)
+				.withRetryPolicy(retry.toRetryPolicy());
+	}
+
+	@Override
+	public String toString() {
+		return "maxConnections=" + maxConnections + ", connectionTimeoutMs=" + connectionTimeoutMs
+				+ ", socketTimeoutMs=" + socketTimeoutMs + ", requestTimeoutMs=" + requestTimeoutMs
+				+ ", clientExecutionTimeoutMs=" + clientExecutionTimeoutMs + ", connectionTtlMs=" + connectionTtlMs
+				+ ", connectionMaxIdleMs=" + connectionMaxIdleMs + ", validateAfterInactivityMs="
+				+ validateAfterInactivityMs + ", tcpKeepAlive=" + tcpKeepAlive + ", retry=" + retry;
+	}
+
+	/**
+	 * Retries of failed requests, bound from {@code ibm.cos.client.retry.*}.
+	 * Requests are retried on the SDK's retryable errors (I/O errors, 5xx,
+	 * throttling, clock skew) after a full-jitter exponential backoff: a random
+	 * delay between 0 and {@code min(max-backoff, base * 2^attempt)}. 503 and
+	 * {@code SlowDown} responses start from the larger throttled base delay, so
+	 * that many clients backing off together spread their retries out instead
+	 * of coming back in step.
+	 */
+	public static class Retry {
+
+		/** Retries after the first attempt. */
+		private int maxRetries = PredefinedRetryPolicies.DEFAULT_MAX_ERROR_RETRY;
+
+		/** Base delay for ordinary retryable errors, in milliseconds. */
+		private int baseDelayMs = 100;
+
+		/** Base delay after a 503 or throttling response, in milliseconds. */
+		private int throttledBaseDelayMs = 500;
+
+		/** Upper bound of a single delay, in milliseconds. */
+		private int maxBackoffMs = 20000;
+
+		RetryPolicy toRetryPolicy() {
+			return new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
+					new JitteredBackoff(baseDelayMs, throttledBaseDelayMs, maxBackoffMs), maxRetries, false);
+		}
+
+		public int getMaxRetries() {
+			return maxRetries;
+		}
+
+		public void setMaxRetries(int maxRetries) {
+			this.maxRetries = maxRetries;
+		}
+
+		public int getBaseDelayMs() {
+			return baseDelayMs;
+		}
+
+		public void setBaseDelayMs(int baseDelayMs) {
+			this.baseDelayMs = baseDelayMs;
+		}
+
+		public int getThrottledBaseDelayMs() {
+			return throttledBaseDelayMs;
+		}
+
+		public void setThrottledBaseDelayMs(int throttledBaseDelayMs) {
+			this.throttledBaseDelayMs = throttledBaseDelayMs;
+		}
+
+		public int getMaxBackoffMs() {
+			return maxBackoffMs;
+		}
+
+		public void setMaxBackoffMs(int maxBackoffMs) {
+			this.maxBackoffMs = maxBackoffMs;
+		}
+
+		@Override
+		public String toString() {
+			return "{maxRetries=" + maxRetries + ", baseDelayMs=" + baseDelayMs + ", throttledBaseDelayMs="
+					+ throttledBaseDelayMs + ", maxBackoffMs=" + maxBackoffMs + "}";
+		}
+	}
+
+	/** Full-jitter exponential backoff with a separate base delay for throttling. */
+	static final class JitteredBackoff implements RetryPolicy.BackoffStrategy {
+
+		private static final int MAX_EXPONENT = 30;
+
+		private final int baseDelayMs;
+		private final int throttledBaseDelayMs;
+		private final int maxBackoffMs;
+
+		JitteredBackoff(int baseDelayMs, int throttledBaseDelayMs, int maxBackoffMs) {
+			this.baseDelayMs = Math.max(1, baseDelayMs);
+			this.throttledBaseDelayMs = Math.max(1, throttledBaseDelayMs);
+			this.maxBackoffMs = Math.max(1, maxBackoffMs);
+		}
+
+		@Override
+		public long delayBeforeNextRetry(AmazonWebServiceRequest originalRequest, AmazonClientException exception,
+				int retriesAttempted) {
+			long base = isThrottled(exception) ? throttledBaseDelayMs : baseDelayMs;
+			long ceiling = Math.min(maxBackoffMs, base << Math.min(Math.max(retriesAttempted, 0), MAX_EXPONENT));
+			return ThreadLocalRandom.current().nextLong(ceiling + 1);
+		}
+
+		static boolean isThrottled(AmazonClientException exception) {
+			if (exception instanceof AmazonServiceException) {
+				AmazonServiceException serviceException = (AmazonServiceException) exception;
+				return serviceException.getStatusCode() == 503 || RetryUtils.isThrottlingException(serviceException);
+			}
+			return false;
+		}
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public int getConnectionTimeoutMs() {
+		return connectionTimeoutMs;
+	}
+
+	public void setConnectionTimeoutMs(int connectionTimeoutMs) {
+		this.connectionTimeoutMs = connectionTimeoutMs;
+	}
+
+	public int getSocketTimeoutMs() {
+		return socketTimeoutMs;
+	}
+
+	public void setSocketTimeoutMs(int socketTimeoutMs) {
+		this.socketTimeoutMs = socketTimeoutMs;
+	}
+
+	public int getRequestTimeoutMs() {
+		return requestTimeoutMs;
+	}
+
+	public void setRequestTimeoutMs(int requestTimeoutMs) {
+		this.requestTimeoutMs = requestTimeoutMs;
+	}
+
+	public int getClientExecutionTimeoutMs() {
+		return clientExecutionTimeoutMs;
+	}
+
+	public void setClientExecutionTimeoutMs(int clientExecutionTimeoutMs) {
+		this.clientExecutionTimeoutMs = clientExecutionTimeoutMs;
+	}
+
+	public long getConnectionTtlMs() {
+		return connectionTtlMs;
+	}
+
+	public void setConnectionTtlMs(long connectionTtlMs) {
+		this.connectionTtlMs = connectionTtlMs;
+	}
+
+	public long getConnectionMaxIdleMs() {
+		return connectionMaxIdleMs;
+	}
+
+	public void setConnectionMaxIdleMs(long connectionMaxIdleMs) {
+		this.connectionMaxIdleMs = connectionMaxIdleMs;
+	}
+
+	public int getValidateAfterInactivityMs() {
+		return validateAfterInactivityMs;
+	}
+
+	public void setValidateAfterInactivityMs(int validateAfterInactivityMs) {
+		this.validateAfterInactivityMs = validateAfterInactivityMs;
+	}
+
+	public boolean isTcpKeepAlive() {
+		return tcpKeepAlive;
+	}
+
+	public void setTcpKeepAlive(boolean tcpKeepAlive) {
+		this.tcpKeepAlive = tcpKeepAlive;
+	}
+
+	public Retry getRetry() {
+		return retry;
+	}
+}
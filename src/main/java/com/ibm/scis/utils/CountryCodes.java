@@ -0,0 +1,86 @@
+package com.ibm.scis.utils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+/**
+ * Immutable ISO 3166 alpha-2/alpha-3 lookup table, built once from every country
+ * the JDK knows about.
+ */
+public final class CountryCodes {
+
+	public static final String INVALID_COUNTRY_CODE = "Invalid country code";
+
+	private static final Map<String, String> ISO2_TO_ISO3;
+	private static final Map<String, String> ISO3_TO_ISO2;
+
+	static {
+		Map<String, String> iso2ToIso3 = new HashMap<>();
+		Map<String, String> iso3ToIso2 = new HashMap<>();
+		for (String country : Locale.getISOCountries()) {
+			register(new Locale("", country), iso2ToIso3, iso3ToIso2);
+		}
+		for (Locale locale : Locale.getAvailableLocales()) {
+			register(locale, iso2ToIso3, iso3ToIso2);
+		}
+		ISO2_TO_ISO3 = Map.copyOf(iso2ToIso3);
+		ISO3_TO_ISO2 = Map.copyOf(iso3ToIso2);
+	}
+
+	private CountryCodes() {
+	}
+
+	private static void register(Locale locale, Map<String, String> iso2ToIso3, Map<String, String> iso3ToIso2) {
+		String iso2 = locale.getCountry();
+		if (iso2.length() != 2 || iso2ToIso3.containsKey(iso2)) {
+			return;
+		}
+		try {
+			String iso3 = locale.getISO3Country();
+			if (iso3.length() == 3) {
+				iso2ToIso3.put(iso2, iso3);
+				iso3ToIso2.putIfAbsent(iso3, iso2);
+			}
+		} catch (MissingResourceException e) {
+			// retired codes such as CS have no alpha-3 equivalent
+		}
+	}
+
+	/**
+	 * Returns two-letter codes unchanged and maps known three-letter codes to their
+	 * two-letter form.
+	 */
+	public static String toIso2(String code) {
+		if (code != null) {
+			if (code.length() == 2) {
+				return code;
+			} else if (code.length() == 3) {
+				String iso2 = ISO3_TO_ISO2.get(code);
+				if (iso2 != null) {
+					return iso2;
+				}
+			}
+		}
+		return INVALID_COUNTRY_CODE;
+	}
+
+	/**
+	 * Returns three-letter codes unchanged and maps known two-letter codes to their
+	 * three-letter form.
+	 */
+	public static String toIso3(String code) {
+		if (code != null) {
+			if (code.length() == 2) {
+				String iso3 = ISO2_TO_ISO3.get(code);
+				if (iso3 != null) {
+					return iso3;
+				}
+			} else if (code.length() == 3) {
+				return code;
+			}
+		}
+		return INVALID_COUNTRY_CODE;
+	}
+}
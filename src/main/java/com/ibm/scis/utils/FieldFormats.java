@@ -0,0 +1,280 @@
+package com.ibm.scis.utils;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formatting for the fixed output shapes written to the CSV and JSON exports: one
+ * fraction digit ({@code DecimalFormat("#.0")}) and
+ * {@code yyyy-MM-dd'T'HH:mm:ss.SSSSSS} timestamps.
+ * <p>
+ * Common inputs are formatted into a per-thread {@link StringBuilder}, so the
+ * result string is the only allocation. Anything outside the fast path (very
+ * large numbers, years outside 1-9999, offsets other than {@code Z}, localised
+ * digits) falls back to the JDK formatters, so the output is byte-identical to
+ * them either way. Decimal symbols are read from the default locale once at
+ * class initialisation.
+ */
+public final class FieldFormats {
+
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+	private static final String START_OF_DAY = "T00:00:00.000000";
+	private static final String END_OF_DAY = "T23:59:59.999999";
+
+	/** Values at or above this magnitude are left to DecimalFormat. */
+	private static final double FAST_DECIMAL_LIMIT = 1e14;
+
+	private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+	private static final ThreadLocal<DecimalFormat> ONE_DECIMAL_FORMAT = ThreadLocal
+			.withInitial(FieldFormats::newOneDecimalFormat);
+
+	private static final boolean ASCII_DIGITS;
+	private static final char DECIMAL_SEPARATOR;
+	private static final char MINUS_SIGN;
+
+	static {
+		DecimalFormatSymbols symbols = newOneDecimalFormat().getDecimalFormatSymbols();
+		ASCII_DIGITS = symbols.getZeroDigit() == '0';
+		DECIMAL_SEPARATOR = symbols.getDecimalSeparator();
+		MINUS_SIGN = symbols.getMinusSign();
+	}
+
+	private FieldFormats() {
+	}
+
+	private static DecimalFormat newOneDecimalFormat() {
+		DecimalFormat decimalFormat = new DecimalFormat("#.0");
+		decimalFormat.setMinimumFractionDigits(1);
+		decimalFormat.setMaximumFractionDigits(1);
+		return decimalFormat;
+	}
+
+	private static StringBuilder buffer() {
+		StringBuilder sb = BUFFER.get();
+		sb.setLength(0);
+		return sb;
+	}
+
+	/**
+	 * Formats a numeric string with exactly one fraction digit. Empty, null and
+	 * non-numeric values are returned unchanged.
+	 */
+	public static String formatOneDecimal(String value) {
+		if (value == null || value.isEmpty()) {
+			return value;
+		}
+		double number;
+		try {
+			number = Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return value;
+		}
+		StringBuilder sb = buffer();
+		appendOneDecimal(sb, number);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends {@code value} as {@code DecimalFormat("#.0")} would: HALF_EVEN on the
+	 * exact binary value, no leading zero, and the sign kept on negative zero.
+	 */
+	public static void appendOneDecimal(StringBuilder sb, double value) {
+		double magnitude = Math.abs(value);
+		if (!ASCII_DIGITS || !(magnitude < FAST_DECIMAL_LIMIT)) {
+			sb.append(ONE_DECIMAL_FORMAT.get().format(value));
+			return;
+		}
+
+		// floor(10 * magnitude), corrected for rounding in the multiplication
+		long tenths = (long) (magnitude * 10);
+		if (Math.fma(magnitude, 10, -tenths) < 0) {
+			tenths--;
+		} else if (Math.fma(magnitude, 10, -(tenths + 1)) >= 0) {
+			tenths++;
+		}
+		// compare against the exact midpoint (2 * tenths + 1) / 20
+		double towardsMidpoint = Math.fma(magnitude, 20, -(2 * tenths + 1));
+		if (towardsMidpoint > 0 || (towardsMidpoint == 0 && (tenths & 1) != 0)) {
+			tenths++;
+		}
+
+		if (Double.doubleToRawLongBits(value) < 0) {
+			sb.append(MINUS_SIGN);
+		}
+		long integerPart = tenths / 10;
+		if (integerPart != 0) {
+			sb.append(integerPart);
+		}
+		sb.append(DECIMAL_SEPARATOR).append((char) ('0' + tenths % 10));
+	}
+
+	public static String formatDateTime(LocalDateTime dateTime) {
+		StringBuilder sb = buffer();
+		appendDateTime(sb, dateTime);
+		return sb.toString();
+	}
+
+	/** Appends {@code dateTime} as {@code yyyy-MM-dd'T'HH:mm:ss.SSSSSS}. */
+	public static void appendDateTime(StringBuilder sb, LocalDateTime dateTime) {
+		int year = dateTime.getYear();
+		if (year < 1 || year > 9999) {
+			sb.append(dateTime.format(DATE_TIME_FORMATTER));
+			return;
+		}
+		appendDigits(sb, year, 4).append('-');
+		appendDigits(sb, dateTime.getMonthValue(), 2).append('-');
+		appendDigits(sb, dateTime.getDayOfMonth(), 2).append('T');
+		appendDigits(sb, dateTime.getHour(), 2).append(':');
+		appendDigits(sb, dateTime.getMinute(), 2).append(':');
+		appendDigits(sb, dateTime.getSecond(), 2).append('.');
+		appendDigits(sb, dateTime.getNano() / 1000, 6);
+	}
+
+	/**
+	 * Expands an ISO local date to the first or last microsecond of that day.
+	 * Values that are not a valid ISO date are returned unchanged.
+	 */
+	public static String formatDayBoundary(String date, boolean isStart) {
+		if (date == null || date.isEmpty()) {
+			return date;
+		}
+		if (date.length() == 10 && isSimpleDate(date)) {
+			return date + (isStart ? START_OF_DAY : END_OF_DAY);
+		}
+		try {
+			LocalDate localDate = LocalDate.parse(date);
+			LocalDateTime localDateTime = isStart ? localDate.atStartOfDay()
+					: localDate.atTime(23, 59, 59, 999999999);
+			return localDateTime.format(DATE_TIME_FORMATTER);
+		} catch (Exception e) {
+			return date;
+		}
+	}
+
+	/**
+	 * Re-renders an {@link DateTimeFormatter#ISO_DATE_TIME} value as
+	 * {@code yyyy-MM-dd'T'HH:mm:ss.SSSSSS}, ignoring any offset or zone. Throws
+	 * {@link java.time.format.DateTimeParseException} for unparseable input.
+	 */
+	public static String reformatIsoDateTime(String text) {
+		StringBuilder sb = buffer();
+		if (!appendSimpleIsoDateTime(sb, text)) {
+			sb.setLength(0);
+			appendDateTime(sb, LocalDateTime.parse(text, DateTimeFormatter.ISO_DATE_TIME));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Handles {@code yyyy-MM-ddTHH:mm[:ss[.fraction]][Z]}; returns false for
+	 * anything else so the caller can fall back to the JDK parser.
+	 */
+	private static boolean appendSimpleIsoDateTime(StringBuilder sb, String text) {
+		int length = text.length();
+		if (length > 0 && text.charAt(length - 1) == 'Z') {
+			length--;
+		}
+		if (length < 16 || !isSimpleDate(text) || text.charAt(10) != 'T' || text.charAt(13) != ':') {
+			return false;
+		}
+		int hour = twoDigits(text, 11);
+		int minute = twoDigits(text, 14);
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+			return false;
+		}
+		int second = 0;
+		int fraction = 0;
+		int fractionDigits = 0;
+		if (length > 16) {
+			if (length < 19 || text.charAt(16) != ':') {
+				return false;
+			}
+			second = twoDigits(text, 17);
+			if (second < 0 || second > 59) {
+				return false;
+			}
+			if (length > 19) {
+				if (text.charAt(19) != '.' || length == 20 || length > 29) {
+					return false;
+				}
+				for (int i = 20; i < length; i++) {
+					char c = text.charAt(i);
+					if (c < '0' || c > '9') {
+						return false;
+					}
+					if (fractionDigits < 6) {
+						fraction = fraction * 10 + (c - '0');
+						fractionDigits++;
+					}
+				}
+			}
+		}
+		for (; fractionDigits < 6; fractionDigits++) {
+			fraction *= 10;
+		}
+		sb.append(text, 0, 11);
+		appendDigits(sb, hour, 2).append(':');
+		appendDigits(sb, minute, 2).append(':');
+		appendDigits(sb, second, 2).append('.');
+		appendDigits(sb, fraction, 6);
+		return true;
+	}
+
+	/** True when {@code text} starts with a valid {@code yyyy-MM-dd} date with a year of 1-9999. */
+	private static boolean isSimpleDate(String text) {
+		if (text.length() < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+			return false;
+		}
+		int century = twoDigits(text, 0);
+		int yearOfCentury = twoDigits(text, 2);
+		int month = twoDigits(text, 5);
+		int day = twoDigits(text, 8);
+		if (century < 0 || yearOfCentury < 0 || month < 1 || month > 12 || day < 1) {
+			return false;
+		}
+		int year = century * 100 + yearOfCentury;
+		return year >= 1 && day <= lengthOfMonth(year, month);
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return ((year & 3) == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	private static int twoDigits(String text, int offset) {
+		char tens = text.charAt(offset);
+		char units = text.charAt(offset + 1);
+		if (tens < '0' || tens > '9' || units < '0' || units > '9') {
+			return -1;
+		}
+		return (tens - '0') * 10 + (units - '0');
+	}
+
+	private static StringBuilder appendDigits(StringBuilder sb, int value, int width) {
+		for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+			sb.append((char) ('0' + (value / divisor) % 10));
+		}
+		return sb;
+	}
+
+	private static int pow10(int exponent) {
+		int result = 1;
+		for (int i = 0; i < exponent; i++) {
+			result *= 10;
+		}
+		return result;
+	}
+}
@@ -5,26 +5,48 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.cloud.objectstorage.services.s3.AmazonS3;
 import com.ibm.cloud.objectstorage.services.s3.model.AmazonS3Exception;
+import com.ibm.cloud.objectstorage.services.s3.model.CopyObjectResult;
 import com.ibm.cloud.objectstorage.services.s3.model.PutObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectResult;
 import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import com.ibm.scis.pipeline.CompressionCodec;
+import com.ibm.scis.pipeline.CosUploadOutputStream;
+import com.ibm.scis.pipeline.OutputCompression;
 
 @Component
 public class ServiceUtil {
 
 	private static final Logger logger = LoggerFactory.getLogger(ServiceUtil.class);
 	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmssSSS");
+	private static final ConcurrentMap<String, JsonPointer> JSON_POINTERS = new ConcurrentHashMap<>();
+
+	@Autowired
+	private CosBucketIndex bucketIndex;
+
+	@Autowired
+	private OutputCompression outputCompression;
 
 	public static S3Object fetchJsonFromCos(AmazonS3 cosClient, String bucketName, String jsonFileName)
 			throws AmazonS3Exception {
@@ -54,8 +76,69 @@ public class ServiceUtil {
 		return File.createTempFile(prefix, suffix);
 	}
 
-	public static void uploadFileToCos(AmazonS3 cosClient, String bucketName, String cosKey, File file) {
-		cosClient.putObject(new PutObjectRequest(bucketName, cosKey, file));
+	/**
+	 * Uploads {@code file} and records the new object in the bucket index. When
+	 * {@link OutputCompression} has a codec for {@code cosKey}, the file is
+	 * compressed while it is read and uploaded under the codec's key for
+	 * {@code cosKey}; the file itself is left as it is.
+	 */
+	public void uploadFileToCos(AmazonS3 cosClient, String bucketName, String cosKey, File file)
+			throws IOException {
+		CompressionCodec codec = outputCompression.codecFor(cosKey);
+		if (codec == CompressionCodec.NONE) {
+			PutObjectResult result = cosClient.putObject(new PutObjectRequest(bucketName, cosKey, file));
+			bucketIndex.recordPut(bucketName, cosKey, file.length(), result == null ? null : result.getETag());
+			return;
+		}
+		String compressedKey = codec.keyFor(cosKey);
+		try (CosUploadOutputStream upload = new CosUploadOutputStream(cosClient, bucketName, compressedKey,
+				CosUploadOutputStream.MIN_PART_SIZE, codec.getContentType(), bucketIndex::recordPut)) {
+			try (OutputStream out = codec.compress(upload)) {
+				Files.copy(file.toPath(), out);
+			}
+			upload.complete();
+			logger.info("Uploaded {}: {} of {} bytes", compressedKey, upload.getTotalBytes(), file.length());
+		}
+	}
+
+	/**
+	 * Copies an input that could not be converted to {@code dead-files/} with a
+	 * server-side copy, so the bytes are kept exactly and nothing passes through
+	 * this process. Existence is taken from the bucket index; a key the index does
+	 * not know yet (it may have arrived since the last refresh) is confirmed with
+	 * a single HEAD request. Failures are logged, not thrown.
+	 */
+	public void moveToDeadFolder(AmazonS3 cosClient, String bucketName, String key) {
+		String deadFolderKey = "dead-files/" + Paths.get(key).getFileName().toString();
+		try {
+			Long size = objectSize(cosClient, bucketName, key);
+			if (size == null) {
+				logger.error("File does not exist: {}", key);
+				return;
+			}
+			CopyObjectResult result = cosClient.copyObject(bucketName, key, bucketName, deadFolderKey);
+			bucketIndex.recordPut(bucketName, deadFolderKey, size, result == null ? null : result.getETag());
+			logger.info("Moved file to dead folder: {}", deadFolderKey);
+		} catch (Exception e) {
+			logger.error("Failed to move file to dead folder: {}", key, e);
+		}
+	}
+
+	private Long objectSize(AmazonS3 cosClient, String bucketName, String key) {
+		if (bucketIndex.covers(bucketName)) {
+			S3ObjectSummary summary = bucketIndex.get(key);
+			if (summary != null) {
+				return summary.getSize();
+			}
+		}
+		try {
+			return cosClient.getObjectMetadata(bucketName, key).getContentLength();
+		} catch (AmazonS3Exception e) {
+			if (e.getStatusCode() == 404) {
+				return null;
+			}
+			throw e;
+		}
 	}
 
 	public static String formatDateTime(LocalDateTime dateTime) {
@@ -63,11 +146,60 @@ public class ServiceUtil {
 	}
 
 	public static String getNodeText(JsonNode node, String fieldName) {
-		JsonNode fieldNode = node.at("/" + fieldName.replace(".", "/"));
-		return fieldNode != null && !fieldNode.isMissingNode() ? fieldNode.asText() : "";
+		return getNodeText(node, fieldName, false);
+	}
+
+	public static String getNodeText(JsonNode node, String fieldName, boolean returnNullIfMissing) {
+		JsonNode fieldNode = node.at(jsonPointer(fieldName));
+		if (fieldNode != null && !fieldNode.isMissingNode()) {
+			return fieldNode.asText();
+		} else {
+			return returnNullIfMissing ? null : "";
+		}
+	}
+
+	/**
+	 * Returns the compiled pointer for a dotted field name such as
+	 * {@code product.partNumber}. Pointers are compiled once and shared, so field
+	 * lookups on the per-record path do not rebuild or re-parse the path.
+	 */
+	public static JsonPointer jsonPointer(String fieldName) {
+		JsonPointer pointer = JSON_POINTERS.get(fieldName);
+		if (pointer == null) {
+			pointer = JSON_POINTERS.computeIfAbsent(fieldName,
+					name -> JsonPointer.compile("/" + name.replace(".", "/")));
+		}
+		return pointer;
 	}
 
 	public static String readJsonData(InputStream cosJsonInputStream) throws IOException {
 		return new BufferedReader(new InputStreamReader(cosJsonInputStream)).lines().collect(Collectors.joining("\n"));
 	}
+
+	/**
+	 * Opens a streaming parser over a JSON array. Returns {@code null} when the
+	 * input does not start with an array; the parser is then already closed.
+	 */
+	public static JsonParser createArrayParser(ObjectMapper objectMapper, InputStream cosJsonInputStream)
+			throws IOException {
+		JsonParser parser = objectMapper.getFactory().createParser(cosJsonInputStream);
+		if (parser.nextToken() != JsonToken.START_ARRAY) {
+			parser.close();
+			return null;
+		}
+		return parser;
+	}
+
+	/**
+	 * Reads the next element of an array opened with
+	 * {@link #createArrayParser(ObjectMapper, InputStream)}, or {@code null} once
+	 * the array is exhausted. Only the returned element is held in memory.
+	 */
+	public static JsonNode nextArrayElement(ObjectMapper objectMapper, JsonParser parser) throws IOException {
+		JsonToken token = parser.nextToken();
+		if (token == null || token == JsonToken.END_ARRAY) {
+			return null;
+		}
+		return objectMapper.readTree(parser);
+	}
 }
@@ -0,0 +1,330 @@
+package com.ibm.scis.validation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.validation.Constraint;
+import javax.validation.ConstraintViolation;
+import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks the field constraints of a DTO class without going through Bean
+ * Validation on every record.
+ * <p>
+ * The annotations are read once per class. Each constrained field gets a
+ * getter built through {@link LambdaMetafactory} and a flat list of checks, so
+ * validating a record is a sequence of plain calls and allocates nothing when
+ * the record is valid. {@code @NotNull}, {@code @NotEmpty}, {@code @NotBlank}
+ * and {@code @Size} with a literal message in the default group are supported.
+ * Any other constraint, a templated message, or a type the checks do not cover
+ * makes the whole class fall back to Hibernate Validator, so callers always get
+ * the messages Bean Validation would produce.
+ */
+public final class CompiledValidator<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(CompiledValidator.class);
+	private static final ConcurrentMap<Class<?>, CompiledValidator<?>> VALIDATORS = new ConcurrentHashMap<>();
+
+	@FunctionalInterface
+	private interface Check {
+		/** Returns the violation message, or {@code null} when the value passes. */
+		String check(Object value);
+	}
+
+	private static final class FieldChecks {
+		final Function<Object, Object> getter;
+		final Check[] checks;
+
+		FieldChecks(Function<Object, Object> getter, Check[] checks) {
+			this.getter = getter;
+			this.checks = checks;
+		}
+	}
+
+	/** Signals a declaration the compiled checks do not reproduce. */
+	private static final class UnsupportedConstraintException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedConstraintException(String message) {
+			super(message);
+		}
+	}
+
+	private final Class<T> beanClass;
+	private final FieldChecks[] fields;
+	private final Validator fallback;
+
+	private CompiledValidator(Class<T> beanClass, FieldChecks[] fields, Validator fallback) {
+		this.beanClass = beanClass;
+		this.fields = fields;
+		this.fallback = fallback;
+	}
+
+	/** Returns the shared validator for {@code beanClass}, compiling it on first use. */
+	@SuppressWarnings("unchecked")
+	public static <T> CompiledValidator<T> forClass(Class<T> beanClass) {
+		return (CompiledValidator<T>) VALIDATORS.computeIfAbsent(beanClass, CompiledValidator::compile);
+	}
+
+	/**
+	 * Returns the violation messages for {@code bean} in field declaration order,
+	 * or an empty list when it is valid.
+	 */
+	public List<String> validate(T bean) {
+		if (fallback != null) {
+			return validateWithBeanValidation(bean);
+		}
+		List<String> messages = null;
+		for (FieldChecks field : fields) {
+			Object value = field.getter.apply(bean);
+			for (Check check : field.checks) {
+				String message = check.check(value);
+				if (message != null) {
+					if (messages == null) {
+						messages = new ArrayList<>(4);
+					}
+					messages.add(message);
+				}
+			}
+		}
+		return messages == null ? Collections.emptyList() : messages;
+	}
+
+	/** True when the checks were compiled rather than delegated to Bean Validation. */
+	public boolean isCompiled() {
+		return fallback == null;
+	}
+
+	private List<String> validateWithBeanValidation(T bean) {
+		Set<ConstraintViolation<T>> violations = fallback.validate(bean);
+		if (violations.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> messages = new ArrayList<>(violations.size());
+		for (ConstraintViolation<T> violation : violations) {
+			messages.add(violation.getMessage());
+		}
+		return messages;
+	}
+
+	private static <T> CompiledValidator<T> compile(Class<T> beanClass) {
+		try {
+			return new CompiledValidator<>(beanClass, compileFields(beanClass), null);
+		} catch (UnsupportedConstraintException e) {
+			logger.info("Using Bean Validation for {}: {}", beanClass.getSimpleName(), e.getMessage());
+			return new CompiledValidator<>(beanClass, new FieldChecks[0], BeanValidation.VALIDATOR);
+		}
+	}
+
+	private static FieldChecks[] compileFields(Class<?> beanClass) throws UnsupportedConstraintException {
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+			hierarchy.add(0, type);
+		}
+		List<FieldChecks> fields = new ArrayList<>();
+		for (Class<?> type : hierarchy) {
+			rejectConstraints(type, "class " + type.getSimpleName());
+			for (Method method : type.getDeclaredMethods()) {
+				rejectConstraints(method, "method " + method.getName());
+			}
+			for (Field field : type.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				List<Check> checks = new ArrayList<>();
+				for (Annotation annotation : field.getDeclaredAnnotations()) {
+					Check check = compileCheck(field, annotation);
+					if (check != null) {
+						checks.add(check);
+					}
+				}
+				if (!checks.isEmpty()) {
+					fields.add(new FieldChecks(getter(beanClass, field), checks.toArray(new Check[0])));
+				}
+			}
+		}
+		return fields.toArray(new FieldChecks[0]);
+	}
+
+	private static void rejectConstraints(AnnotatedElement element, String location)
+			throws UnsupportedConstraintException {
+		for (Annotation annotation : element.getDeclaredAnnotations()) {
+			if (isConstraint(annotation)) {
+				throw new UnsupportedConstraintException(
+						"@" + annotation.annotationType().getSimpleName() + " on " + location);
+			}
+		}
+	}
+
+	private static boolean isConstraint(Annotation annotation) {
+		Class<? extends Annotation> type = annotation.annotationType();
+		return type.isAnnotationPresent(Constraint.class) || type == Valid.class
+				|| type.getName().startsWith("javax.validation.constraints.")
+				|| type.getName().startsWith("org.hibernate.validator.constraints.");
+	}
+
+	private static Check compileCheck(Field field, Annotation annotation) throws UnsupportedConstraintException {
+		Class<?> type = field.getType();
+		String location = field.getDeclaringClass().getSimpleName() + "." + field.getName();
+		if (annotation instanceof NotNull) {
+			NotNull notNull = (NotNull) annotation;
+			String message = literalMessage(notNull.message(), notNull.groups(), location);
+			return value -> value == null ? message : null;
+		}
+		if (annotation instanceof NotEmpty) {
+			NotEmpty notEmpty = (NotEmpty) annotation;
+			String message = literalMessage(notEmpty.message(), notEmpty.groups(), location);
+			requireSizedType(type, annotation, location);
+			return value -> value == null || sizeOf(value) == 0 ? message : null;
+		}
+		if (annotation instanceof NotBlank) {
+			NotBlank notBlank = (NotBlank) annotation;
+			String message = literalMessage(notBlank.message(), notBlank.groups(), location);
+			if (!CharSequence.class.isAssignableFrom(type)) {
+				throw new UnsupportedConstraintException("@NotBlank on non-text field " + location);
+			}
+			return value -> value == null || value.toString().trim().isEmpty() ? message : null;
+		}
+		if (annotation instanceof Size) {
+			Size size = (Size) annotation;
+			String message = literalMessage(size.message(), size.groups(), location);
+			requireSizedType(type, annotation, location);
+			int min = size.min();
+			int max = size.max();
+			if (min < 0 || max < min) {
+				throw new UnsupportedConstraintException("invalid @Size bounds on " + location);
+			}
+			return value -> {
+				if (value == null) {
+					return null;
+				}
+				int length = sizeOf(value);
+				return length < min || length > max ? message : null;
+			};
+		}
+		if (isConstraint(annotation)) {
+			throw new UnsupportedConstraintException(
+					"@" + annotation.annotationType().getSimpleName() + " on " + location);
+		}
+		return null;
+	}
+
+	private static String literalMessage(String message, Class<?>[] groups, String location)
+			throws UnsupportedConstraintException {
+		if (message.indexOf('{') >= 0 || message.indexOf('$') >= 0) {
+			throw new UnsupportedConstraintException("templated message on " + location);
+		}
+		if (groups.length > 1 || (groups.length == 1 && groups[0] != Default.class)) {
+			throw new UnsupportedConstraintException("validation groups on " + location);
+		}
+		return message;
+	}
+
+	private static void requireSizedType(Class<?> type, Annotation annotation, String location)
+			throws UnsupportedConstraintException {
+		if (!CharSequence.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type)
+				&& !Map.class.isAssignableFrom(type) && !type.isArray()) {
+			throw new UnsupportedConstraintException(
+					"@" + annotation.annotationType().getSimpleName() + " on unsupported type " + location);
+		}
+	}
+
+	private static int sizeOf(Object value) {
+		if (value instanceof CharSequence) {
+			return ((CharSequence) value).length();
+		}
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).size();
+		}
+		if (value instanceof Map) {
+			return ((Map<?, ?>) value).size();
+		}
+		return Array.getLength(value);
+	}
+
+	/**
+	 * Builds a getter for {@code field}. A public accessor returning the field
+	 * type is bound through LambdaMetafactory; otherwise the field is read through
+	 * a method handle.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> getter(Class<?> beanClass, Field field)
+			throws UnsupportedConstraintException {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup());
+			Method accessor = accessor(beanClass, field);
+			if (accessor != null) {
+				MethodHandle handle = lookup.unreflect(accessor);
+				return (Function<Object, Object>) LambdaMetafactory
+						.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+								MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap())
+						.getTarget().invokeExact();
+			}
+			MethodHandle handle = lookup.unreflectGetter(field)
+					.asType(MethodType.methodType(Object.class, Object.class));
+			return bean -> {
+				try {
+					return handle.invokeExact(bean);
+				} catch (Throwable e) {
+					throw new IllegalStateException("Cannot read " + field.getName(), e);
+				}
+			};
+		} catch (Throwable e) {
+			throw new UnsupportedConstraintException("cannot access " + field.getName() + ": " + e);
+		}
+	}
+
+	private static Method accessor(Class<?> beanClass, Field field) {
+		String name = field.getName();
+		String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		String[] candidates = field.getType() == boolean.class ? new String[] { "is" + suffix, "get" + suffix }
+				: new String[] { "get" + suffix };
+		for (String candidate : candidates) {
+			try {
+				Method method = beanClass.getMethod(candidate);
+				if (method.getReturnType() == field.getType() && Modifier.isPublic(beanClass.getModifiers())) {
+					return method;
+				}
+			} catch (NoSuchMethodException e) {
+				// try the next candidate, then fall back to the field
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledValidator[" + beanClass.getSimpleName() + (isCompiled() ? ", compiled" : ", bean validation")
+				+ "]";
+	}
+
+	/** Holder so the Hibernate factory is only built when some class needs it. */
+	private static final class BeanValidation {
+		static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+	}
+}
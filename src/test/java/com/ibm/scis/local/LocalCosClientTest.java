@@ -0,0 +1,232 @@
+package com.ibm.scis.local;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.ibm.cloud.objectstorage.services.s3.model.AbortMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.AmazonS3Exception;
+import com.ibm.cloud.objectstorage.services.s3.model.CompleteMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.GetObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.InitiateMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectListing;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
+import com.ibm.cloud.objectstorage.services.s3.model.PartETag;
+import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import com.ibm.cloud.objectstorage.services.s3.model.UploadPartRequest;
+
+class LocalCosClientTest {
+
+	private static final String BUCKET = "flex";
+
+	@TempDir
+	Path root;
+
+	private LocalCosClient client;
+
+	@BeforeEach
+	void createBucket() throws IOException {
+		client = new LocalCosClient(root);
+		client.createBucket(BUCKET);
+	}
+
+	@Test
+	void storesReadsCopiesAndDeletesObjects() throws IOException {
+		client.putObject(BUCKET, "import/a.json", "0123456789");
+		assertEquals("0123456789", client.getObjectAsString(BUCKET, "import/a.json"));
+		assertTrue(Files.isRegularFile(root.resolve(BUCKET).resolve("import").resolve("a.json")));
+
+		ObjectMetadata metadata = client.getObjectMetadata(BUCKET, "import/a.json");
+		assertEquals(10, metadata.getContentLength());
+		assertEquals("781e5e245d69b566979b86e28d23f2c7", metadata.getETag());
+		assertEquals("text/plain", metadata.getContentType());
+
+		try (S3Object range = client.getObject(new GetObjectRequest(BUCKET, "import/a.json").withRange(2, 4));
+				InputStream in = range.getObjectContent()) {
+			assertEquals("234", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			assertEquals(3, range.getObjectMetadata().getContentLength());
+		}
+
+		assertEquals(metadata.getETag(), client.copyObject(BUCKET, "import/a.json", BUCKET, "done/a.json").getETag());
+		client.deleteObject(BUCKET, "import/a.json");
+		assertFalse(client.doesObjectExist(BUCKET, "import/a.json"));
+		assertFalse(Files.exists(root.resolve(BUCKET).resolve("import")));
+		assertEquals("0123456789", client.getObjectAsString(BUCKET, "done/a.json"));
+		assertEquals(404, assertThrows(AmazonS3Exception.class,
+				() -> client.getObjectMetadata(BUCKET, "import/a.json")).getStatusCode());
+	}
+
+	@Test
+	void escapesKeysThatAreNotFileNames() throws IOException {
+		List<String> keys = List.of("/lead", "a//b", "c:d*e", ".dot", "folder/");
+		for (String key : keys) {
+			client.putObject(BUCKET, key, key);
+		}
+		for (String key : keys) {
+			assertEquals(key, client.getObjectAsString(BUCKET, key));
+		}
+		assertEquals(new TreeSet<>(keys), new TreeSet<>(listV2(null, null, 2).get(0)));
+	}
+
+	@Test
+	void multipartUploadJoinsPartsInOrder() {
+		String uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(BUCKET, "out.csv"))
+				.getUploadId();
+		List<PartETag> parts = new ArrayList<>();
+		parts.add(uploadPart(uploadId, 2, "world"));
+		parts.add(uploadPart(uploadId, 1, "hello "));
+		client.completeMultipartUpload(new CompleteMultipartUploadRequest(BUCKET, "out.csv", uploadId, parts));
+		assertEquals("hello world", client.getObjectAsString(BUCKET, "out.csv"));
+		assertTrue(client.getObjectMetadata(BUCKET, "out.csv").getETag().endsWith("-2"));
+
+		String aborted = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(BUCKET, "gone.csv"))
+				.getUploadId();
+		uploadPart(aborted, 1, "x");
+		client.abortMultipartUpload(new AbortMultipartUploadRequest(BUCKET, "gone.csv", aborted));
+		assertFalse(client.doesObjectExist(BUCKET, "gone.csv"));
+		assertThrows(AmazonS3Exception.class, () -> uploadPart(aborted, 2, "y"));
+	}
+
+	@Test
+	void pagedListingsMatchTheSortedKeys() {
+		TreeSet<String> keys = new TreeSet<>();
+		String[] folders = { "", "import/", "import/contacts/", "a/b/c/", "a/bc/", "dead-files/" };
+		Random random = new Random(7);
+		while (keys.size() < 300) {
+			String key = folders[random.nextInt(folders.length)] + "f" + random.nextInt(1000) + ".json";
+			if (keys.add(key)) {
+				client.putObject(BUCKET, key, "");
+			}
+		}
+		for (String prefix : new String[] { null, "import/", "a/b", "imp", "none/" }) {
+			for (int maxKeys : new int[] { 1, 7, 1000 }) {
+				String expectedPrefix = prefix == null ? "" : prefix;
+				List<String> expectedKeys = new ArrayList<>();
+				TreeSet<String> expectedPrefixes = new TreeSet<>();
+				for (String key : keys.tailSet(expectedPrefix)) {
+					if (!key.startsWith(expectedPrefix)) {
+						break;
+					}
+					int slash = key.indexOf('/', expectedPrefix.length());
+					if (slash < 0) {
+						expectedKeys.add(key);
+					} else {
+						expectedPrefixes.add(key.substring(0, slash + 1));
+					}
+				}
+				List<List<String>> delimited = listV2(prefix, "/", maxKeys);
+				assertEquals(expectedKeys, delimited.get(0), prefix + " by " + maxKeys);
+				assertEquals(new ArrayList<>(expectedPrefixes), delimited.get(1), prefix + " by " + maxKeys);
+				assertEquals(keys.stream().filter(key -> key.startsWith(expectedPrefix)).collect(Collectors.toList()),
+						listV1(prefix, maxKeys), prefix + " by " + maxKeys);
+			}
+		}
+	}
+
+	@Test
+	void listingSeesWritesBetweenPages() {
+		for (String key : List.of("k1", "k2", "k3", "k4")) {
+			client.putObject(BUCKET, key, "");
+		}
+		ObjectListing first = client.listObjects(new ListObjectsRequest(BUCKET, null, null, null, 2));
+		client.putObject(BUCKET, "k5", "");
+		client.deleteObject(BUCKET, "k4");
+		ObjectListing second = client.listNextBatchOfObjects(first);
+		assertEquals(List.of("k3", "k5"), keys(second.getObjectSummaries()));
+		assertFalse(second.isTruncated());
+	}
+
+	@Test
+	void ibmExtensionsAreNotSupported() {
+		UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class,
+				() -> client.getBucketProtection(BUCKET));
+		assertEquals("getBucketProtection is not supported by the local COS stand-in", e.getMessage());
+		client.putObject(BUCKET, "held.csv", "x");
+		assertThrows(UnsupportedOperationException.class, () -> client.addLegalHold(BUCKET, "held.csv", "case-1"));
+		assertThrows(UnsupportedOperationException.class, () -> client.listBucketsExtended());
+		client.deleteObject(BUCKET, "held.csv");
+		assertFalse(client.doesObjectExist(BUCKET, "held.csv"));
+	}
+
+	@Test
+	void injectedErrorsAndDelaysRepeatWithTheSeed() throws IOException {
+		assertArrayEquals(failures(42), failures(42));
+		LocalCosClient failing = new LocalCosClient(root, 0, 0, 1, 1);
+		AmazonS3Exception e = assertThrows(AmazonS3Exception.class, () -> failing.getObjectAsString(BUCKET, "a"));
+		assertEquals(503, e.getStatusCode());
+		assertEquals("SlowDown", e.getErrorCode());
+	}
+
+	private boolean[] failures(long seed) throws IOException {
+		LocalCosClient flaky = new LocalCosClient(root, 0, 0, 0.3, seed);
+		boolean[] failed = new boolean[50];
+		for (int i = 0; i < failed.length; i++) {
+			try {
+				flaky.doesBucketExistV2(BUCKET);
+			} catch (AmazonS3Exception e) {
+				failed[i] = true;
+			}
+		}
+		return failed;
+	}
+
+	private PartETag uploadPart(String uploadId, int partNumber, String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		return client.uploadPart(new UploadPartRequest().withBucketName(BUCKET).withKey("out.csv")
+				.withUploadId(uploadId).withPartNumber(partNumber).withPartSize(bytes.length)
+				.withInputStream(new ByteArrayInputStream(bytes))).getPartETag();
+	}
+
+	/** Keys and common prefixes of a complete, paged V2 listing. */
+	private List<List<String>> listV2(String prefix, String delimiter, int maxKeys) {
+		List<String> keys = new ArrayList<>();
+		List<String> commonPrefixes = new ArrayList<>();
+		ListObjectsV2Request request = new ListObjectsV2Request().withBucketName(BUCKET).withPrefix(prefix)
+				.withDelimiter(delimiter).withMaxKeys(maxKeys);
+		ListObjectsV2Result result;
+		do {
+			result = client.listObjectsV2(request);
+			assertTrue(result.getKeyCount() <= maxKeys);
+			keys.addAll(keys(result.getObjectSummaries()));
+			commonPrefixes.addAll(result.getCommonPrefixes());
+			request.setContinuationToken(result.getNextContinuationToken());
+		} while (result.isTruncated());
+		return List.of(keys, commonPrefixes);
+	}
+
+	private List<String> listV1(String prefix, int maxKeys) {
+		List<String> keys = new ArrayList<>();
+		ObjectListing listing = client.listObjects(new ListObjectsRequest(BUCKET, prefix, null, null, maxKeys));
+		keys.addAll(keys(listing.getObjectSummaries()));
+		while (listing.isTruncated()) {
+			listing = client.listNextBatchOfObjects(listing);
+			keys.addAll(keys(listing.getObjectSummaries()));
+		}
+		return keys;
+	}
+
+	private static List<String> keys(List<S3ObjectSummary> summaries) {
+		return summaries.stream().map(S3ObjectSummary::getKey).collect(Collectors.toList());
+	}
+}
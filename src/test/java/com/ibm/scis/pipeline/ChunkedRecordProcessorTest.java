@@ -0,0 +1,105 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.ibm.scis.exception.ProcessingException;
+
+class ChunkedRecordProcessorTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	/** Rejects every value divisible by 3, maps the others to their string. */
+	private static final RecordMapper<String> MAPPER = node -> {
+		if (node.asInt() % 3 == 0) {
+			throw new ProcessingException("multiple of 3: " + node.asInt());
+		}
+		return node.asText();
+	};
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 4 })
+	void writesAcceptedRecordsAndHandsOverRejectsInInputOrder(int parallelism) throws Exception {
+		List<String> written = new ArrayList<>();
+		List<String> rejected = new ArrayList<>();
+		long accepted = process(parallelism, input(1, 50), written,
+				(index, record, cause) -> rejected.add(index + ":" + record.asInt()));
+		assertEquals(34, accepted);
+		assertEquals(IntStream.rangeClosed(1, 50).filter(i -> i % 3 != 0).mapToObj(Integer::toString).toList(),
+				written);
+		assertEquals(IntStream.rangeClosed(1, 50).filter(i -> i % 3 == 0).mapToObj(i -> (i - 1) + ":" + i).toList(),
+				rejected);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 4 })
+	void allRecordsMayBeRejected(int parallelism) throws Exception {
+		List<String> written = new ArrayList<>();
+		List<Long> rejected = new ArrayList<>();
+		long accepted = process(parallelism, input(3, 30, 3), written,
+				(index, record, cause) -> rejected.add(index));
+		assertEquals(0, accepted);
+		assertEquals(List.of(), written);
+		assertEquals(LongStream.range(0, 10).boxed().toList(), rejected);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 4 })
+	void withoutAHandlerTheFirstRejectEndsTheRun(int parallelism) {
+		RejectedRecordException e = assertThrows(RejectedRecordException.class,
+				() -> process(parallelism, input(1, 50), new ArrayList<>(), null));
+		assertEquals(3, e.getRecord().asInt());
+	}
+
+	private static long process(int parallelism, ArrayNode input, List<String> written, RejectHandler rejects)
+			throws IOException, RejectedRecordException {
+		ChunkedRecordProcessor processor = new ChunkedRecordProcessor(parallelism, 4);
+		try {
+			return processor.process(RecordSource.of(input), MAPPER, new ListSink(written), rejects);
+		} finally {
+			processor.destroy();
+		}
+	}
+
+	private static ArrayNode input(int first, int last) {
+		return input(first, last, 1);
+	}
+
+	private static ArrayNode input(int first, int last, int step) {
+		ArrayNode array = OBJECT_MAPPER.createArrayNode();
+		for (int i = first; i <= last; i += step) {
+			array.add(i);
+		}
+		return array;
+	}
+
+	private static final class ListSink implements RecordSink<String> {
+		private final List<String> records;
+
+		ListSink(List<String> records) {
+			this.records = records;
+		}
+
+		@Override
+		public void accept(String record) {
+			records.add(record);
+		}
+
+		@Override
+		public void commit() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
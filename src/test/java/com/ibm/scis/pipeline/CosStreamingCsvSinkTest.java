@@ -0,0 +1,65 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.ibm.scis.pipeline.CosUploadOutputStreamTest.RecordingCosClient;
+
+class CosStreamingCsvSinkTest {
+
+	private static final String BUCKET = "flex";
+	private static final int PART_SIZE = CosUploadOutputStream.MIN_PART_SIZE;
+
+	@TempDir
+	Path root;
+
+	private RecordingCosClient cosClient;
+
+	@BeforeEach
+	void createBucket() throws IOException {
+		cosClient = new RecordingCosClient(root);
+		cosClient.createBucket(BUCKET);
+	}
+
+	@Test
+	void commitPublishesTheCsv() throws IOException {
+		try (CosStreamingCsvSink<String> sink = open()) {
+			sink.accept("a");
+			sink.accept("b");
+			sink.commit();
+			assertEquals(6, sink.getBytesWritten());
+		}
+		assertEquals("a\r\nb\r\n", cosClient.getObjectAsString(BUCKET, "out.csv"));
+		assertEquals(0, cosClient.aborts);
+	}
+
+	@Test
+	void closingWithoutCommitDropsBufferedRows() throws IOException {
+		String row = "x".repeat(999);
+		long accepted = 0;
+		try (CosStreamingCsvSink<String> sink = open()) {
+			// enough rows for a second part, the last of them still buffered in the writer
+			while (accepted <= 2L * PART_SIZE) {
+				sink.accept(row);
+				accepted += row.length() + 2;
+			}
+			assertEquals(List.of(PART_SIZE), cosClient.partSizes);
+		}
+		assertEquals(List.of(PART_SIZE), cosClient.partSizes);
+		assertEquals(1, cosClient.aborts);
+		assertFalse(cosClient.doesObjectExist(BUCKET, "out.csv"));
+	}
+
+	private CosStreamingCsvSink<String> open() throws IOException {
+		CosUploadOutputStream upload = new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE, null);
+		return new CosStreamingCsvSink<>(upload, CSVFormat.DEFAULT,
+				(csvPrinter, record) -> csvPrinter.printRecord(record));
+	}
+}
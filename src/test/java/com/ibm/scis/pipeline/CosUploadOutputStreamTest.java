@@ -0,0 +1,169 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.ibm.cloud.objectstorage.SdkClientException;
+import com.ibm.cloud.objectstorage.services.s3.model.AbortMultipartUploadRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.PutObjectResult;
+import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
+import com.ibm.cloud.objectstorage.services.s3.model.UploadPartRequest;
+import com.ibm.cloud.objectstorage.services.s3.model.UploadPartResult;
+import com.ibm.scis.local.LocalCosClient;
+
+class CosUploadOutputStreamTest {
+
+	private static final String BUCKET = "flex";
+	private static final int PART_SIZE = CosUploadOutputStream.MIN_PART_SIZE;
+
+	@TempDir
+	Path root;
+
+	private RecordingCosClient cosClient;
+
+	@BeforeEach
+	void createBucket() throws IOException {
+		cosClient = new RecordingCosClient(root);
+		cosClient.createBucket(BUCKET);
+	}
+
+	@Test
+	void outputUpToOnePartIsASinglePut() throws IOException {
+		byte[] content = bytes(PART_SIZE);
+		List<Long> completedSizes = new ArrayList<>();
+		try (CosUploadOutputStream out = new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE,
+				(bucketName, key, size, eTag) -> completedSizes.add(size))) {
+			out.write(content);
+			out.complete();
+		}
+		assertEquals(1, cosClient.puts);
+		assertEquals(List.of(), cosClient.partSizes);
+		assertEquals(List.of((long) PART_SIZE), completedSizes);
+		assertArrayEquals(content, read("out.csv"));
+	}
+
+	@Test
+	void largerOutputIsUploadedInFullParts() throws IOException {
+		byte[] content = bytes(2 * PART_SIZE + PART_SIZE / 2);
+		try (CosUploadOutputStream out = new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE, null)) {
+			for (int offset = 0; offset < content.length; offset += 1000) {
+				out.write(content, offset, Math.min(1000, content.length - offset));
+			}
+			assertEquals(List.of(PART_SIZE, PART_SIZE), cosClient.partSizes);
+			out.complete();
+			assertEquals(content.length, out.getTotalBytes());
+		}
+		assertEquals(0, cosClient.puts);
+		assertEquals(List.of(PART_SIZE, PART_SIZE, PART_SIZE / 2), cosClient.partSizes);
+		assertArrayEquals(content, read("out.csv"));
+	}
+
+	@Test
+	void oneByteOverAPartStartsAMultipartUpload() throws IOException {
+		try (CosUploadOutputStream out = new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE, null)) {
+			out.write(bytes(PART_SIZE));
+			out.write('x');
+			out.complete();
+		}
+		assertEquals(List.of(PART_SIZE, 1), cosClient.partSizes);
+		assertEquals(PART_SIZE + 1, cosClient.getObjectMetadata(BUCKET, "out.csv").getContentLength());
+	}
+
+	@Test
+	void failedPartAbortsTheUpload() throws IOException {
+		cosClient.failPart = 2;
+		CosUploadOutputStream out = new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE, null);
+		assertThrows(IOException.class, () -> out.write(bytes(3 * PART_SIZE)));
+		assertEquals(1, cosClient.aborts);
+		assertThrows(IOException.class, out::complete);
+		assertFalse(cosClient.doesObjectExist(BUCKET, "out.csv"));
+		assertFalse(hasPendingUploads());
+	}
+
+	@Test
+	void closingWithoutCompletingAbortsTheUpload() throws IOException {
+		try (CosUploadOutputStream out = new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE, null)) {
+			out.write(bytes(PART_SIZE + 1));
+		}
+		assertEquals(List.of(PART_SIZE), cosClient.partSizes);
+		assertEquals(1, cosClient.aborts);
+		assertFalse(cosClient.doesObjectExist(BUCKET, "out.csv"));
+		assertFalse(hasPendingUploads());
+	}
+
+	@Test
+	void partsSmallerThanCosAllowsAreRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new CosUploadOutputStream(cosClient, BUCKET, "out.csv", PART_SIZE - 1, null));
+	}
+
+	/** True if the local store still holds parts of an upload that was neither completed nor aborted. */
+	private boolean hasPendingUploads() throws IOException {
+		Path uploads = root.resolve(".uploads");
+		if (!Files.isDirectory(uploads)) {
+			return false;
+		}
+		try (Stream<Path> entries = Files.list(uploads)) {
+			return entries.findAny().isPresent();
+		}
+	}
+
+	private byte[] read(String key) throws IOException {
+		try (S3Object object = cosClient.getObject(BUCKET, key); InputStream in = object.getObjectContent()) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static byte[] bytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+
+	/** Local COS that records the requests of an upload and can fail one part. */
+	static final class RecordingCosClient extends LocalCosClient {
+		final List<Integer> partSizes = new ArrayList<>();
+		int puts;
+		int aborts;
+		int failPart;
+
+		RecordingCosClient(Path root) throws IOException {
+			super(root);
+		}
+
+		@Override
+		public PutObjectResult putObject(PutObjectRequest request) {
+			puts++;
+			return super.putObject(request);
+		}
+
+		@Override
+		public UploadPartResult uploadPart(UploadPartRequest request) {
+			if (request.getPartNumber() == failPart) {
+				throw new SdkClientException("Connection reset");
+			}
+			partSizes.add((int) request.getPartSize());
+			return super.uploadPart(request);
+		}
+
+		@Override
+		public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+			aborts++;
+			super.abortMultipartUpload(request);
+		}
+	}
+}
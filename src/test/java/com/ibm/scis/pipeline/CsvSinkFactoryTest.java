@@ -0,0 +1,86 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.ibm.cloud.objectstorage.services.s3.model.ObjectMetadata;
+import com.ibm.cloud.objectstorage.services.s3.model.S3Object;
+import com.ibm.scis.local.LocalCosClient;
+import com.ibm.scis.utils.CosBucketIndex;
+
+class CsvSinkFactoryTest {
+
+	private static final String BUCKET = "flex";
+	private static final String[][] ROWS = { { "PCF-1", "Steel" }, { "PCF-2", "Glass, tempered" } };
+
+	@TempDir
+	Path root;
+
+	private LocalCosClient cosClient;
+	private CosBucketIndex bucketIndex;
+
+	@BeforeEach
+	void createBucket() throws IOException {
+		cosClient = new LocalCosClient(root);
+		cosClient.createBucket(BUCKET);
+		bucketIndex = new CosBucketIndex(cosClient, BUCKET, true);
+	}
+
+	@Test
+	void compressedStreamingOutputGetsTheCodecsKeyAndContentType() throws IOException {
+		write(factory(CsvSinkFactory.STREAMING, "upload/=gzip"), "upload/pcf/PCF.csv");
+		assertFalse(cosClient.doesObjectExist(BUCKET, "upload/pcf/PCF.csv"));
+		ObjectMetadata metadata = cosClient.getObjectMetadata(BUCKET, "upload/pcf/PCF.csv.gz");
+		assertEquals("application/gzip", metadata.getContentType());
+		assertNull(metadata.getContentEncoding());
+		try (S3Object object = cosClient.getObject(BUCKET, "upload/pcf/PCF.csv.gz");
+				InputStream in = new GZIPInputStream(object.getObjectContent())) {
+			assertEquals(csv(), new String(in.readAllBytes(), Charset.defaultCharset()));
+		}
+	}
+
+	@Test
+	void uncompressedStreamingOutputKeepsItsKey() throws IOException {
+		write(factory(CsvSinkFactory.STREAMING, "upload/=gzip"), "import/partners/Partners.csv");
+		assertEquals(csv(), cosClient.getObjectAsString(BUCKET, "import/partners/Partners.csv"));
+	}
+
+	@Test
+	void bothModesCountTheBytesOfCsv() throws IOException {
+		long csvBytes = csv().getBytes(Charset.defaultCharset()).length;
+		assertEquals(csvBytes, write(factory(CsvSinkFactory.TEMP_FILE, "upload/=zstd"), "upload/pcf/PCF.csv"));
+		assertEquals(csvBytes, write(factory(CsvSinkFactory.STREAMING, "upload/=zstd"), "upload/pcf/PCF.csv"));
+		assertEquals(csvBytes, write(factory(CsvSinkFactory.STREAMING, ""), "upload/pcf/PCF.csv"));
+	}
+
+	private CsvSinkFactory factory(String outputMode, String compression) {
+		return new CsvSinkFactory(cosClient, bucketIndex, new OutputCompression(compression), outputMode, 5);
+	}
+
+	/** Writes {@link #ROWS} to a sink for {@code cosKey} and returns the bytes it reports. */
+	private long write(CsvSinkFactory factory, String cosKey) throws IOException {
+		try (RecordSink<String[]> sink = factory.open(BUCKET, cosKey, "csvSinkFactoryTest", CSVFormat.DEFAULT,
+				(csvPrinter, record) -> csvPrinter.printRecord((Object[]) record), csvFile -> {
+				})) {
+			for (String[] row : ROWS) {
+				sink.accept(row);
+			}
+			sink.commit();
+			return sink.getBytesWritten();
+		}
+	}
+
+	private static String csv() {
+		return "PCF-1,Steel\r\nPCF-2,\"Glass, tempered\"\r\n";
+	}
+}
@@ -0,0 +1,140 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.ibm.scis.state.StateJournal;
+
+class DeltaSinkTest {
+
+	@TempDir
+	Path stateDir;
+
+	private StateJournal journal;
+
+	@BeforeEach
+	void openJournal() throws IOException {
+		journal = StateJournal.open(stateDir.resolve("fingerprints.journal"));
+	}
+
+	@AfterEach
+	void closeJournal() throws IOException {
+		journal.close();
+	}
+
+	@Test
+	void firstRunAddsEveryRecord() throws IOException {
+		assertEquals(List.of("added:a=1", "added:b=2"), run(false, "a=1", "b=2"));
+		assertEquals(2, journal.size());
+	}
+
+	@Test
+	void unchangedRecordsAreDropped() throws IOException {
+		run(false, "a=1", "b=2");
+		assertEquals(List.of(), run(false, "a=1", "b=2"));
+	}
+
+	@Test
+	void reportsChangedAddedAndRemovedRecords() throws IOException {
+		run(false, "a=1", "b=2", "c=3");
+		assertEquals(List.of("changed:b=9", "added:d=4", "removed:a", "removed:c"), run(false, "b=9", "d=4"));
+		assertEquals(Map.of(DeltaSink.key("b"), Long.toHexString(fingerprint("b=9")), DeltaSink.key("d"),
+				Long.toHexString(fingerprint("d=4"))), journal.snapshot());
+		assertEquals(List.of(), run(false, "b=9", "d=4"));
+	}
+
+	@Test
+	void firstRecordOfARepeatedKeyWins() throws IOException {
+		run(false, "a=1");
+		assertEquals(List.of(), run(false, "a=1", "a=2", "a=1"));
+		assertEquals(List.of("changed:a=2"), run(false, "a=2", "a=1", "a=3"));
+		assertEquals(List.of(), run(false, "a=2"));
+	}
+
+	@Test
+	void failedPublishLeavesTheBaselineUntouched() throws IOException {
+		run(false, "a=1", "b=2");
+		Map<String, String> baseline = journal.snapshot();
+		assertThrows(IOException.class, () -> run(true, "a=5", "c=3"));
+		assertEquals(baseline, journal.snapshot());
+		assertEquals(List.of("changed:a=5", "added:c=3", "removed:b"), run(false, "a=5", "c=3"));
+	}
+
+	@Test
+	void failedSaveFailsTheCommit() throws IOException {
+		CollectingSink changes = new CollectingSink(false);
+		DeltaSink<String> sink = new DeltaSink<>(journal, DeltaSinkTest::key, DeltaSinkTest::fingerprint, changes);
+		sink.accept("a=1");
+		journal.close();
+		assertThrows(IOException.class, sink::commit);
+		assertTrue(changes.committed);
+	}
+
+	@Test
+	void keysRoundTripAnyCharacter() {
+		assertArrayEquals(new String[] { "mat\t1", "12:3", "" },
+				DeltaSink.keyParts(DeltaSink.key("mat\t1", "12:3", "")));
+		assertNotEquals(DeltaSink.key("a\tb", "c"), DeltaSink.key("a", "b\tc"));
+	}
+
+	/** Runs records {@code key=value} through a delta sink and returns its changes. */
+	private List<String> run(boolean failPublish, String... records) throws IOException {
+		CollectingSink changes = new CollectingSink(failPublish);
+		try (DeltaSink<String> sink = new DeltaSink<>(journal, DeltaSinkTest::key, DeltaSinkTest::fingerprint,
+				changes)) {
+			for (String record : records) {
+				sink.accept(record);
+			}
+			sink.commit();
+		}
+		return changes.rows;
+	}
+
+	private static String key(String record) {
+		return DeltaSink.key(record.substring(0, record.indexOf('=')));
+	}
+
+	private static long fingerprint(String record) {
+		return DeltaSink.fingerprint(new Object[] { record });
+	}
+
+	private static final class CollectingSink implements RecordSink<DeltaSink.Change<String>> {
+		final List<String> rows = new ArrayList<>();
+		final boolean failCommit;
+		boolean committed;
+
+		CollectingSink(boolean failCommit) {
+			this.failCommit = failCommit;
+		}
+
+		@Override
+		public void accept(DeltaSink.Change<String> change) {
+			String row = change.getRecord() == null ? change.getKeyParts()[0] : change.getRecord();
+			rows.add(change.getType().label() + ":" + row);
+		}
+
+		@Override
+		public void commit() throws IOException {
+			if (failCommit) {
+				throw new IOException("upload failed");
+			}
+			committed = true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LongHashSetTest {
+
+	@Test
+	void matchesHashSetAcrossGrowth() {
+		LongHashSet set = new LongHashSet();
+		Set<Long> expected = new HashSet<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			long value = i % 7 == 0 ? random.nextInt(100) : random.nextLong();
+			assertEquals(expected.add(value), set.add(value));
+		}
+		assertEquals(expected.size(), set.size());
+		for (long value : expected) {
+			assertTrue(set.contains(value));
+		}
+		assertFalse(set.contains(Long.MIN_VALUE + 12345));
+	}
+
+	@Test
+	void holdsZero() {
+		LongHashSet set = new LongHashSet();
+		assertFalse(set.contains(0));
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.contains(0));
+		assertEquals(1, set.size());
+	}
+}
@@ -0,0 +1,114 @@
+package com.ibm.scis.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.ibm.scis.exception.ProcessingException;
+import com.ibm.scis.local.LocalCosClient;
+import com.ibm.scis.model.ConversionResponse;
+import com.ibm.scis.utils.CosBucketIndex;
+
+class RecordQuarantineTest {
+
+	private static final String BUCKET = "flex";
+
+	@TempDir
+	Path root;
+
+	private LocalCosClient cosClient;
+	private RecordQuarantine quarantine;
+
+	@BeforeEach
+	void createBucket() throws IOException {
+		cosClient = new LocalCosClient(root);
+		cosClient.createBucket(BUCKET);
+		CsvSinkFactory csvSinks = new CsvSinkFactory(cosClient, new CosBucketIndex(cosClient, BUCKET, true),
+				new OutputCompression(""), CsvSinkFactory.STREAMING, 5);
+		quarantine = new RecordQuarantine(csvSinks, null, RecordQuarantine.QUARANTINE);
+	}
+
+	@Test
+	void partlyRejectedRunPublishesBothFiles() throws IOException {
+		CommitSink outputs = new CommitSink();
+		try (RejectedRecords rejects = quarantine.open(cosClient, BUCKET, "import/Product.json")) {
+			rejects.reject(1, JsonNodeFactory.instance.textNode("bad"), new ProcessingException("name is blank"));
+			ConversionResponse response = quarantine.complete(outputs, 2, rejects);
+			assertTrue(response.isSuccess());
+			assertTrue(outputs.committed);
+			assertEquals(2, response.getAcceptedRecords());
+			assertEquals(1, response.getRejectedRecords());
+			assertEquals(rejects.getCosKey(), response.getRejectsFile());
+			assertTrue(rejects.getCosKey().matches("dead-files/Product_.*_rejects\\.csv"), rejects.getCosKey());
+			assertEquals("record_index,violations,record\r\n1,name is blank,\"\"\"bad\"\"\"\r\n",
+					cosClient.getObjectAsString(BUCKET, rejects.getCosKey()));
+		}
+	}
+
+	@Test
+	void allRejectedRunFailsWithoutPublishingTheOutputs() throws IOException {
+		CommitSink outputs = new CommitSink();
+		try (RejectedRecords rejects = quarantine.open(cosClient, BUCKET, "import/Product.json")) {
+			rejects.reject(0, JsonNodeFactory.instance.numberNode(1), new ProcessingException("invalid"));
+			rejects.reject(1, JsonNodeFactory.instance.numberNode(2), new ProcessingException("invalid"));
+			ConversionResponse response = quarantine.complete(outputs, 0, rejects);
+			assertFalse(response.isSuccess());
+			assertFalse(outputs.committed);
+			assertEquals(0, response.getAcceptedRecords());
+			assertEquals(2, response.getRejectedRecords());
+			assertEquals(rejects.getCosKey(), response.getRejectsFile());
+			assertTrue(cosClient.doesObjectExist(BUCKET, rejects.getCosKey()));
+		}
+	}
+
+	@Test
+	void runWithoutRejectsPublishesNoRejectsFile() throws IOException {
+		CommitSink outputs = new CommitSink();
+		try (RejectedRecords rejects = quarantine.open(cosClient, BUCKET, "import/Product.json")) {
+			ConversionResponse response = quarantine.complete(outputs, 3, rejects);
+			assertTrue(response.isSuccess());
+			assertTrue(outputs.committed);
+			assertEquals(3, response.getAcceptedRecords());
+			assertEquals(0, response.getRejectedRecords());
+			assertNull(response.getRejectsFile());
+			assertFalse(cosClient.doesObjectExist(BUCKET, rejects.getCosKey()));
+		}
+	}
+
+	@Test
+	void failModeOpensNoRejectsFile() throws IOException {
+		RecordQuarantine failMode = new RecordQuarantine(null, null, RecordQuarantine.FAIL);
+		assertNull(failMode.open(cosClient, BUCKET, "import/Product.json"));
+		CommitSink outputs = new CommitSink();
+		ConversionResponse response = failMode.complete(outputs, 3, null);
+		assertTrue(response.isSuccess());
+		assertTrue(outputs.committed);
+		assertEquals(0, response.getRejectedRecords());
+		assertThrows(IllegalArgumentException.class, () -> new RecordQuarantine(null, null, "skip"));
+	}
+
+	private static final class CommitSink implements RecordSink<Object> {
+		boolean committed;
+
+		@Override
+		public void accept(Object record) {
+		}
+
+		@Override
+		public void commit() {
+			committed = true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
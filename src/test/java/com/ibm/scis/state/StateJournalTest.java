@@ -0,0 +1,146 @@
+package com.ibm.scis.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StateJournalTest {
+
+	@TempDir
+	Path stateDir;
+
+	@Test
+	void changesSurviveReopening() throws IOException {
+		try (StateJournal journal = open()) {
+			journal.put("a", "1");
+			journal.put("b", "2");
+			journal.put("a", "3");
+			journal.remove("b");
+			journal.remove("missing");
+		}
+		try (StateJournal journal = open()) {
+			assertEquals(Map.of("a", "3"), journal.snapshot());
+		}
+	}
+
+	@Test
+	void batchesAreReplayed() throws IOException {
+		try (StateJournal journal = open()) {
+			journal.putAll(Map.of("a", "1", "b", "2", "c", "3"));
+			journal.putAll(Map.of("a", "1", "b", "9"));
+			journal.removeAll(List.of("c", "missing"));
+			assertEquals(Map.of("a", "1", "b", "9"), journal.snapshot());
+		}
+		try (StateJournal journal = open()) {
+			assertEquals(Map.of("a", "1", "b", "9"), journal.snapshot());
+		}
+	}
+
+	@Test
+	void unchangedValuesAreNotAppended() throws IOException {
+		try (StateJournal journal = open()) {
+			journal.put("a", "1");
+			long size = Files.size(journal.getFile());
+			journal.put("a", "1");
+			journal.putAll(Map.of("a", "1"));
+			journal.removeAll(List.of("missing"));
+			assertEquals(size, Files.size(journal.getFile()));
+		}
+	}
+
+	@Test
+	void tornTailIsCutOff() throws IOException {
+		Path file;
+		long sizeBeforeLastRecord;
+		try (StateJournal journal = open()) {
+			file = journal.getFile();
+			journal.put("a", "1");
+			sizeBeforeLastRecord = Files.size(file);
+			journal.put("b", "2");
+		}
+		// a crash in the middle of the last write
+		truncate(file, Files.size(file) - 3);
+		try (StateJournal journal = open()) {
+			assertEquals(Map.of("a", "1"), journal.snapshot());
+			assertEquals(sizeBeforeLastRecord, Files.size(file));
+			journal.put("c", "3");
+		}
+		try (StateJournal journal = open()) {
+			assertEquals(Map.of("a", "1", "c", "3"), journal.snapshot());
+		}
+	}
+
+	@Test
+	void corruptRecordDropsItAndEverythingAfterIt() throws IOException {
+		Path file;
+		long corruptOffset;
+		try (StateJournal journal = open()) {
+			file = journal.getFile();
+			journal.put("a", "1");
+			corruptOffset = Files.size(file) + 10;
+			journal.put("b", "2");
+			journal.put("c", "3");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 'x' }), corruptOffset);
+		}
+		try (StateJournal journal = open()) {
+			assertEquals(Map.of("a", "1"), journal.snapshot());
+		}
+	}
+
+	@Test
+	void compactionKeepsOnlyTheLiveEntries() throws IOException {
+		try (StateJournal journal = open()) {
+			journal.put("kept", "x");
+			journal.put("removed", "x");
+			journal.remove("removed");
+			long start = Files.size(journal.getFile());
+			journal.put("updated", "1000");
+			long recordSize = Files.size(journal.getFile()) - start;
+			for (int i = 1001; i < 3000; i++) {
+				journal.put("updated", Integer.toString(i));
+			}
+			// compacted along the way, so the log holds well under the 2000 updates
+			assertTrue(Files.size(journal.getFile()) < 1500 * recordSize, "journal was not compacted");
+			journal.compact();
+			long compacted = Files.size(journal.getFile());
+			journal.compact();
+			assertEquals(compacted, Files.size(journal.getFile()));
+			journal.put("added", "y");
+		}
+		try (StateJournal journal = open()) {
+			assertEquals(Map.of("kept", "x", "updated", "2999", "added", "y"), journal.snapshot());
+			assertNull(journal.get("removed"));
+		}
+	}
+
+	@Test
+	void otherFilesAreRejected() throws IOException {
+		Path file = stateDir.resolve("other.journal");
+		Files.writeString(file, "not a journal");
+		assertThrows(IOException.class, () -> StateJournal.open(file));
+	}
+
+	private StateJournal open() throws IOException {
+		return StateJournal.open(stateDir.resolve("state.journal"));
+	}
+
+	private static void truncate(Path file, long size) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(size);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.ibm.scis.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Request;
+import com.ibm.cloud.objectstorage.services.s3.model.ListObjectsV2Result;
+import com.ibm.cloud.objectstorage.services.s3.model.S3ObjectSummary;
+import com.ibm.scis.local.LocalCosClient;
+
+class CosBucketIndexTest {
+
+	private static final String BUCKET = "flex";
+
+	@TempDir
+	Path root;
+
+	private ListingHookClient cosClient;
+
+	@BeforeEach
+	void createBucket() throws IOException {
+		cosClient = new ListingHookClient(root);
+		cosClient.createBucket(BUCKET);
+	}
+
+	@Test
+	void refreshDropsOverlayEntriesOlderThanTheListing() {
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, true);
+		index.refresh();
+		// recorded but never written, so only the overlay knows about it
+		index.recordPut(BUCKET, "import/ghost.json", 3, "etag");
+		assertTrue(index.exists("import/ghost.json"));
+		index.refresh();
+		assertFalse(index.exists("import/ghost.json"));
+	}
+
+	@Test
+	void refreshKeepsWritesMadeWhileListing() {
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, true);
+		index.recordPut(BUCKET, "import/before.json", 1, "etag");
+		cosClient.onListing = () -> index.recordPut(BUCKET, "import/during.json", 2, "etag");
+		index.refresh();
+		assertFalse(index.exists("import/before.json"));
+		assertEquals(2, index.get("import/during.json").getSize());
+		cosClient.onListing = null;
+		index.refresh();
+		assertFalse(index.exists("import/during.json"));
+	}
+
+	@Test
+	void recordDeleteHidesAListedKeyUntilTheNextRefresh() {
+		cosClient.putObject(BUCKET, "import/Product.json", "[]");
+		cosClient.putObject(BUCKET, "import/Contacts.json", "[]");
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, true);
+		assertEquals(2, index.list("import/").size());
+		index.recordDelete(BUCKET, "import/Product.json");
+		assertNull(index.get("import/Product.json"));
+		assertEquals(List.of("import/Contacts.json"), index.listKeys());
+		index.refresh();
+		assertTrue(index.exists("import/Product.json"));
+	}
+
+	@Test
+	void recordsForOtherBucketsAreIgnored() {
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, true);
+		index.recordPut("other", "import/Product.json", 1, "etag");
+		assertFalse(index.exists("import/Product.json"));
+	}
+
+	@Test
+	void prefixListingsStopAtTheEndOfThePrefix() {
+		for (String key : new String[] { "a.csv", "a/x", "a/y/z", "a0", "b" }) {
+			cosClient.putObject(BUCKET, key, key);
+		}
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, true);
+		index.refresh();
+		index.recordPut(BUCKET, "a/w", 1, "etag");
+		index.recordPut(BUCKET, "a1", 1, "etag");
+		index.recordPut(BUCKET, "a.txt", 1, "etag");
+		assertEquals(List.of("a/w", "a/x", "a/y/z"), keys(index.list("a/")));
+		assertEquals(List.of("a/w", "a/x"), keys(index.listFolder("a/")));
+		assertEquals(List.of("a/y/"), index.listSubFolders("a/"));
+		assertEquals(List.of("a.csv", "a.txt", "a/w", "a/x", "a/y/z", "a0", "a1"), keys(index.list("a")));
+		assertEquals(List.of(), index.list("c"));
+	}
+
+	@Test
+	void disabledIndexListsTheBucketOnEveryQuery() {
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, false);
+		assertFalse(index.exists("import/Product.json"));
+		cosClient.putObject(BUCKET, "import/Product.json", "[]");
+		assertTrue(index.exists("import/Product.json"));
+		cosClient.deleteObject(BUCKET, "import/Product.json");
+		assertEquals(List.of(), index.listKeys());
+		int listings = cosClient.listings;
+		index.scheduledRefresh();
+		assertEquals(listings, cosClient.listings);
+	}
+
+	@Test
+	void enabledIndexAnswersFromTheSnapshot() {
+		CosBucketIndex index = new CosBucketIndex(cosClient, BUCKET, true);
+		assertFalse(index.exists("import/Product.json"));
+		cosClient.putObject(BUCKET, "import/Product.json", "[]");
+		assertFalse(index.exists("import/Product.json"));
+		index.scheduledRefresh();
+		assertTrue(index.exists("import/Product.json"));
+		assertEquals(1, index.size());
+	}
+
+	private static List<String> keys(List<S3ObjectSummary> summaries) {
+		return summaries.stream().map(S3ObjectSummary::getKey).toList();
+	}
+
+	/** Counts listings and runs {@link #onListing} before each, as a write racing a refresh would. */
+	private static final class ListingHookClient extends LocalCosClient {
+		Runnable onListing;
+		int listings;
+
+		ListingHookClient(Path root) throws IOException {
+			super(root);
+		}
+
+		@Override
+		public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+			listings++;
+			if (onListing != null) {
+				onListing.run();
+			}
+			return super.listObjectsV2(request);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.ibm.scis.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Checks the fast paths of {@link FieldFormats} against the JDK formatters they replace. */
+class FieldFormatsTest {
+
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+
+	@Test
+	void oneDecimalMatchesDecimalFormat() {
+		double[] values = { 0, -0.0, 0.05, 0.15, 0.25, 0.35, -0.05, 0.95, 1.05, 2.5, 9.95, 99.95, 0.1, 0.7, 12.34,
+				-12.35, 1234567.85, 1e13 + 0.05, 99999999999999.9, 1e14, 1e20, -1e15, Double.MIN_VALUE,
+				Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+		for (double value : values) {
+			assertOneDecimal(value);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			assertOneDecimal((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(16)));
+			// exact halves of a tenth, the values HALF_EVEN rounding is about
+			assertOneDecimal((random.nextInt(2_000_000) - 1_000_000) / 20.0);
+		}
+	}
+
+	@Test
+	void oneDecimalLeavesOtherStringsAlone() {
+		assertNull(FieldFormats.formatOneDecimal(null));
+		assertEquals("", FieldFormats.formatOneDecimal(""));
+		assertEquals("n/a", FieldFormats.formatOneDecimal("n/a"));
+		assertEquals("12.3", FieldFormats.formatOneDecimal("12.345"));
+		assertEquals(".5", FieldFormats.formatOneDecimal("0.5"));
+	}
+
+	@Test
+	void dateTimeMatchesTheJdkFormatter() {
+		LocalDateTime[] values = { LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_999),
+				LocalDateTime.of(1, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 12, 30, 5, 123_456_000),
+				LocalDateTime.of(10000, 1, 1, 0, 0), LocalDateTime.of(0, 6, 15, 8, 0),
+				LocalDateTime.of(-5, 1, 1, 0, 0) };
+		for (LocalDateTime value : values) {
+			assertEquals(value.format(DATE_TIME_FORMATTER), FieldFormats.formatDateTime(value), value.toString());
+		}
+	}
+
+	@Test
+	void dayBoundaryMatchesTheJdkFormatter() {
+		String[] dates = { "2024-02-29", "2023-02-29", "1900-02-29", "2000-02-29", "2024-04-31", "2024-12-31",
+				"0001-01-01", "0000-01-01", "2024-13-01", "2024-1-01", "20240101", "+10000-01-01", "not a date" };
+		for (String date : dates) {
+			assertEquals(dayBoundary(date, true), FieldFormats.formatDayBoundary(date, true), date);
+			assertEquals(dayBoundary(date, false), FieldFormats.formatDayBoundary(date, false), date);
+		}
+		assertNull(FieldFormats.formatDayBoundary(null, true));
+		assertEquals("", FieldFormats.formatDayBoundary("", false));
+	}
+
+	@Test
+	void isoDateTimeMatchesTheJdkParser() {
+		String[] values = { "2024-03-01T10:15", "2024-03-01T10:15Z", "2024-03-01T10:15:30", "2024-03-01T10:15:30Z",
+				"2024-03-01T10:15:30.", "2024-03-01T10:15:30.1", "2024-03-01T10:15:30.123456",
+				"2024-03-01T10:15:30.123456789Z", "2024-03-01T10:15:30+02:00",
+				"2024-03-01T10:15:30.5-05:00[America/New_York]", "2024-02-29T00:00:00Z", "+10000-01-01T00:00:00" };
+		for (String value : values) {
+			assertEquals(LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME).format(DATE_TIME_FORMATTER),
+					FieldFormats.reformatIsoDateTime(value), value);
+		}
+	}
+
+	@Test
+	void invalidIsoDateTimesAreRejectedLikeTheJdkParser() {
+		String[] values = { "2023-02-29T10:15:30", "2024-03-01T24:00:00", "2024-03-01T10:60", "2024-03-01 10:15:30",
+				"2024-03-01T10:15:3", "2024-03-01", "Z", "" };
+		for (String value : values) {
+			assertThrows(DateTimeParseException.class,
+					() -> LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME), value);
+			assertThrows(DateTimeParseException.class, () -> FieldFormats.reformatIsoDateTime(value), value);
+		}
+	}
+
+	private static void assertOneDecimal(double value) {
+		DecimalFormat decimalFormat = new DecimalFormat("#.0");
+		decimalFormat.setMinimumFractionDigits(1);
+		decimalFormat.setMaximumFractionDigits(1);
+		StringBuilder sb = new StringBuilder();
+		FieldFormats.appendOneDecimal(sb, value);
+		assertEquals(decimalFormat.format(value), sb.toString(), () -> Double.toString(value));
+	}
+
+	private static String dayBoundary(String date, boolean isStart) {
+		try {
+			LocalDate localDate = LocalDate.parse(date);
+			return (isStart ? localDate.atStartOfDay() : localDate.atTime(23, 59, 59, 999_999_999))
+					.format(DATE_TIME_FORMATTER);
+		} catch (DateTimeParseException e) {
+			return date;
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package com.ibm.scis.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import com.ibm.scis.model.ComplianceRecordDTO;
+import com.ibm.scis.model.OrganizationRecordDTO;
+import com.ibm.scis.model.ProductRecordDTO;
+import com.ibm.scis.model.ProductSupplierDTO;
+
+/** Checks that the compiled checks report exactly what Hibernate Validator reports. */
+class CompiledValidatorTest {
+
+	private static final Validator HIBERNATE = Validation.buildDefaultValidatorFactory().getValidator();
+
+	private static final String[] TEXT_SAMPLES = { null, "", " ", "\t\n", "a", "ab", " ab ", "abc" };
+
+	@ParameterizedTest
+	@ValueSource(classes = { ProductRecordDTO.class, ComplianceRecordDTO.class, OrganizationRecordDTO.class,
+			ProductSupplierDTO.class })
+	void conversionRecordsAreCompiledAndMatchHibernate(Class<?> dtoClass) throws Exception {
+		assertTrue(CompiledValidator.forClass(dtoClass).isCompiled(), dtoClass.getSimpleName());
+		Object bean = dtoClass.getDeclaredConstructor().newInstance();
+		assertParity(bean);
+		List<Field> fields = instanceFields(dtoClass);
+		for (Field field : fields) {
+			field.set(bean, validValue(field));
+		}
+		assertEquals(List.of(), validate(bean));
+		for (Field field : fields) {
+			Object valid = field.get(bean);
+			for (Object sample : samples(field)) {
+				field.set(bean, sample);
+				assertParity(bean);
+			}
+			field.set(bean, valid);
+		}
+	}
+
+	@Test
+	void sizedTypesMatchHibernate() {
+		Sized bean = new Sized();
+		assertTrue(CompiledValidator.forClass(Sized.class).isCompiled());
+		assertParity(bean);
+		for (List<String> tags : Arrays.asList(List.<String>of(), List.of("a"), List.of("a", "b", "c"))) {
+			for (int[] codes : new int[][] { {}, { 1 }, { 1, 2 } }) {
+				for (Map<String, String> attributes : Arrays.asList(null, Map.<String, String>of(), Map.of("k", "v"))) {
+					bean.tags = tags;
+					bean.codes = codes;
+					bean.attributes = attributes;
+					assertParity(bean);
+				}
+			}
+		}
+	}
+
+	@Test
+	void inheritedAndPrivateFieldsAreChecked() {
+		assertTrue(CompiledValidator.forClass(Child.class).isCompiled());
+		Child bean = new Child();
+		assertEquals(List.of("parent is mandatory", "child is mandatory"),
+				CompiledValidator.forClass(Child.class).validate(bean));
+		bean.parent = "p";
+		bean.setChild("c");
+		assertParity(bean);
+		assertEquals(List.of(), CompiledValidator.forClass(Child.class).validate(bean));
+	}
+
+	@Test
+	void unsupportedDeclarationsFallBackToHibernate() {
+		for (Object bean : List.of(new Templated(), new WithPattern(), new WithGroups())) {
+			assertFalse(CompiledValidator.forClass(bean.getClass()).isCompiled(), bean.getClass().getSimpleName());
+			assertParity(bean);
+			assertEquals(1, validate(bean).size());
+		}
+	}
+
+	@Test
+	void validatorsAreShared() {
+		assertSame(CompiledValidator.forClass(ProductRecordDTO.class),
+				CompiledValidator.forClass(ProductRecordDTO.class));
+	}
+
+	/** Compares the messages, which Hibernate returns in no particular order. */
+	private static void assertParity(Object bean) {
+		List<String> expected = HIBERNATE.validate(bean).stream().map(violation -> violation.getMessage()).sorted()
+				.collect(Collectors.toList());
+		List<String> actual = new ArrayList<>(validate(bean));
+		actual.sort(null);
+		assertEquals(expected, actual, () -> bean.getClass().getSimpleName() + " " + describe(bean));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<String> validate(T bean) {
+		return CompiledValidator.forClass((Class<T>) bean.getClass()).validate(bean);
+	}
+
+	private static List<Field> instanceFields(Class<?> type) {
+		List<Field> fields = new ArrayList<>();
+		for (Field field : type.getDeclaredFields()) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+		return fields;
+	}
+
+	private static Object validValue(Field field) {
+		if (field.getType() == String.class) {
+			return "ab";
+		}
+		if (field.getType() == Integer.class) {
+			return 1;
+		}
+		throw new IllegalArgumentException("No sample for " + field);
+	}
+
+	private static Object[] samples(Field field) {
+		return field.getType() == String.class ? TEXT_SAMPLES : new Object[] { null, 0 };
+	}
+
+	private static String describe(Object bean) {
+		return instanceFields(bean.getClass()).stream().map(field -> {
+			try {
+				Object value = field.get(bean);
+				return field.getName() + "=" + (value instanceof int[] ? Arrays.toString((int[]) value) : value);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}).collect(Collectors.joining(", ", "[", "]"));
+	}
+
+	public static class Sized {
+		@NotEmpty(message = "tags cannot be empty")
+		@Size(max = 2, message = "at most 2 tags")
+		List<String> tags;
+
+		@Size(min = 1, max = 1, message = "exactly one code")
+		int[] codes;
+
+		@NotEmpty(message = "attributes cannot be empty")
+		Map<String, String> attributes;
+	}
+
+	public static class Parent {
+		@NotBlank(message = "parent is mandatory")
+		String parent;
+	}
+
+	public static class Child extends Parent {
+		@NotNull(message = "child is mandatory")
+		private String child;
+
+		void setChild(String child) {
+			this.child = child;
+		}
+	}
+
+	public static class Templated {
+		@NotNull
+		String value;
+	}
+
+	public static class WithPattern {
+		@Pattern(regexp = "[0-9]+", message = "digits only")
+		String value = "abc";
+	}
+
+	public static class WithGroups {
+		interface Strict {
+		}
+
+		@NotNull(message = "strict value is mandatory", groups = Strict.class)
+		String strict;
+
+		@NotNull(message = "value is mandatory")
+		String value;
+	}
+}